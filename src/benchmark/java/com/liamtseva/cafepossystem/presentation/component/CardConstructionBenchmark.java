@@ -0,0 +1,116 @@
+package com.liamtseva.cafepossystem.presentation.component;
+
+import com.liamtseva.cafepossystem.persistence.connection.DatabaseConnection;
+import com.liamtseva.cafepossystem.presentation.controller.CartItemCard;
+import com.liamtseva.cafepossystem.presentation.controller.MenuItemCard;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.VBox;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Мікробенчмарк побудови карток: завантаження FXML проти компонентів, побудованих кодом.
+ *
+ * <p>Лежить в окремому наборі джерел {@code src/benchmark/java} і в jar застосунку не потрапляє.
+ * Запуск з кореня проєкту (поруч з {@code db/}) через профіль {@code benchmark}; кількість карток
+ * у раунді задає {@code benchmark.cards}:
+ * <pre>{@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.cards=500}</pre>
+ * Потрібен дисплей: JavaFX тут запускається повністю, як у застосунку.
+ *
+ * <p>Обидва шляхи створюють і контролер картки з його репозиторіями, тож різниця — це розбір XML,
+ * рефлексивне зв'язування {@code @FXML}-полів і декодування заглушок. Картки додаються в сцену
+ * й проходять CSS, як у застосунку. Кожен шлях спершу прогрівається, далі друкується медіана
+ * раундів у мікросекундах на картку.
+ */
+public final class CardConstructionBenchmark {
+
+    private static final int DEFAULT_CARDS = 500;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 11;
+
+    @FunctionalInterface
+    private interface CardFactory {
+        Node create() throws IOException;
+    }
+
+    private CardConstructionBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int cards = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CARDS;
+        DatabaseConnection.initializeDataSource();
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                run(cards);
+                done.complete(null);
+            } catch (Throwable e) {
+                done.completeExceptionally(e);
+            }
+        });
+        try {
+            done.get();
+        } finally {
+            Platform.exit();
+            DatabaseConnection.getInstance().closePool();
+        }
+    }
+
+    private static void run(int cards) throws IOException {
+        System.out.printf("Карток у раунді: %d, раундів: %d (+%d прогрівання)%n", cards, MEASURED_ROUNDS, WARMUP_ROUNDS);
+        compare("menuItemCard", cards,
+                () -> load("/view/menuItemCard.fxml"),
+                () -> new MenuItemCard(new MenuItemCardView()).getRoot());
+        compare("cartItemCard", cards,
+                () -> load("/view/cartItemCard.fxml"),
+                () -> new CartItemCard(new CartItemCardView()).getRoot());
+        compare("socialOrderCard", cards,
+                () -> load("/view/socialOrderCard.fxml"),
+                SocialOrderCardView::new);
+    }
+
+    private static Parent load(String view) throws IOException {
+        return new FXMLLoader(CardConstructionBenchmark.class.getResource(view)).load();
+    }
+
+    private static void compare(String name, int cards, CardFactory fromFxml, CardFactory fromCode) throws IOException {
+        double fxml = measure(cards, fromFxml);
+        double code = measure(cards, fromCode);
+        System.out.printf("%-16s FXML %9.1f мкс/картка   код %9.1f мкс/картка   у %.1f раза швидше%n",
+                name, fxml, code, fxml / code);
+    }
+
+    private static double measure(int cards, CardFactory factory) throws IOException {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            build(cards, factory);
+        }
+        long[] samples = new long[MEASURED_ROUNDS];
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            samples[round] = build(cards, factory);
+        }
+        Arrays.sort(samples);
+        return samples[MEASURED_ROUNDS / 2] / 1_000.0 / cards;
+    }
+
+    private static long build(int cards, CardFactory factory) throws IOException {
+        VBox container = new VBox();
+        new Scene(container);
+        long start = System.nanoTime();
+        for (int i = 0; i < cards; i++) {
+            container.getChildren().add(factory.create());
+        }
+        container.applyCss();
+        return System.nanoTime() - start;
+    }
+}
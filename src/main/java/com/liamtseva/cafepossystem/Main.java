@@ -2,6 +2,8 @@ package com.liamtseva.cafepossystem;
 
 import atlantafx.base.theme.PrimerLight;
 import com.liamtseva.cafepossystem.persistence.connection.DatabaseConnection;
+import com.liamtseva.cafepossystem.startup.StartupMode;
+import com.liamtseva.cafepossystem.startup.StartupSequence;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -13,9 +15,12 @@ import javafx.stage.StageStyle;
 public class Main extends Application {
 
   private static DatabaseConnection databaseConnection;
+  private static long launchNanos;
 
   @Override
   public void start(Stage primaryStage) throws Exception {
+    long startNanos = System.nanoTime();
+    StartupSequence.get().timeline().record("javafx-launch", launchNanos, startNanos);
     Application.setUserAgentStylesheet(new PrimerLight().getUserAgentStylesheet());
     primaryStage.getIcons().add(new Image(getClass().getResourceAsStream("/data/icon.png")));
     FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/authorization.fxml"));
@@ -26,6 +31,7 @@ public class Main extends Application {
     Scene scene = new Scene(root);
     primaryStage.setScene(scene);
     primaryStage.show();
+    StartupSequence.get().loginScreenShown(startNanos);
   }
 
   @Override
@@ -40,7 +46,9 @@ public class Main extends Application {
     System.setProperty("file.encoding", "UTF-8");
     databaseConnection = DatabaseConnection.getInstance();
     try {
-      databaseConnection.initializeDataSource();
+      // Пул, міграції та прогрів ідуть паралельно з показом вікна входу; вхід чекає на базу
+      StartupSequence.get().start(StartupMode.requested());
+      launchNanos = System.nanoTime();
       launch(args);
     } finally {
         if (databaseConnection != null) {
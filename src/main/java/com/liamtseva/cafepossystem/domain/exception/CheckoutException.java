@@ -0,0 +1,12 @@
+package com.liamtseva.cafepossystem.domain.exception;
+
+public class CheckoutException extends Exception {
+
+    public CheckoutException(String message) {
+        super(message);
+    }
+
+    public CheckoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.liamtseva.cafepossystem.domain.exception;
+
+public class SchemaMigrationException extends RuntimeException {
+
+    public SchemaMigrationException(String message) {
+        super(message);
+    }
+
+    public SchemaMigrationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,243 @@
+package com.liamtseva.cafepossystem.domain.service;
+
+import com.liamtseva.cafepossystem.domain.exception.CheckoutException;
+import com.liamtseva.cafepossystem.persistence.cache.TableOccupancyRegistry;
+import com.liamtseva.cafepossystem.persistence.codec.ColumnCodec;
+import com.liamtseva.cafepossystem.persistence.connection.BatchWriter;
+import com.liamtseva.cafepossystem.persistence.connection.StatementCache;
+import com.liamtseva.cafepossystem.persistence.connection.WriteQueue;
+import com.liamtseva.cafepossystem.persistence.entity.BonusTransaction;
+import com.liamtseva.cafepossystem.persistence.entity.Cart;
+import com.liamtseva.cafepossystem.persistence.entity.Order;
+import com.liamtseva.cafepossystem.persistence.entity.enums.BonusTransactionType;
+import com.liamtseva.cafepossystem.persistence.entity.enums.OrderStatus;
+import com.liamtseva.cafepossystem.persistence.repository.impl.OrderRepositoryImpl;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Оформлення замовлення з кошика однією транзакцією.
+ *
+ * <p>Замовлення, його зв'язки з позиціями кошика, позначка {@code is_ordered}, зміна бонусного
+ * балансу та записи історії бонусів виконуються одним завданням {@link WriteQueue}. Баланс
+ * змінюється виразом у SQL, а не записом прочитаного раніше значення, тож оформлення з іншого
+ * терміналу його не перезапише. Будь-яка помилка відкочує оформлення повністю.
+ *
+ * <p>{@link TableOccupancyRegistry} лише швидко відсіює зайняті столики в цьому процесі.
+ * Остаточна перевірка столика — запит до Orders у тому самому завданні запису, тож два
+ * термінали не займуть один столик.
+ */
+public class CheckoutService {
+
+    private static final double BONUS_RATE = 0.05;
+
+    private static final String FIND_TABLE_ORDER = "SELECT 1 FROM Orders WHERE table_number = ? AND status IN (?, ?) LIMIT 1";
+    private static final String INSERT_ORDER = "INSERT INTO Orders (order_id, user_id, order_date, total_amount, bonuses_earned, bonuses_used, status, notes, is_social, table_number) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_LINK = "INSERT INTO OrderCartItems (order_id, cart_id) VALUES (?, ?)";
+    private static final String MARK_ORDERED = "UPDATE Cart SET is_ordered = 1 WHERE user_id = ? AND is_ordered = 0"
+            + " AND cart_id IN (SELECT cart_id FROM OrderCartItems WHERE order_id = ?)";
+    private static final String FIND_CARD = "SELECT card_id FROM LoyaltyCards WHERE user_id = ?";
+    private static final String ADJUST_BALANCE = "UPDATE LoyaltyCards SET balance = balance - ? + ? WHERE card_id = ? AND balance >= ?";
+    private static final String INSERT_BONUS_TRANSACTION = "INSERT INTO BonusTransactions (transaction_id, card_id, order_id, amount, type, transaction_date, notes) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final WriteQueue writeQueue;
+    private final ColumnCodec codec;
+    private final TableOccupancyRegistry tableOccupancy;
+
+    public CheckoutService(DataSource dataSource) {
+        this(dataSource, dataSource);
+    }
+
+    public CheckoutService(DataSource readDataSource, DataSource writeDataSource) {
+        this.writeQueue = WriteQueue.forDataSource(writeDataSource);
+        this.codec = ColumnCodec.forDataSource(readDataSource);
+        this.tableOccupancy = TableOccupancyRegistry.forDataSource(readDataSource);
+    }
+
+    /**
+     * Нове замовлення зі статусом {@link OrderStatus#PENDING}: сума рахується з позицій кошика,
+     * бонуси нараховуються з суми після списання.
+     */
+    public Order newOrder(UUID userId, List<Cart> lines, double bonusesToUse, String notes,
+                          boolean isSocial, Integer tableNumber) {
+        double totalAmount = lines.stream().mapToDouble(Cart::subtotal).sum();
+        double bonusesEarned = (totalAmount - bonusesToUse) * BONUS_RATE;
+        return new Order(UUID.randomUUID(), userId, LocalDateTime.now(), totalAmount, bonusesEarned,
+                bonusesToUse, OrderStatus.PENDING, notes, isSocial, tableNumber);
+    }
+
+    /**
+     * Записує замовлення і закриває позиції кошика {@code lines}.
+     *
+     * @throws CheckoutException якщо столик зайнятий, позиції вже замовлені, бонусів недостатньо
+     *                           або запис не вдався; у базі тоді нічого не змінюється
+     */
+    public Order checkout(Order order, List<Cart> lines) throws CheckoutException {
+        if (lines == null || lines.isEmpty()) {
+            throw new CheckoutException("Наразі Ваш кошик порожній");
+        }
+        Integer tableNumber = order.tableNumber();
+        if (tableNumber != null && !claimTable(tableNumber, order.id())) {
+            throw new CheckoutException(tableTakenMessage(tableNumber));
+        }
+        boolean committed = false;
+        try {
+            writeQueue.execute(connection -> {
+                if (tableNumber != null && isTableTaken(connection, tableNumber)) {
+                    throw new TableTaken(tableTakenMessage(tableNumber));
+                }
+                insertOrder(connection, order);
+                BatchWriter.executeBatch(connection, INSERT_LINK, lines, (statement, line) -> {
+                    codec.setUuid(statement, 1, order.id());
+                    codec.setUuid(statement, 2, line.id());
+                });
+                if (markOrdered(connection, order) != lines.size()) {
+                    throw new Rejected("Кошик змінився під час оформлення. Оновіть кошик і спробуйте ще раз.");
+                }
+                UUID cardId = adjustBalance(connection, order);
+                if (cardId != null) {
+                    appendBonusTransactions(connection, cardId, order);
+                }
+                return order;
+            });
+            committed = true;
+            return order;
+        } catch (TableTaken e) {
+            // Столик зайняли з іншого терміналу — реєстр має про це дізнатися
+            tableOccupancy.rebuild();
+            throw new CheckoutException(e.getMessage());
+        } catch (Rejected e) {
+            throw new CheckoutException(e.getMessage());
+        } catch (SQLException e) {
+            throw new CheckoutException("Помилка при оформленні замовлення", e);
+        } finally {
+            if (!committed && tableNumber != null) {
+                tableOccupancy.release(tableNumber, order.id());
+            }
+        }
+    }
+
+    // Реєстр може тримати столик, звільнений на іншому терміналі, тож перед відмовою його перечитуємо
+    private boolean claimTable(int tableNumber, UUID orderId) {
+        if (tableOccupancy.claim(tableNumber, orderId)) {
+            return true;
+        }
+        tableOccupancy.rebuild();
+        return tableOccupancy.claim(tableNumber, orderId);
+    }
+
+    private boolean isTableTaken(Connection connection, int tableNumber) throws SQLException {
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, FIND_TABLE_ORDER)) {
+            preparedStatement.setInt(1, tableNumber);
+            codec.setEnum(preparedStatement, 2, OrderStatus.PENDING);
+            codec.setEnum(preparedStatement, 3, OrderStatus.CONFIRMED);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private static String tableTakenMessage(int tableNumber) {
+        return "Столик №" + tableNumber + " вже зайнятий. Оберіть інший столик.";
+    }
+
+    private void insertOrder(Connection connection, Order order) throws SQLException {
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, INSERT_ORDER)) {
+            codec.setUuid(preparedStatement, 1, order.id());
+            codec.setUuid(preparedStatement, 2, order.userId());
+            preparedStatement.setString(3, order.orderDate().format(OrderRepositoryImpl.ORDER_DATE_FORMATTER));
+            preparedStatement.setDouble(4, order.totalAmount());
+            preparedStatement.setDouble(5, order.bonusesEarned());
+            preparedStatement.setDouble(6, order.bonusesUsed());
+            codec.setEnum(preparedStatement, 7, order.status());
+            preparedStatement.setString(8, order.notes());
+            preparedStatement.setBoolean(9, order.isSocial());
+            preparedStatement.setObject(10, order.tableNumber());
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    // Один запит на всі позиції; позиції іншого користувача чи вже замовлені не рахуються
+    private int markOrdered(Connection connection, Order order) throws SQLException {
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, MARK_ORDERED)) {
+            codec.setUuid(preparedStatement, 1, order.userId());
+            codec.setUuid(preparedStatement, 2, order.id());
+            return preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * @return картка, баланс якої змінено, або {@code null}, якщо змінювати нічого
+     */
+    private UUID adjustBalance(Connection connection, Order order) throws SQLException {
+        if (order.bonusesUsed() <= 0 && order.bonusesEarned() <= 0) {
+            return null;
+        }
+        UUID cardId;
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, FIND_CARD)) {
+            codec.setUuid(preparedStatement, 1, order.userId());
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                cardId = resultSet.next() ? codec.getUuid(resultSet, "card_id") : null;
+            }
+        }
+        if (cardId == null) {
+            if (order.bonusesUsed() > 0) {
+                throw new Rejected("У вас немає активної бонусної карти");
+            }
+            return null;
+        }
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, ADJUST_BALANCE)) {
+            preparedStatement.setDouble(1, order.bonusesUsed());
+            preparedStatement.setDouble(2, order.bonusesEarned());
+            codec.setUuid(preparedStatement, 3, cardId);
+            preparedStatement.setDouble(4, order.bonusesUsed());
+            if (preparedStatement.executeUpdate() == 0) {
+                throw new Rejected("Недостатньо бонусів на балансі");
+            }
+        }
+        return cardId;
+    }
+
+    private void appendBonusTransactions(Connection connection, UUID cardId, Order order) throws SQLException {
+        List<BonusTransaction> transactions = new ArrayList<>(2);
+        if (order.bonusesUsed() > 0) {
+            transactions.add(new BonusTransaction(UUID.randomUUID(), cardId, order.id(), -order.bonusesUsed(),
+                    BonusTransactionType.REDEMPTION, order.orderDate(), "Списання бонусів за замовлення"));
+        }
+        if (order.bonusesEarned() > 0) {
+            transactions.add(new BonusTransaction(UUID.randomUUID(), cardId, order.id(), order.bonusesEarned(),
+                    BonusTransactionType.ACCRUAL, order.orderDate(), "Нарахування бонусів за замовлення"));
+        }
+        BatchWriter.executeBatch(connection, INSERT_BONUS_TRANSACTION, transactions, (statement, transaction) -> {
+            codec.setUuid(statement, 1, transaction.id());
+            codec.setUuid(statement, 2, transaction.cardId());
+            codec.setUuid(statement, 3, transaction.orderId());
+            statement.setDouble(4, transaction.amount());
+            codec.setEnum(statement, 5, transaction.type());
+            statement.setTimestamp(6, Timestamp.valueOf(transaction.transactionDate()));
+            statement.setString(7, transaction.notes());
+        });
+    }
+
+    /** Відмова в оформленні, яку треба показати користувачеві, а не як збій бази. */
+    private static class Rejected extends SQLException {
+        private Rejected(String message) {
+            super(message);
+        }
+    }
+
+    private static final class TableTaken extends Rejected {
+        private TableTaken(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.liamtseva.cafepossystem.persistence.cache;
+
+import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
+import com.liamtseva.cafepossystem.persistence.entity.Category;
+import com.liamtseva.cafepossystem.persistence.entity.MenuItem;
+import com.liamtseva.cafepossystem.persistence.entity.MenuItemSummary;
+import com.liamtseva.cafepossystem.persistence.repository.contract.MenuItemRepository;
+import com.liamtseva.cafepossystem.persistence.repository.contract.SaveResult;
+import com.liamtseva.cafepossystem.persistence.repository.impl.MenuItemRepositoryImpl;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import javax.sql.DataSource;
+
+/**
+ * {@link MenuItemRepository} з незмінним знімком каталогу в пам'яті.
+ *
+ * <p>Знімок тримає страви без зображень за ID і за назвою, категорії кожної страви і
+ * бітмап-індекс страв кожної категорії ({@link CategoryIndex}). Читання беруть поточний знімок
+ * з volatile-поля без блокувань і без бази. Після кожного запису через цей репозиторій
+ * будується змінена копія знімка й атомарно замінює попередню (копіювання під час запису);
+ * записи між собою впорядковані монітором.
+ *
+ * <p>Байти зображень, повні страви (з зображенням), позиції кошика користувача і повнотекстовий
+ * пошук у знімок не входять і йдуть до бази: оригінали фото займали б у пам'яті більше,
+ * ніж решта каталогу.
+ * Зміни з інших терміналів знімок не бачить до {@link #refreshIfChanged()}: той порівнює
+ * лічильник змін каталогу, що його збільшують тригери бази, з лічильником на момент завантаження
+ * знімка. Власні записи теж збільшують лічильник, тож після них знімок один раз перечитується.
+ */
+public final class CachingMenuItemRepository implements MenuItemRepository {
+
+  private static final Map<DataSource, CachingMenuItemRepository> REPOSITORIES = new ConcurrentHashMap<>();
+
+  private final MenuItemRepository delegate;
+  private volatile Snapshot snapshot;
+
+  public CachingMenuItemRepository(MenuItemRepository delegate) {
+    this.delegate = delegate;
+  }
+
+  /** Спільний для всіх екранів репозиторій, щоб вони бачили один знімок. */
+  public static CachingMenuItemRepository forDataSources(DataSource readDataSource, DataSource writeDataSource) {
+    return REPOSITORIES.computeIfAbsent(writeDataSource,
+        ds -> new CachingMenuItemRepository(new MenuItemRepositoryImpl(readDataSource, ds)));
+  }
+
+  /** Відкидає знімок; наступне читання завантажить каталог з бази наново. */
+  public synchronized void refresh() {
+    snapshot = null;
+  }
+
+  /**
+   * Перечитує знімок, якщо каталог у базі змінився після його завантаження.
+   * Звертається до бази, тож викликається не з потоку JavaFX.
+   *
+   * @return {@code true}, якщо знімок перечитано
+   */
+  public boolean refreshIfChanged() {
+    Snapshot current = snapshot;
+    if (current == null) {
+      return false;
+    }
+    long version = delegate.findCatalogVersion();
+    if (version < 0 || version == current.version) {
+      return false;
+    }
+    synchronized (this) {
+      snapshot = load();
+    }
+    return true;
+  }
+
+  /** Оновлює назву категорії в знімку після її збереження. */
+  public void categorySaved(Category category) {
+    modify(current -> current.withCategoryRenamed(category));
+  }
+
+  /** Прибирає категорію зі знімка після її видалення. */
+  public void categoryDeleted(UUID categoryId) {
+    modify(current -> current.withoutCategory(categoryId));
+  }
+
+  /** Бітмап-індекс категорій поточного знімка. */
+  public CategoryIndex categoryIndex() {
+    return snapshot().categoryIndex;
+  }
+
+  @Override
+  public MenuItem findById(UUID id) throws EntityNotFoundException {
+    if (!snapshot().itemsById.containsKey(id)) {
+      throw new EntityNotFoundException("Елемент меню з ID " + id + " не знайдено");
+    }
+    return delegate.findById(id);
+  }
+
+  @Override
+  public MenuItem findByName(String name) throws EntityNotFoundException {
+    MenuItemSummary item = snapshot().itemsByName.get(name);
+    if (item == null) {
+      throw new EntityNotFoundException("Елемент меню з назвою " + name + " не знайдено");
+    }
+    return delegate.findById(item.id());
+  }
+
+  @Override
+  public MenuItemSummary findSummaryById(UUID id) throws EntityNotFoundException {
+    MenuItemSummary item = snapshot().itemsById.get(id);
+    if (item == null) {
+      throw new EntityNotFoundException("Елемент меню з ID " + id + " не знайдено");
+    }
+    return item;
+  }
+
+  @Override
+  public List<MenuItem> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public List<MenuItem> findByCategoryId(UUID categoryId) {
+    return delegate.findByCategoryId(categoryId);
+  }
+
+  @Override
+  public List<MenuItem> findCartItemsByUserId(UUID userId) {
+    return delegate.findCartItemsByUserId(userId);
+  }
+
+  @Override
+  public List<Category> findCategoriesByItemId(UUID itemId) {
+    return snapshot().categoriesByItem.getOrDefault(itemId, List.of());
+  }
+
+  @Override
+  public Map<UUID, List<Category>> findAllItemCategories() {
+    return snapshot().categoriesByItem;
+  }
+
+  @Override
+  public List<MenuItemSummary> findAllSummaries() {
+    return snapshot().items;
+  }
+
+  @Override
+  public List<MenuItemSummary> findSummariesByCategoryId(UUID categoryId) {
+    CategoryIndex index = snapshot().categoryIndex;
+    return index.select(index.anyOf(List.of(categoryId)));
+  }
+
+  @Override
+  public List<MenuItemSummary> findCartSummariesByUserId(UUID userId) {
+    return delegate.findCartSummariesByUserId(userId);
+  }
+
+  @Override
+  public List<MenuItemSummary> search(String query, int limit) {
+    return delegate.search(query, limit);
+  }
+
+  @Override
+  public byte[] loadImage(UUID itemId) {
+    return delegate.loadImage(itemId);
+  }
+
+  @Override
+  public byte[] loadThumbnail(UUID itemId) {
+    return delegate.loadThumbnail(itemId);
+  }
+
+  @Override
+  public long findCatalogVersion() {
+    return delegate.findCatalogVersion();
+  }
+
+  @Override
+  public SaveResult<MenuItem> upsert(MenuItem menuItem) {
+    SaveResult<MenuItem> result = delegate.upsert(menuItem);
+    if (result != null) {
+      MenuItem saved = result.entity();
+      MenuItemSummary summary = new MenuItemSummary(saved.id(), saved.name(), saved.description(),
+          saved.price(), saved.calories());
+      modify(current -> current.withItem(summary));
+    }
+    return result;
+  }
+
+  @Override
+  public void deleteById(UUID id) throws EntityNotFoundException {
+    // Делегат кидає виняток, якщо рядка немає або видалення не вдалося; тоді знімок лишається як є
+    delegate.deleteById(id);
+    modify(current -> current.withoutItem(id));
+  }
+
+  @Override
+  public void saveItemCategories(UUID itemId, List<UUID> categoryIds) {
+    delegate.saveItemCategories(itemId, categoryIds);
+    reloadItemCategories(itemId);
+  }
+
+  @Override
+  public void deleteItemCategories(UUID itemId) {
+    delegate.deleteItemCategories(itemId);
+    modify(current -> current.withItemCategories(itemId, List.of()));
+  }
+
+  @Override
+  public void updateItemCategories(UUID itemId, List<UUID> categoryIds) {
+    delegate.updateItemCategories(itemId, categoryIds);
+    reloadItemCategories(itemId);
+  }
+
+  // Назви категорій могли з'явитися після завантаження знімка, тож їх перечитуємо
+  private void reloadItemCategories(UUID itemId) {
+    if (snapshot != null) {
+      List<Category> categories = delegate.findCategoriesByItemId(itemId);
+      modify(current -> current.withItemCategories(itemId, categories));
+    }
+  }
+
+  private Snapshot snapshot() {
+    Snapshot current = snapshot;
+    if (current != null) {
+      return current;
+    }
+    synchronized (this) {
+      if (snapshot == null) {
+        snapshot = load();
+      }
+      return snapshot;
+    }
+  }
+
+  // Лічильник читається першим: зміна, що потрапить між ним і даними, дасть ще одне перечитування, а не пропуск
+  private Snapshot load() {
+    long version = delegate.findCatalogVersion();
+    return new Snapshot(delegate.findAllSummaries(), delegate.findAllItemCategories(), version);
+  }
+
+  // Незавантажений знімок не змінюємо: перше читання і так побачить актуальні дані
+  private synchronized void modify(UnaryOperator<Snapshot> change) {
+    if (snapshot != null) {
+      snapshot = change.apply(snapshot);
+    }
+  }
+
+  private static final class Snapshot {
+    private final List<MenuItemSummary> items;
+    private final Map<UUID, MenuItemSummary> itemsById;
+    private final Map<String, MenuItemSummary> itemsByName;
+    private final Map<UUID, List<Category>> categoriesByItem;
+    private final CategoryIndex categoryIndex;
+    private final long version;
+
+    private Snapshot(List<MenuItemSummary> items, Map<UUID, List<Category>> categoriesByItem, long version) {
+      this.version = version;
+      this.items = List.copyOf(items);
+      Map<UUID, MenuItemSummary> byId = new LinkedHashMap<>();
+      Map<String, MenuItemSummary> byName = new LinkedHashMap<>();
+      Map<UUID, List<Category>> categories = new LinkedHashMap<>();
+      for (MenuItemSummary item : this.items) {
+        byId.put(item.id(), item);
+        // Як і запит за назвою, повертаємо першу страву з такою назвою
+        byName.putIfAbsent(item.name(), item);
+        categories.put(item.id(), List.copyOf(categoriesByItem.getOrDefault(item.id(), List.of())));
+      }
+      this.itemsById = Map.copyOf(byId);
+      this.itemsByName = Map.copyOf(byName);
+      this.categoriesByItem = Map.copyOf(categories);
+      this.categoryIndex = new CategoryIndex(this.items, this.categoriesByItem);
+    }
+
+    private Snapshot withItem(MenuItemSummary item) {
+      List<MenuItemSummary> changed = new ArrayList<>(items);
+      int index = changed.indexOf(itemsById.get(item.id()));
+      if (index >= 0) {
+        changed.set(index, item);
+      } else {
+        changed.add(item);
+      }
+      return new Snapshot(changed, categoriesByItem, version);
+    }
+
+    private Snapshot withoutItem(UUID itemId) {
+      List<MenuItemSummary> changed = new ArrayList<>(items);
+      changed.removeIf(item -> item.id().equals(itemId));
+      return new Snapshot(changed, categoriesByItem, version);
+    }
+
+    private Snapshot withItemCategories(UUID itemId, List<Category> itemCategories) {
+      Map<UUID, List<Category>> changed = new LinkedHashMap<>(categoriesByItem);
+      changed.put(itemId, itemCategories);
+      return new Snapshot(items, changed, version);
+    }
+
+    private Snapshot withCategoryRenamed(Category category) {
+      Map<UUID, List<Category>> changed = new LinkedHashMap<>(categoriesByItem);
+      changed.replaceAll((itemId, itemCategories) -> itemCategories.stream()
+          .map(existing -> existing.id().equals(category.id()) ? category : existing)
+          .toList());
+      return new Snapshot(items, changed, version);
+    }
+
+    private Snapshot withoutCategory(UUID categoryId) {
+      Map<UUID, List<Category>> changed = new LinkedHashMap<>(categoriesByItem);
+      changed.replaceAll((itemId, itemCategories) -> itemCategories.stream()
+          .filter(existing -> !existing.id().equals(categoryId))
+          .toList());
+      return new Snapshot(items, changed, version);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package com.liamtseva.cafepossystem.persistence.cache;
+
+import com.liamtseva.cafepossystem.persistence.entity.Category;
+import com.liamtseva.cafepossystem.persistence.entity.MenuItemSummary;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Бітмап-індекс категорій одного знімка каталогу: для кожної категорії — {@link BitSet} позицій
+ * її страв у списку каталогу.
+ *
+ * <p>Фільтр за кількома категоріями — це OR їхніх бітмапів по 64 страви за машинне слово;
+ * результати пошуку перетинаються з ним перевіркою одного біта на страву. Обидва кроки не
+ * звертаються до бази. Індекс незмінний і
+ * належить знімку, тож позиції завжди відповідають його списку; назовні віддаються лише копії
+ * бітмапів.
+ */
+public final class CategoryIndex {
+
+  private final List<MenuItemSummary> items;
+  private final Map<UUID, Integer> positions;
+  private final Map<UUID, BitSet> categories;
+
+  CategoryIndex(List<MenuItemSummary> items, Map<UUID, List<Category>> categoriesByItem) {
+    this.items = items;
+    this.positions = new HashMap<>(items.size() * 2);
+    this.categories = new HashMap<>();
+    for (int position = 0; position < items.size(); position++) {
+      UUID itemId = items.get(position).id();
+      positions.putIfAbsent(itemId, position);
+      for (Category category : categoriesByItem.getOrDefault(itemId, List.of())) {
+        categories.computeIfAbsent(category.id(), id -> new BitSet(items.size())).set(position);
+      }
+    }
+  }
+
+  /** Усі позиції каталогу. */
+  public BitSet all() {
+    BitSet all = new BitSet(items.size());
+    all.set(0, items.size());
+    return all;
+  }
+
+  /**
+   * Позиції страв, що належать хоча б до однієї з категорій.
+   * Порожній набір категорій не фільтрує нічого і дає весь каталог.
+   */
+  public BitSet anyOf(Collection<UUID> categoryIds) {
+    if (categoryIds.isEmpty()) {
+      return all();
+    }
+    BitSet result = new BitSet(items.size());
+    for (UUID categoryId : categoryIds) {
+      BitSet category = categories.get(categoryId);
+      if (category != null) {
+        result.or(category);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Страви з {@code ranked}, чиї позиції є в {@code selection}, зі збереженням порядку
+   * {@code ranked} — наприклад, релевантності пошуку.
+   */
+  public List<MenuItemSummary> retain(List<MenuItemSummary> ranked, BitSet selection) {
+    List<MenuItemSummary> retained = new ArrayList<>(ranked.size());
+    for (MenuItemSummary item : ranked) {
+      Integer position = positions.get(item.id());
+      if (position != null && selection.get(position)) {
+        retained.add(item);
+      }
+    }
+    return retained;
+  }
+
+  /** Страви на позиціях {@code selection} у порядку каталогу. */
+  public List<MenuItemSummary> select(BitSet selection) {
+    List<MenuItemSummary> selected = new ArrayList<>(selection.cardinality());
+    for (int position = selection.nextSetBit(0); position >= 0 && position < items.size();
+        position = selection.nextSetBit(position + 1)) {
+      selected.add(items.get(position));
+    }
+    return selected;
+  }
+}
@@ -0,0 +1,105 @@
+package com.liamtseva.cafepossystem.persistence.cache;
+
+import com.liamtseva.cafepossystem.persistence.codec.ColumnCodec;
+import com.liamtseva.cafepossystem.persistence.connection.StatementCache;
+import com.liamtseva.cafepossystem.persistence.entity.Order;
+import com.liamtseva.cafepossystem.persistence.entity.enums.OrderStatus;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+
+/**
+ * Зайняті столики: номер столика → активне замовлення, що його займає.
+ *
+ * <p>Заповнюється запитом за індексом {@code (status, table_number)}, далі оновлюється після
+ * кожного коміту замовлення цього процесу. Перевірка і захоплення столика — одна операція над
+ * {@link ConcurrentHashMap}, без звернення до бази, тож два одночасні оформлення в одному
+ * процесі не займуть один столик. Зміни з інших терміналів реєстр бачить лише після
+ * {@link #rebuild()}, тому це швидка попередня перевірка: остаточну робить оформлення
+ * замовлення в транзакції запису, а кошик перечитує реєстр щоразу, коли його відкривають.
+ */
+public final class TableOccupancyRegistry {
+
+  private static final Map<DataSource, TableOccupancyRegistry> REGISTRIES = new ConcurrentHashMap<>();
+
+  private final DataSource dataSource;
+  private final ColumnCodec codec;
+  private final Map<Integer, UUID> tables = new ConcurrentHashMap<>();
+
+  private TableOccupancyRegistry(DataSource dataSource) {
+    this.dataSource = dataSource;
+    this.codec = ColumnCodec.forDataSource(dataSource);
+    rebuild();
+  }
+
+  public static TableOccupancyRegistry forDataSource(DataSource dataSource) {
+    return REGISTRIES.computeIfAbsent(dataSource, TableOccupancyRegistry::new);
+  }
+
+  /** Статуси, за яких замовлення займає столик. */
+  public static boolean isActive(OrderStatus status) {
+    return status == OrderStatus.PENDING || status == OrderStatus.CONFIRMED;
+  }
+
+  /**
+   * Перечитує зайняті столики з бази.
+   */
+  public synchronized void rebuild() {
+    String query = "SELECT table_number, order_id FROM Orders"
+        + " WHERE status IN (?, ?) AND table_number IS NOT NULL";
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+      codec.setEnum(preparedStatement, 1, OrderStatus.PENDING);
+      codec.setEnum(preparedStatement, 2, OrderStatus.CONFIRMED);
+      tables.clear();
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          tables.putIfAbsent(resultSet.getInt(1), codec.getUuid(resultSet, 2));
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Не вдалося завантажити зайняті столики", e);
+    }
+  }
+
+  public boolean isOccupied(int tableNumber) {
+    return tables.containsKey(tableNumber);
+  }
+
+  /**
+   * Займає столик для замовлення.
+   *
+   * @return {@code false}, якщо столик уже зайнятий іншим замовленням
+   */
+  public boolean claim(int tableNumber, UUID orderId) {
+    UUID holder = tables.putIfAbsent(tableNumber, orderId);
+    return holder == null || holder.equals(orderId);
+  }
+
+  /** Звільняє столик, якщо його займає саме це замовлення. */
+  public void release(int tableNumber, UUID orderId) {
+    tables.remove(tableNumber, orderId);
+  }
+
+  /**
+   * Приводить реєстр у відповідність до збереженого замовлення: звільняє його попередній столик
+   * і займає поточний, якщо статус активний.
+   */
+  public void track(Order order) {
+    Integer current = order.tableNumber() != null && isActive(order.status()) ? order.tableNumber() : null;
+    // Спершу займаємо новий столик, щоб між звільненням і захопленням його не перехопили
+    if (current != null) {
+      claim(current, order.id());
+    }
+    tables.entrySet().removeIf(entry -> entry.getValue().equals(order.id()) && !entry.getKey().equals(current));
+  }
+
+  public void forget(UUID orderId) {
+    tables.values().removeIf(orderId::equals);
+  }
+}
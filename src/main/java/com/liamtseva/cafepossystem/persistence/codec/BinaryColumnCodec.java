@@ -0,0 +1,102 @@
+package com.liamtseva.cafepossystem.persistence.codec;
+
+import com.liamtseva.cafepossystem.persistence.entity.enums.CodedEnum;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Компактний формат: UUID як 16-байтовий BLOB (big-endian, як у {@code unhex} рядка без дефісів),
+ * переліки як числовий код.
+ */
+final class BinaryColumnCodec implements ColumnCodec {
+
+  static final BinaryColumnCodec INSTANCE = new BinaryColumnCodec();
+
+  private static final ClassValue<Object[]> CONSTANTS_BY_CODE = new ClassValue<>() {
+    @Override
+    protected Object[] computeValue(Class<?> type) {
+      Object[] constants = type.getEnumConstants();
+      int maxCode = 0;
+      for (Object constant : constants) {
+        maxCode = Math.max(maxCode, ((CodedEnum) constant).code());
+      }
+      Object[] byCode = new Object[maxCode + 1];
+      for (Object constant : constants) {
+        byCode[((CodedEnum) constant).code()] = constant;
+      }
+      return byCode;
+    }
+  };
+
+  private BinaryColumnCodec() {
+  }
+
+  @Override
+  public StorageFormat format() {
+    return StorageFormat.BINARY;
+  }
+
+  @Override
+  public void setUuid(PreparedStatement statement, int index, UUID value) throws SQLException {
+    statement.setBytes(index, value == null ? null : toBytes(value));
+  }
+
+  @Override
+  public UUID getUuid(ResultSet resultSet, String column) throws SQLException {
+    return toUuid(resultSet.getBytes(column), column);
+  }
+
+  @Override
+  public UUID getUuid(ResultSet resultSet, int column) throws SQLException {
+    return toUuid(resultSet.getBytes(column), column);
+  }
+
+  @Override
+  public <E extends Enum<E> & CodedEnum> void setEnum(PreparedStatement statement, int index, E value)
+      throws SQLException {
+    statement.setInt(index, value.code());
+  }
+
+  @Override
+  public <E extends Enum<E> & CodedEnum> E getEnum(ResultSet resultSet, String column, Class<E> type)
+      throws SQLException {
+    int code = resultSet.getInt(column);
+    return resultSet.wasNull() ? null : fromCode(code, type);
+  }
+
+  @Override
+  public <E extends Enum<E> & CodedEnum> E getEnum(ResultSet resultSet, int column, Class<E> type)
+      throws SQLException {
+    int code = resultSet.getInt(column);
+    return resultSet.wasNull() ? null : fromCode(code, type);
+  }
+
+  private static UUID toUuid(byte[] bytes, Object column) {
+    if (bytes == null) {
+      return null;
+    }
+    if (bytes.length != 16) {
+      throw new IllegalArgumentException("Некоректний двійковий UUID у стовпці " + column);
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new UUID(buffer.getLong(), buffer.getLong());
+  }
+
+  private static <E> E fromCode(int code, Class<E> type) {
+    Object[] byCode = CONSTANTS_BY_CODE.get(type);
+    if (code < 0 || code >= byCode.length || byCode[code] == null) {
+      throw new IllegalArgumentException("Невідомий код " + code + " для " + type.getSimpleName());
+    }
+    return type.cast(byCode[code]);
+  }
+
+  static byte[] toBytes(UUID value) {
+    return ByteBuffer.allocate(16)
+        .putLong(value.getMostSignificantBits())
+        .putLong(value.getLeastSignificantBits())
+        .array();
+  }
+}
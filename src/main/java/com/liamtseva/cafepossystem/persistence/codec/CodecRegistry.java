@@ -0,0 +1,31 @@
+package com.liamtseva.cafepossystem.persistence.codec;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+
+final class CodecRegistry {
+
+  private static final Map<DataSource, ColumnCodec> CODECS = new ConcurrentHashMap<>();
+
+  private CodecRegistry() {
+  }
+
+  static ColumnCodec forDataSource(DataSource dataSource) {
+    return CODECS.computeIfAbsent(dataSource, CodecRegistry::detect);
+  }
+
+  static void clear() {
+    CODECS.clear();
+  }
+
+  private static ColumnCodec detect(DataSource dataSource) {
+    try (Connection connection = dataSource.getConnection()) {
+      return ColumnCodec.of(StorageFormat.read(connection));
+    } catch (SQLException e) {
+      throw new RuntimeException("Не вдалося визначити формат зберігання бази", e);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.liamtseva.cafepossystem.persistence.codec;
+
+import com.liamtseva.cafepossystem.persistence.entity.enums.CodedEnum;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+/**
+ * Перетворення ключів і переліків між Java та поданням у базі.
+ *
+ * <p>Репозиторії не знають, у якому форматі збережено дані: вони прив'язують і читають
+ * UUID та переліки лише через кодек, отриманий для свого джерела з'єднань.
+ */
+public interface ColumnCodec {
+
+  StorageFormat format();
+
+  void setUuid(PreparedStatement statement, int index, UUID value) throws SQLException;
+
+  UUID getUuid(ResultSet resultSet, String column) throws SQLException;
+
+  UUID getUuid(ResultSet resultSet, int column) throws SQLException;
+
+  <E extends Enum<E> & CodedEnum> void setEnum(PreparedStatement statement, int index, E value)
+      throws SQLException;
+
+  <E extends Enum<E> & CodedEnum> E getEnum(ResultSet resultSet, String column, Class<E> type)
+      throws SQLException;
+
+  <E extends Enum<E> & CodedEnum> E getEnum(ResultSet resultSet, int column, Class<E> type)
+      throws SQLException;
+
+  static ColumnCodec of(StorageFormat format) {
+    return format == StorageFormat.BINARY ? BinaryColumnCodec.INSTANCE : TextColumnCodec.INSTANCE;
+  }
+
+  /**
+   * Кодек для формату, записаного в базі ({@code schema_settings.storage_format}).
+   * Формат читається один раз на джерело з'єднань.
+   */
+  static ColumnCodec forDataSource(DataSource dataSource) {
+    return CodecRegistry.forDataSource(dataSource);
+  }
+
+  /** Скидає збережені кодеки після зміни формату бази. */
+  static void resetAll() {
+    CodecRegistry.clear();
+  }
+}
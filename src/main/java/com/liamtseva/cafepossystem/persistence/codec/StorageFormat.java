@@ -0,0 +1,41 @@
+package com.liamtseva.cafepossystem.persistence.codec;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Формат зберігання ключів і переліків у базі.
+ *
+ * <p>{@code TEXT} — початковий формат: UUID як рядок з 36 символів, переліки за назвою.
+ * {@code BINARY} — UUID як 16-байтовий BLOB, переліки як числові коди {@code CodedEnum}.
+ */
+public enum StorageFormat {
+  TEXT,
+  BINARY;
+
+  /** Системна властивість, якою вмикається перехід бази на компактний формат. */
+  public static final String PROPERTY = "cafepos.storage.format";
+
+  public static StorageFormat requested() {
+    String value = System.getProperty(PROPERTY);
+    return value == null || value.isBlank() ? TEXT : valueOf(value.trim().toUpperCase());
+  }
+
+  /** Формат, записаний у базі; до появи таблиці налаштувань база завжди текстова. */
+  public static StorageFormat read(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet tables = statement.executeQuery(
+            "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'schema_settings'")) {
+      if (!tables.next()) {
+        return TEXT;
+      }
+    }
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(
+            "SELECT value FROM schema_settings WHERE name = 'storage_format'")) {
+      return resultSet.next() ? valueOf(resultSet.getString("value")) : TEXT;
+    }
+  }
+}
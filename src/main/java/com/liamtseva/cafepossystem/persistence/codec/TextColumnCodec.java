@@ -0,0 +1,65 @@
+package com.liamtseva.cafepossystem.persistence.codec;
+
+import com.liamtseva.cafepossystem.persistence.entity.enums.CodedEnum;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.UUID;
+
+/**
+ * Початковий формат: UUID як текст {@code VARCHAR(36)}, переліки за назвою константи.
+ */
+final class TextColumnCodec implements ColumnCodec {
+
+  static final TextColumnCodec INSTANCE = new TextColumnCodec();
+
+  private TextColumnCodec() {
+  }
+
+  @Override
+  public StorageFormat format() {
+    return StorageFormat.TEXT;
+  }
+
+  @Override
+  public void setUuid(PreparedStatement statement, int index, UUID value) throws SQLException {
+    if (value == null) {
+      statement.setNull(index, Types.VARCHAR);
+    } else {
+      statement.setString(index, value.toString());
+    }
+  }
+
+  @Override
+  public UUID getUuid(ResultSet resultSet, String column) throws SQLException {
+    String value = resultSet.getString(column);
+    return value == null ? null : UUID.fromString(value);
+  }
+
+  @Override
+  public UUID getUuid(ResultSet resultSet, int column) throws SQLException {
+    String value = resultSet.getString(column);
+    return value == null ? null : UUID.fromString(value);
+  }
+
+  @Override
+  public <E extends Enum<E> & CodedEnum> void setEnum(PreparedStatement statement, int index, E value)
+      throws SQLException {
+    statement.setString(index, value.name());
+  }
+
+  @Override
+  public <E extends Enum<E> & CodedEnum> E getEnum(ResultSet resultSet, String column, Class<E> type)
+      throws SQLException {
+    String value = resultSet.getString(column);
+    return value == null ? null : Enum.valueOf(type, value);
+  }
+
+  @Override
+  public <E extends Enum<E> & CodedEnum> E getEnum(ResultSet resultSet, int column, Class<E> type)
+      throws SQLException {
+    String value = resultSet.getString(column);
+    return value == null ? null : Enum.valueOf(type, value);
+  }
+}
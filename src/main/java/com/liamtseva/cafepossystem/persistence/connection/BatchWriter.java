@@ -0,0 +1,51 @@
+package com.liamtseva.cafepossystem.persistence.connection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+
+/**
+ * Пакетне виконання одного запиту для багатьох рядків.
+ *
+ * <p>Рядки накопичуються через {@code addBatch} і відправляються одним {@code executeBatch}:
+ * драйвер SQLite проганяє весь пакет за один нативний виклик. Атомарність забезпечує транзакція
+ * завдання {@link WriteQueue}, у якому викликається пакет.
+ */
+public final class BatchWriter {
+
+  /** Прив'язка параметрів запиту для одного рядка пакета. */
+  @FunctionalInterface
+  public interface RowBinder<T> {
+    void bind(PreparedStatement statement, T row) throws SQLException;
+  }
+
+  private BatchWriter() {
+  }
+
+  /**
+   * @return загальна кількість змінених рядків
+   */
+  public static <T> int executeBatch(Connection connection, String query, Collection<? extends T> rows,
+      RowBinder<T> binder) throws SQLException {
+    if (rows == null || rows.isEmpty()) {
+      return 0;
+    }
+    try (PreparedStatement statement = StatementCache.prepare(connection, query)) {
+      for (T row : rows) {
+        binder.bind(statement, row);
+        statement.addBatch();
+      }
+      int affectedRows = 0;
+      for (int count : statement.executeBatch()) {
+        if (count > 0) {
+          affectedRows += count;
+        } else if (count == Statement.EXECUTE_FAILED) {
+          throw new SQLException("Рядок пакета не виконано: " + query);
+        }
+      }
+      return affectedRows;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.liamtseva.cafepossystem.persistence.connection;
+
+import com.liamtseva.cafepossystem.persistence.mapper.RowMapper;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.sql.DataSource;
+
+/**
+ * Потік рядків, що читається курсором просто з бази, без проміжного списку.
+ *
+ * <p>З'єднання і запит належать потоку: вони звільняються, щойно рядки закінчилися або потік
+ * закрито. Потік треба відкривати в try-with-resources — поки він відкритий, з'єднання читача
+ * зайняте, а знімок WAL утримується.
+ */
+public final class CursorStream<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+
+  /** Значення за замовчуванням для {@code fetchSize}. */
+  public static final int DEFAULT_FETCH_SIZE = 500;
+
+  /** Прив'язка параметрів запиту перед виконанням. */
+  @FunctionalInterface
+  public interface ParameterBinder {
+    void bind(PreparedStatement statement) throws SQLException;
+  }
+
+  private final Connection connection;
+  private final PreparedStatement statement;
+  private final ResultSet resultSet;
+  private final RowMapper<T> mapper;
+  private boolean closed;
+
+  private CursorStream(Connection connection, PreparedStatement statement, ResultSet resultSet,
+      RowMapper<T> mapper) {
+    super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+    this.connection = connection;
+    this.statement = statement;
+    this.resultSet = resultSet;
+    this.mapper = mapper;
+  }
+
+  public static <T> Stream<T> open(DataSource dataSource, String query, int fetchSize, RowMapper<T> mapper)
+      throws SQLException {
+    return open(dataSource, query, statement -> {
+    }, fetchSize, mapper);
+  }
+
+  public static <T> Stream<T> open(DataSource dataSource, String query, ParameterBinder binder, int fetchSize,
+      RowMapper<T> mapper) throws SQLException {
+    Connection connection = dataSource.getConnection();
+    PreparedStatement statement = null;
+    try {
+      statement = StatementCache.prepare(connection, query);
+      statement.setFetchSize(fetchSize > 0 ? fetchSize : DEFAULT_FETCH_SIZE);
+      binder.bind(statement);
+      CursorStream<T> cursor = new CursorStream<>(connection, statement, statement.executeQuery(), mapper);
+      return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    } catch (SQLException | RuntimeException e) {
+      if (statement != null) {
+        statement.close();
+      }
+      connection.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    if (closed) {
+      return false;
+    }
+    try {
+      if (!resultSet.next()) {
+        close();
+        return false;
+      }
+      action.accept(mapper.map(resultSet));
+      return true;
+    } catch (SQLException e) {
+      close();
+      throw new RuntimeException("Помилка читання курсора", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try (connection; statement; resultSet) {
+      // try-with-resources закриває їх у зворотному порядку: результат, запит, з'єднання
+    } catch (SQLException e) {
+      throw new RuntimeException("Не вдалося закрити курсор", e);
+    }
+  }
+}
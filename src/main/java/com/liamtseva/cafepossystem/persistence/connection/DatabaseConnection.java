@@ -2,13 +2,39 @@ package com.liamtseva.cafepossystem.persistence.connection;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import javax.sql.DataSource;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.Pragma;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+import org.sqlite.SQLiteConfig.TempStore;
+import org.sqlite.SQLiteConfig.TransactionMode;
 
+/**
+ * Пули з'єднань до SQLite: багато читачів і один письменник.
+ *
+ * <p>База працює в режимі WAL, тому читачі ніколи не чекають на запис, а всі зміни
+ * проходять через єдине з'єднання письменника ({@link WriteQueue}) і не конкурують
+ * за блокування файлу.
+ */
 public class DatabaseConnection {
 
   private static final String JDBC_URL = "jdbc:sqlite:db/CafePosSystem.sqlite";
+  private static final int READER_POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
+  private static final int WRITER_POOL_SIZE = 1;
+  private static final int BUSY_TIMEOUT_MS = 5_000;
+  private static final int CACHE_SIZE_KIB = 16 * 1024;
+  private static final long MMAP_SIZE_BYTES = 256L * 1024 * 1024;
+
   private static DatabaseConnection instance;
-  private static HikariDataSource dataSource;
+  private static HikariDataSource readDataSource;
+  private static HikariDataSource writeDataSource;
 
   public DatabaseConnection() {
   }
@@ -20,23 +46,115 @@ public class DatabaseConnection {
     return instance;
   }
 
+  public static synchronized void initializeDataSource() {
+    // Письменника відкриваємо першим: він перемикає файл у WAL до появи читачів
+    if (writeDataSource == null) {
+      writeDataSource = new HikariDataSource(createConfig("CafePosSystem-writer", WRITER_POOL_SIZE, false));
+    }
+    if (readDataSource == null) {
+      readDataSource = new HikariDataSource(createConfig("CafePosSystem-reader", READER_POOL_SIZE, true));
+    }
+  }
 
-  public static void initializeDataSource() {
+  private static HikariConfig createConfig(String poolName, int poolSize, boolean readOnly) {
     HikariConfig config = new HikariConfig();
     config.setJdbcUrl(JDBC_URL);
-    dataSource = new HikariDataSource(config);
+    config.setPoolName(poolName);
+    config.setMaximumPoolSize(poolSize);
+    config.setMinimumIdle(poolSize);
+    config.setReadOnly(readOnly);
+    if (readOnly) {
+      // Захист від випадкового запису через пул читачів навіть у режимі autocommit
+      config.setConnectionInitSql("PRAGMA query_only = true");
+    }
+    config.setDataSourceProperties(createSqliteConfig(readOnly).toProperties());
+    return config;
+  }
+
+  private static SQLiteConfig createSqliteConfig(boolean readOnly) {
+    SQLiteConfig sqliteConfig = new SQLiteConfig();
+    sqliteConfig.setJournalMode(JournalMode.WAL);
+    sqliteConfig.setSynchronous(SynchronousMode.NORMAL);
+    sqliteConfig.setCacheSize(-CACHE_SIZE_KIB); // від'ємне значення — розмір у KiB, а не в сторінках
+    sqliteConfig.setPragma(Pragma.MMAP_SIZE, String.valueOf(MMAP_SIZE_BYTES));
+    sqliteConfig.setTempStore(TempStore.MEMORY);
+    sqliteConfig.setBusyTimeout(BUSY_TIMEOUT_MS);
+    sqliteConfig.enforceForeignKeys(true);
+    if (readOnly) {
+      sqliteConfig.setExplicitReadOnly(true);
+    } else {
+      // IMMEDIATE бере блокування запису на початку транзакції, тож вона не падає з SQLITE_BUSY посередині
+      sqliteConfig.setTransactionMode(TransactionMode.IMMEDIATE);
+    }
+    return sqliteConfig;
   }
 
+  /**
+   * Джерело з'єднань для змін. Збережено для сумісності — те саме, що {@link #getWriteDataSource()}.
+   */
   public DataSource getDataSource() {
-    if (dataSource == null) {
+    return getWriteDataSource();
+  }
+
+  public DataSource getReadDataSource() {
+    if (readDataSource == null) {
       initializeDataSource(); // Ініціалізація джерела даних
     }
-    return dataSource;
+    return readDataSource;
+  }
+
+  public DataSource getWriteDataSource() {
+    if (writeDataSource == null) {
+      initializeDataSource(); // Ініціалізація джерела даних
+    }
+    return writeDataSource;
+  }
+
+  /**
+   * Відкриває всі з'єднання читачів одразу, не чекаючи, поки Hikari доповнить пул у фоні,
+   * і робить на кожному перше читання схеми, щоб перший запит екрана не платив за холодний старт.
+   */
+  public void warmUpReaders() throws SQLException {
+    List<Connection> borrowed = new ArrayList<>(READER_POOL_SIZE);
+    try {
+      for (int i = 0; i < READER_POOL_SIZE; i++) {
+        Connection connection = getReadDataSource().getConnection();
+        borrowed.add(connection);
+        try (Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM sqlite_master")) {
+          resultSet.next();
+        }
+      }
+    } finally {
+      for (Connection connection : borrowed) {
+        connection.close();
+      }
+    }
+  }
+
+  public WriteQueue getWriteQueue() {
+    return WriteQueue.forDataSource(getWriteDataSource());
   }
 
   public void closePool() {
-    if (dataSource != null) {
-      dataSource.close();
+    closePools();
+  }
+
+  private static synchronized void closePools() {
+    WriteQueue.closeAll();
+    StatementCache.logStats();
+    if (readDataSource != null) {
+      readDataSource.close();
+      readDataSource = null;
+    }
+    if (writeDataSource != null) {
+      writeDataSource.close();
+      writeDataSource = null;
+    }
+    try {
+      StatementCache.removeClosedConnections();
+    } catch (SQLException e) {
+      // Після закриття пулів це лише прибирання пам'яті
     }
   }
-}
\ No newline at end of file
+}
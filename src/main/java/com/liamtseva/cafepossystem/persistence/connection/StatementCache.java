@@ -0,0 +1,227 @@
+package com.liamtseva.cafepossystem.persistence.connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConnection;
+
+/**
+ * Кеш підготовлених запитів, прив'язаний до фізичних з'єднань пулу.
+ *
+ * <p>Запити готуються на з'єднанні SQLite під обгорткою Hikari, тому переживають повернення
+ * з'єднання в пул. Для кожного з'єднання тримається LRU за текстом SQL. Виклик {@code close()}
+ * на виданому запиті лише закриває його результат і очищує параметри та пакет — сам запит
+ * повертається в кеш без повторного розбору й планування.
+ *
+ * <p>Кеш з'єднання прибирається, коли Hikari закриває його фізичне з'єднання (maxLifetime,
+ * помилка): перевірка йде щоразу, коли в кеші з'являється нове з'єднання. Слабкі ключі тут не
+ * допомогли б — кожен кешований запит сам тримає своє з'єднання. Лічильники пишуться в журнал
+ * під час закриття пулів ({@link #logStats()}).
+ */
+public final class StatementCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+
+  /** Системна властивість для розміру кешу на одне з'єднання. */
+  public static final String SIZE_PROPERTY = "cafepos.statement.cache.size";
+  private static final int DEFAULT_SIZE = 64;
+  private static final int SIZE = Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE);
+
+  private static final Map<Connection, Map<String, CachedStatement>> CACHES = new IdentityHashMap<>();
+
+  private static final LongAdder hits = new LongAdder();
+  private static final LongAdder misses = new LongAdder();
+  private static final LongAdder evictions = new LongAdder();
+
+  public record Stats(long hits, long misses, long evictions, int capacityPerConnection, int connections) {
+
+    public double hitRatio() {
+      long total = hits + misses;
+      return total == 0 ? 0 : (double) hits / total;
+    }
+  }
+
+  private static final class CachedStatement {
+    private final PreparedStatement statement;
+    private boolean inUse;
+    private boolean evicted;
+
+    private CachedStatement(PreparedStatement statement) {
+      this.statement = statement;
+    }
+  }
+
+  private StatementCache() {
+  }
+
+  /**
+   * Повертає підготовлений запит для {@code sql} на цьому з'єднанні.
+   * Запит треба закрити (try-with-resources), як і звичайний.
+   */
+  public static PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+    if (SIZE <= 0 || !connection.isWrapperFor(SQLiteConnection.class)) {
+      return connection.prepareStatement(sql);
+    }
+    Connection physical = connection.unwrap(SQLiteConnection.class);
+    Map<String, CachedStatement> cache = cacheFor(physical);
+    CachedStatement cached = cache.get(sql);
+    if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+      hits.increment();
+    } else if (cached != null && cached.inUse) {
+      // Той самий запит уже виконується на цьому з'єднанні (вкладений виклик) — окремий екземпляр
+      misses.increment();
+      return physical.prepareStatement(sql);
+    } else {
+      misses.increment();
+      cached = new CachedStatement(physical.prepareStatement(sql));
+      cache.put(sql, cached);
+    }
+    cached.inUse = true;
+    return lease(cached);
+  }
+
+  public static Stats stats() {
+    int connections;
+    synchronized (CACHES) {
+      connections = CACHES.size();
+    }
+    return new Stats(hits.sum(), misses.sum(), evictions.sum(), SIZE, connections);
+  }
+
+  public static void logStats() {
+    Stats stats = stats();
+    logger.info("Кеш запитів: влучань {}, промахів {} ({}% влучань), витіснень {}, з'єднань {}, місткість {}",
+        stats.hits(), stats.misses(), Math.round(stats.hitRatio() * 100), stats.evictions(), stats.connections(),
+        stats.capacityPerConnection());
+  }
+
+  private static Map<String, CachedStatement> cacheFor(Connection physical) throws SQLException {
+    synchronized (CACHES) {
+      Map<String, CachedStatement> cache = CACHES.get(physical);
+      if (cache == null) {
+        // Нове фізичне з'єднання зазвичай означає, що пул закрив якесь старе
+        removeClosedConnectionsLocked();
+        cache = newCache();
+        CACHES.put(physical, cache);
+      }
+      return cache;
+    }
+  }
+
+  /** Прибирає кеші вже закритих з'єднань; викликається і після закриття пулів. */
+  static void removeClosedConnections() throws SQLException {
+    synchronized (CACHES) {
+      removeClosedConnectionsLocked();
+    }
+  }
+
+  private static void removeClosedConnectionsLocked() throws SQLException {
+    Iterator<Connection> connections = CACHES.keySet().iterator();
+    while (connections.hasNext()) {
+      // Запити закритого з'єднання SQLite закриває разом з ним
+      if (connections.next().isClosed()) {
+        connections.remove();
+      }
+    }
+  }
+
+  private static Map<String, CachedStatement> newCache() {
+    return new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+        if (size() <= SIZE) {
+          return false;
+        }
+        evictions.increment();
+        CachedStatement evicted = eldest.getValue();
+        evicted.evicted = true;
+        if (!evicted.inUse) {
+          closeQuietly(evicted.statement);
+        }
+        return true;
+      }
+    };
+  }
+
+  private static PreparedStatement lease(CachedStatement cached) {
+    return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+        new Class<?>[] {PreparedStatement.class}, new LeasedStatement(cached));
+  }
+
+  private static void closeQuietly(PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      logger.warn("Не вдалося закрити витіснений запит", e);
+    }
+  }
+
+  private static final class LeasedStatement implements InvocationHandler {
+    private final CachedStatement cached;
+    private ResultSet resultSet;
+    private boolean released;
+
+    private LeasedStatement(CachedStatement cached) {
+      this.cached = cached;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close" -> {
+          release();
+          return null;
+        }
+        case "isClosed" -> {
+          return released;
+        }
+        default -> {
+          if (released) {
+            throw new SQLException("Запит уже повернуто до кешу");
+          }
+        }
+      }
+      try {
+        Object result = method.invoke(cached.statement, args);
+        if (result instanceof ResultSet rs) {
+          resultSet = rs;
+        }
+        return result;
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+
+    private void release() throws SQLException {
+      if (released) {
+        return;
+      }
+      released = true;
+      try {
+        // Закритий результат скидає запит SQLite і відпускає знімок читання
+        if (resultSet != null && !resultSet.isClosed()) {
+          resultSet.close();
+        }
+        cached.statement.clearParameters();
+        cached.statement.clearBatch();
+      } finally {
+        cached.inUse = false;
+        if (cached.evicted) {
+          cached.statement.close();
+        }
+      }
+    }
+  }
+}
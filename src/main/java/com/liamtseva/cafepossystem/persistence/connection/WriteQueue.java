@@ -0,0 +1,190 @@
+package com.liamtseva.cafepossystem.persistence.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Черга змін з єдиним потоком-письменником і груповим комітом.
+ *
+ * <p>Усі завдання, що накопичилися в черзі, виконуються в одній транзакції, кожне під власною
+ * точкою збереження: помилка одного завдання відкочує лише його зміни. Результати повертаються
+ * тільки після успішного коміту всієї групи, тож кілька терміналів ділять один fsync.
+ */
+public class WriteQueue implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(WriteQueue.class);
+  private static final int MAX_GROUP_SIZE = 64;
+  private static final Map<DataSource, WriteQueue> QUEUES = new ConcurrentHashMap<>();
+  private static final PendingWrite<Void> SHUTDOWN = new PendingWrite<>(connection -> null, new CompletableFuture<>());
+
+  private final DataSource dataSource;
+  private final BlockingQueue<PendingWrite<?>> queue = new LinkedBlockingQueue<>();
+  private final Thread writerThread;
+  private volatile boolean running = true;
+
+  /**
+   * Одна зміна бази, що виконується на з'єднанні письменника.
+   * Завдання не повинно саме керувати транзакцією (commit, rollback, setAutoCommit).
+   */
+  @FunctionalInterface
+  public interface WriteTask<T> {
+    T execute(Connection connection) throws SQLException;
+  }
+
+  private record PendingWrite<T>(WriteTask<T> task, CompletableFuture<T> future) {
+  }
+
+  private WriteQueue(DataSource dataSource) {
+    this.dataSource = dataSource;
+    this.writerThread = new Thread(this::runWriter, "sqlite-writer");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  public static WriteQueue forDataSource(DataSource dataSource) {
+    return QUEUES.computeIfAbsent(dataSource, WriteQueue::new);
+  }
+
+  public static void closeAll() {
+    QUEUES.values().forEach(WriteQueue::close);
+    QUEUES.clear();
+  }
+
+  public <T> CompletableFuture<T> submit(WriteTask<T> task) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    if (!running) {
+      future.completeExceptionally(new SQLException("Черга запису вже закрита"));
+      return future;
+    }
+    PendingWrite<T> write = new PendingWrite<>(task, future);
+    queue.add(write);
+    // close() міг спрацювати між перевіркою і додаванням, а письменник — уже вичерпати чергу.
+    // Якщо завдання ще в черзі, його ніхто не виконає: забираємо й завершуємо помилкою
+    if (!running && queue.remove(write)) {
+      future.completeExceptionally(new SQLException("Черга запису закрита до виконання зміни"));
+    }
+    return future;
+  }
+
+  /**
+   * Виконує зміну і чекає на коміт групи, до якої вона потрапила.
+   */
+  public <T> T execute(WriteTask<T> task) throws SQLException {
+    if (Thread.currentThread() == writerThread) {
+      throw new SQLException("Вкладене завдання запису з потоку письменника призвело б до взаємоблокування");
+    }
+    try {
+      return submit(task).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Очікування запису перервано", e);
+    } catch (ExecutionException e) {
+      throw unwrap(e.getCause());
+    }
+  }
+
+  private static SQLException unwrap(Throwable cause) {
+    if (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof SQLException sqlException) {
+      return sqlException;
+    }
+    if (cause instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    }
+    if (cause instanceof Error error) {
+      throw error;
+    }
+    return new SQLException(cause);
+  }
+
+  private void runWriter() {
+    List<PendingWrite<?>> group = new ArrayList<>(MAX_GROUP_SIZE);
+    boolean shutdown = false;
+    while (!shutdown) {
+      try {
+        group.add(queue.take());
+      } catch (InterruptedException e) {
+        continue;
+      }
+      queue.drainTo(group, MAX_GROUP_SIZE - 1);
+      shutdown = group.remove(SHUTDOWN);
+      if (!group.isEmpty()) {
+        commitGroup(group);
+      }
+      group.clear();
+    }
+    failRemaining();
+  }
+
+  private void commitGroup(List<PendingWrite<?>> group) {
+    List<Runnable> completions = new ArrayList<>(group.size());
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try {
+        for (PendingWrite<?> write : group) {
+          completions.add(executeInSavepoint(connection, write));
+        }
+        connection.commit();
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+    } catch (SQLException | RuntimeException e) {
+      logger.error("Не вдалося зафіксувати групу з {} змін", group.size(), e);
+      group.forEach(write -> write.future().completeExceptionally(e));
+      return;
+    }
+    completions.forEach(Runnable::run);
+  }
+
+  private <T> Runnable executeInSavepoint(Connection connection, PendingWrite<T> write) throws SQLException {
+    Savepoint savepoint = connection.setSavepoint();
+    try {
+      T result = write.task().execute(connection);
+      connection.releaseSavepoint(savepoint);
+      return () -> write.future().complete(result);
+    } catch (Exception e) {
+      connection.rollback(savepoint);
+      connection.releaseSavepoint(savepoint);
+      return () -> write.future().completeExceptionally(e);
+    }
+  }
+
+  private void failRemaining() {
+    PendingWrite<?> write;
+    while ((write = queue.poll()) != null) {
+      write.future().completeExceptionally(new SQLException("Черга запису закрита до виконання зміни"));
+    }
+  }
+
+  @Override
+  public void close() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    queue.add(SHUTDOWN);
+    try {
+      writerThread.join(5_000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
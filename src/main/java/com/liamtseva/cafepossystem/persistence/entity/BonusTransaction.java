@@ -1,11 +1,12 @@
 package com.liamtseva.cafepossystem.persistence.entity;
 
 import com.liamtseva.cafepossystem.persistence.entity.enums.BonusTransactionType;
+import com.liamtseva.cafepossystem.persistence.mapper.Column;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 public record BonusTransaction(
-    UUID id,
+    @Column("transaction_id") UUID id,
     UUID cardId,
     UUID orderId,
     double amount,
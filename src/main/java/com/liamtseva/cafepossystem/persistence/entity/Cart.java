@@ -1,9 +1,10 @@
 package com.liamtseva.cafepossystem.persistence.entity;
 
+import com.liamtseva.cafepossystem.persistence.mapper.Column;
 import java.util.UUID;
 
 public record Cart(
-    UUID id,
+    @Column("cart_id") UUID id,
     UUID userId,
     UUID itemId,
     int quantity,
@@ -1,9 +1,10 @@
 package com.liamtseva.cafepossystem.persistence.entity;
 
+import com.liamtseva.cafepossystem.persistence.mapper.Column;
 import java.util.UUID;
 
 public record Category(
-    UUID id,
+    @Column("category_id") UUID id,
     String categoryName
 ) implements Entity,Comparable<Category> {
   @Override
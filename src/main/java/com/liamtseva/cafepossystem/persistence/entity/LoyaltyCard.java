@@ -1,10 +1,11 @@
 package com.liamtseva.cafepossystem.persistence.entity;
 
+import com.liamtseva.cafepossystem.persistence.mapper.Column;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 public record LoyaltyCard(
-    UUID id,
+    @Column("card_id") UUID id,
     UUID userId,
     String cardNumber,
     double balance,
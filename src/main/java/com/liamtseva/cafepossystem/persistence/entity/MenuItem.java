@@ -1,9 +1,10 @@
 package com.liamtseva.cafepossystem.persistence.entity;
 
+import com.liamtseva.cafepossystem.persistence.mapper.Column;
 import java.util.UUID;
 
 public record MenuItem(
-    UUID id,
+    @Column("item_id") UUID id,
     String name,
     String description,
     double price,
@@ -0,0 +1,30 @@
+package com.liamtseva.cafepossystem.persistence.entity;
+
+import com.liamtseva.cafepossystem.persistence.mapper.Column;
+import java.util.UUID;
+
+/**
+ * Страва без зображення — для списків і пошуку. Мініатюра читається окремо
+ * ({@code MenuItemRepository.loadThumbnail}), лише коли картка з'являється на екрані.
+ *
+ * <p>Складу тут немає навмисно: у MenuItems він іде після {@code image}, і щоб дістатися до нього,
+ * SQLite мусить пройти сторінки переповнення з байтами зображення.
+ */
+public record MenuItemSummary(
+    @Column("item_id") UUID id,
+    String name,
+    String description,
+    double price,
+    Integer calories
+) implements Entity, Comparable<MenuItemSummary> {
+
+  @Override
+  public int compareTo(MenuItemSummary o) {
+    return this.name.compareTo(o.name);
+  }
+
+  @Override
+  public UUID id() {
+    return id;
+  }
+}
@@ -1,11 +1,12 @@
 package com.liamtseva.cafepossystem.persistence.entity;
 
 import com.liamtseva.cafepossystem.persistence.entity.enums.OrderStatus;
+import com.liamtseva.cafepossystem.persistence.mapper.Column;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 public record Order(
-    UUID id,
+    @Column("order_id") UUID id,
     UUID userId,
     LocalDateTime orderDate,
     double totalAmount,
@@ -0,0 +1,20 @@
+package com.liamtseva.cafepossystem.persistence.entity;
+
+import com.liamtseva.cafepossystem.persistence.mapper.Column;
+import java.util.UUID;
+
+/**
+ * Позиція замовлення разом з назвою страви — проєкція для деталей замовлення, звітів і чеків.
+ *
+ * <p>Читається одним з'єднанням OrderCartItems, Cart і MenuItems ({@code OrderRepository.findOrderLines})
+ * без зображень страв. {@code itemName} дорівнює {@code null}, якщо страву вже видалено.
+ */
+public record OrderLine(
+    UUID orderId,
+    @Column("cart_id") UUID cartId,
+    UUID itemId,
+    String itemName,
+    int quantity,
+    double subtotal
+) {
+}
@@ -1,11 +1,12 @@
 package com.liamtseva.cafepossystem.persistence.entity;
 
 import com.liamtseva.cafepossystem.persistence.entity.enums.Role;
+import com.liamtseva.cafepossystem.persistence.mapper.Column;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 public record User(
-    UUID id,
+    @Column("user_id") UUID id,
     String username,
     String password,
     Role role,
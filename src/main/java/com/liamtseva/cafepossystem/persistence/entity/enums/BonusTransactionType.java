@@ -1,7 +1,18 @@
 package com.liamtseva.cafepossystem.persistence.entity.enums;
 
-public enum BonusTransactionType {
-    ACCRUAL,
-    REDEMPTION,
-    ADJUSTMENT
+public enum BonusTransactionType implements CodedEnum {
+    ACCRUAL(0),
+    REDEMPTION(1),
+    ADJUSTMENT(2);
+
+    private final int code;
+
+    BonusTransactionType(int code) {
+        this.code = code;
+    }
+
+    @Override
+    public int code() {
+        return code;
+    }
 }
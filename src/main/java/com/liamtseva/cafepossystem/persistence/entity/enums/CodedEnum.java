@@ -0,0 +1,9 @@
+package com.liamtseva.cafepossystem.persistence.entity.enums;
+
+/**
+ * Перелік зі стабільним числовим кодом для компактного зберігання в базі.
+ * Коди не можна змінювати після появи даних — на відміну від ordinal().
+ */
+public interface CodedEnum {
+    int code();
+}
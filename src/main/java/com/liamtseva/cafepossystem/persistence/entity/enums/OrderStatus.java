@@ -1,21 +1,28 @@
 package com.liamtseva.cafepossystem.persistence.entity.enums;
 
-public enum OrderStatus {
-    PENDING("В обробці"),
-    CONFIRMED("Підтверджено"),
-    DELIVERED("Доставлено"),
-    CANCELLED("Скасовано");
+public enum OrderStatus implements CodedEnum {
+    PENDING("В обробці", 0),
+    CONFIRMED("Підтверджено", 1),
+    DELIVERED("Доставлено", 2),
+    CANCELLED("Скасовано", 3);
 
     private final String ukrainianName;
+    private final int code;
 
-    OrderStatus(String ukrainianName) {
+    OrderStatus(String ukrainianName, int code) {
         this.ukrainianName = ukrainianName;
+        this.code = code;
     }
 
     public String getUkrainianName() {
         return ukrainianName;
     }
 
+    @Override
+    public int code() {
+        return code;
+    }
+
     @Override
     public String toString() {
         return ukrainianName;
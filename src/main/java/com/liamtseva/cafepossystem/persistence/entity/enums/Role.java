@@ -1,6 +1,17 @@
 package com.liamtseva.cafepossystem.persistence.entity.enums;
 
-public enum Role {
-  USER,
-  ADMIN
+public enum Role implements CodedEnum {
+  USER(0),
+  ADMIN(1);
+
+  private final int code;
+
+  Role(int code) {
+    this.code = code;
+  }
+
+  @Override
+  public int code() {
+    return code;
+  }
 }
\ No newline at end of file
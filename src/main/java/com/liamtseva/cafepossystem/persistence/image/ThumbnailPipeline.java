@@ -0,0 +1,235 @@
+package com.liamtseva.cafepossystem.persistence.image;
+
+import com.liamtseva.cafepossystem.persistence.codec.ColumnCodec;
+import com.liamtseva.cafepossystem.persistence.connection.StatementCache;
+import com.liamtseva.cafepossystem.persistence.connection.WriteQueue;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32C;
+import javax.imageio.ImageIO;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Мініатюри зображень страв у таблиці {@code MenuItemThumbnails}.
+ *
+ * <p>Оригінал зменшується до {@link #SIZE} × {@link #SIZE} зі збереженням пропорцій в одному
+ * фоновому потоці, тож завдання для однієї страви виконуються в порядку збережень і останнім
+ * записується найновіше зображення. Мініатюра позначається контрольною сумою оригіналу: повторне
+ * збереження того самого зображення не перераховує її. Мініатюра записується, лише якщо страва
+ * досі має те зображення, з якого її зроблено. {@link #backfill()} доробляє мініатюри
+ * для страв, збережених до появи таблиці.
+ */
+public final class ThumbnailPipeline {
+
+  private static final Logger logger = LoggerFactory.getLogger(ThumbnailPipeline.class);
+
+  /** Найбільша сторона мініатюри в пікселях: картки меню й кошика з запасом на HiDPI. */
+  public static final int SIZE = 240;
+
+  private static final Map<DataSource, ThumbnailPipeline> PIPELINES = new ConcurrentHashMap<>();
+
+  private static final String FIND_CHECKSUM = "SELECT source_checksum FROM MenuItemThumbnails WHERE item_id = ?";
+  private static final String FIND_MISSING = "SELECT item_id FROM MenuItems m WHERE image IS NOT NULL"
+      + " AND NOT EXISTS (SELECT 1 FROM MenuItemThumbnails t WHERE t.item_id = m.item_id)";
+  private static final String FIND_IMAGE = "SELECT image FROM MenuItems WHERE item_id = ?";
+  // Поки мініатюра готувалась, страву могли видалити, а зображення — прибрати чи замінити:
+  // записуємо лише для оригіналу, що й досі лежить у страві
+  private static final String STORE = "INSERT INTO MenuItemThumbnails (item_id, thumbnail, source_checksum)"
+      + " SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM MenuItems WHERE item_id = ? AND image = ?)"
+      + " ON CONFLICT(item_id) DO UPDATE SET thumbnail = excluded.thumbnail, source_checksum = excluded.source_checksum";
+  private static final String DELETE = "DELETE FROM MenuItemThumbnails WHERE item_id = ?";
+
+  private final DataSource readDataSource;
+  private final WriteQueue writeQueue;
+  private final ColumnCodec codec;
+  private final ExecutorService worker;
+
+  private ThumbnailPipeline(DataSource readDataSource, DataSource writeDataSource) {
+    this.readDataSource = readDataSource;
+    this.writeQueue = WriteQueue.forDataSource(writeDataSource);
+    this.codec = ColumnCodec.forDataSource(readDataSource);
+    this.worker = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "thumbnail-pipeline");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public static ThumbnailPipeline forDataSources(DataSource readDataSource, DataSource writeDataSource) {
+    return PIPELINES.computeIfAbsent(writeDataSource, ds -> new ThumbnailPipeline(readDataSource, ds));
+  }
+
+  /**
+   * Ставить у чергу мініатюру для щойно збереженого зображення страви.
+   *
+   * @return майбутнє, що завершується після коміту мініатюри або пропуску незміненого зображення
+   */
+  public CompletableFuture<Void> submit(UUID itemId, byte[] image) {
+    return CompletableFuture.runAsync(() -> process(itemId, image), worker);
+  }
+
+  /**
+   * Робить мініатюри для всіх страв із зображенням, що їх ще не мають.
+   *
+   * @return кількість страв, для яких мініатюру записано
+   */
+  public CompletableFuture<Integer> backfill() {
+    return CompletableFuture.supplyAsync(() -> {
+      List<UUID> missing = findMissing();
+      int stored = 0;
+      // Оригінали читаються по одному, щоб не тримати в пам'яті всі одразу
+      for (UUID itemId : missing) {
+        if (process(itemId, loadImage(itemId))) {
+          stored++;
+        }
+      }
+      if (stored > 0) {
+        logger.info("Створено мініатюри для {} страв", stored);
+      }
+      return stored;
+    }, worker);
+  }
+
+  /** Видаляє мініатюру в межах завдання письменника, що прибирає зображення страви. */
+  public void delete(Connection connection, UUID itemId) throws SQLException {
+    try (PreparedStatement preparedStatement = StatementCache.prepare(connection, DELETE)) {
+      codec.setUuid(preparedStatement, 1, itemId);
+      preparedStatement.executeUpdate();
+    }
+  }
+
+  private boolean process(UUID itemId, byte[] image) {
+    if (image == null || image.length == 0) {
+      return false;
+    }
+    CRC32C crc = new CRC32C();
+    crc.update(image);
+    long checksum = crc.getValue();
+    try {
+      if (Long.valueOf(checksum).equals(findChecksum(itemId))) {
+        return false;
+      }
+      byte[] thumbnail = render(image);
+      if (thumbnail == null) {
+        logger.warn("Зображення страви {} не вдалося прочитати, мініатюру не створено", itemId);
+        // Мініатюра попереднього зображення вже не відповідає страві
+        writeQueue.execute(connection -> {
+          delete(connection, itemId);
+          return null;
+        });
+        return false;
+      }
+      writeQueue.execute(connection -> {
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, STORE)) {
+          codec.setUuid(preparedStatement, 1, itemId);
+          preparedStatement.setBytes(2, thumbnail);
+          preparedStatement.setLong(3, checksum);
+          codec.setUuid(preparedStatement, 4, itemId);
+          preparedStatement.setBytes(5, image);
+          return preparedStatement.executeUpdate();
+        }
+      });
+      return true;
+    } catch (IOException | SQLException e) {
+      logger.error("Не вдалося створити мініатюру страви {}", itemId, e);
+      return false;
+    }
+  }
+
+  /**
+   * Зменшене зображення: JPEG для непрозорих, PNG для зображень з прозорістю.
+   *
+   * @return {@code null}, якщо формат оригіналу не розпізнано
+   */
+  static byte[] render(byte[] image) throws IOException {
+    BufferedImage source = ImageIO.read(new ByteArrayInputStream(image));
+    if (source == null) {
+      return null;
+    }
+    boolean alpha = source.getColorModel().hasAlpha();
+    double scale = Math.min(1.0, (double) SIZE / Math.max(source.getWidth(), source.getHeight()));
+    int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+    int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+    // Зменшення вдвічі за крок: одне білінійне зменшення у багато разів дає різкі зубці
+    BufferedImage current = source;
+    int currentWidth = source.getWidth();
+    int currentHeight = source.getHeight();
+    do {
+      currentWidth = Math.max(width, currentWidth / 2);
+      currentHeight = Math.max(height, currentHeight / 2);
+      current = scale(current, currentWidth, currentHeight, alpha);
+    } while (currentWidth != width || currentHeight != height);
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ImageIO.write(current, alpha ? "png" : "jpg", output);
+    return output.toByteArray();
+  }
+
+  private static BufferedImage scale(BufferedImage source, int width, int height, boolean alpha) {
+    BufferedImage target = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = target.createGraphics();
+    try {
+      graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      graphics.drawImage(source, 0, 0, width, height, null);
+    } finally {
+      graphics.dispose();
+    }
+    return target;
+  }
+
+  private Long findChecksum(UUID itemId) throws SQLException {
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, FIND_CHECKSUM)) {
+      codec.setUuid(preparedStatement, 1, itemId);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next() ? resultSet.getLong(1) : null;
+      }
+    }
+  }
+
+  private List<UUID> findMissing() {
+    List<UUID> itemIds = new ArrayList<>();
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, FIND_MISSING);
+        ResultSet resultSet = preparedStatement.executeQuery()) {
+      while (resultSet.next()) {
+        itemIds.add(codec.getUuid(resultSet, 1));
+      }
+    } catch (SQLException e) {
+      logger.error("Не вдалося знайти страви без мініатюр", e);
+    }
+    return itemIds;
+  }
+
+  private byte[] loadImage(UUID itemId) {
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, FIND_IMAGE)) {
+      codec.setUuid(preparedStatement, 1, itemId);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next() ? resultSet.getBytes(1) : null;
+      }
+    } catch (SQLException e) {
+      logger.error("Не вдалося прочитати зображення страви {}", itemId, e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.liamtseva.cafepossystem.persistence.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Назва стовпця для компонента запису, якщо вона не збігається з назвою компонента
+ * у snake_case (наприклад, {@code id} → {@code order_id}).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface Column {
+  String value();
+}
@@ -0,0 +1,12 @@
+package com.liamtseva.cafepossystem.persistence.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Власне читання одного стовпця за його порядковим номером у результаті.
+ */
+@FunctionalInterface
+public interface ColumnReader<V> {
+  V read(ResultSet resultSet, int column) throws SQLException;
+}
@@ -0,0 +1,226 @@
+package com.liamtseva.cafepossystem.persistence.mapper;
+
+import com.liamtseva.cafepossystem.persistence.codec.ColumnCodec;
+import com.liamtseva.cafepossystem.persistence.codec.StorageFormat;
+import com.liamtseva.cafepossystem.persistence.entity.enums.CodedEnum;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Відображення рядка результату на запис за порядковими номерами стовпців.
+ *
+ * <p>Для кожного типу запису один раз будується ланцюжок method handle: канонічний конструктор,
+ * кожен аргумент якого читається з {@link ResultSet} за номером стовпця (компонент i — стовпець
+ * i + 1). Примітиви читаються без упаковки, тож великий результат не створює зайвих об'єктів.
+ * Запит має вибирати стовпці саме в порядку {@link #columnList(Class)}.
+ */
+public final class RecordMapper<T extends Record> implements RowMapper<T> {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final Map<Key, RecordMapper<?>> MAPPERS = new ConcurrentHashMap<>();
+
+  private static final MethodHandle GET_UUID;
+  private static final MethodHandle GET_ENUM;
+  private static final MethodHandle READ_CUSTOM;
+  private static final Map<Class<?>, MethodHandle> READERS = new HashMap<>();
+
+  static {
+    try {
+      MethodHandles.Lookup publicLookup = MethodHandles.publicLookup();
+      READERS.put(String.class, resultSetGetter(publicLookup, "getString", String.class));
+      READERS.put(int.class, resultSetGetter(publicLookup, "getInt", int.class));
+      READERS.put(long.class, resultSetGetter(publicLookup, "getLong", long.class));
+      READERS.put(double.class, resultSetGetter(publicLookup, "getDouble", double.class));
+      READERS.put(boolean.class, resultSetGetter(publicLookup, "getBoolean", boolean.class));
+      READERS.put(byte[].class, resultSetGetter(publicLookup, "getBytes", byte[].class));
+      READERS.put(Integer.class, staticReader("readInteger", Integer.class));
+      READERS.put(Long.class, staticReader("readLong", Long.class));
+      READERS.put(Double.class, staticReader("readDouble", Double.class));
+      READERS.put(Boolean.class, staticReader("readBoolean", Boolean.class));
+      READERS.put(LocalDateTime.class, staticReader("readDateTime", LocalDateTime.class));
+      GET_UUID = publicLookup.findVirtual(ColumnCodec.class, "getUuid",
+          MethodType.methodType(UUID.class, ResultSet.class, int.class));
+      GET_ENUM = publicLookup.findVirtual(ColumnCodec.class, "getEnum",
+          MethodType.methodType(Enum.class, ResultSet.class, int.class, Class.class));
+      READ_CUSTOM = publicLookup.findVirtual(ColumnReader.class, "read",
+          MethodType.methodType(Object.class, ResultSet.class, int.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private record Key(Class<?> type, StorageFormat format) {
+  }
+
+  private final Class<T> type;
+  private final MethodHandle handle;
+
+  private RecordMapper(Class<T> type, MethodHandle handle) {
+    this.type = type;
+    this.handle = handle;
+  }
+
+  /**
+   * Спільний відображувач для типу запису і формату бази; будується лише раз.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T extends Record> RecordMapper<T> of(Class<T> type, ColumnCodec codec) {
+    return (RecordMapper<T>) MAPPERS.computeIfAbsent(new Key(type, codec.format()),
+        key -> builder(type, codec).build());
+  }
+
+  public static <T extends Record> Builder<T> builder(Class<T> type, ColumnCodec codec) {
+    return new Builder<>(type, codec);
+  }
+
+  /** Стовпці запису через кому, в порядку компонентів — для списку SELECT. */
+  public static String columnList(Class<? extends Record> type) {
+    return columnList(type, null);
+  }
+
+  public static String columnList(Class<? extends Record> type, String alias) {
+    String prefix = alias == null ? "" : alias + ".";
+    return Arrays.stream(type.getRecordComponents())
+        .map(component -> prefix + columnName(component))
+        .collect(Collectors.joining(", "));
+  }
+
+  @Override
+  public T map(ResultSet resultSet) throws SQLException {
+    try {
+      return type.cast((Object) handle.invokeExact(resultSet));
+    } catch (SQLException | RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new SQLException("Не вдалося відобразити рядок на " + type.getSimpleName(), e);
+    }
+  }
+
+  private static String columnName(RecordComponent component) {
+    Column column = component.getAnnotation(Column.class);
+    if (column != null) {
+      return column.value();
+    }
+    return component.getName().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+  }
+
+  public static final class Builder<T extends Record> {
+    private final Class<T> type;
+    private final ColumnCodec codec;
+    private final Map<String, ColumnReader<?>> customReaders = new HashMap<>();
+
+    private Builder(Class<T> type, ColumnCodec codec) {
+      this.type = type;
+      this.codec = codec;
+    }
+
+    /** Замінює стандартне читання компонента {@code component} власним. */
+    public Builder<T> reader(String component, ColumnReader<?> reader) {
+      customReaders.put(component, reader);
+      return this;
+    }
+
+    public RecordMapper<T> build() {
+      RecordComponent[] components = type.getRecordComponents();
+      Class<?>[] parameterTypes = new Class<?>[components.length];
+      MethodHandle[] readers = new MethodHandle[components.length];
+      for (int i = 0; i < components.length; i++) {
+        parameterTypes[i] = components[i].getType();
+        readers[i] = readerFor(components[i], i + 1);
+      }
+      try {
+        MethodHandle constructor = MethodHandles.publicLookup()
+            .findConstructor(type, MethodType.methodType(void.class, parameterTypes));
+        // (ResultSet, ..., ResultSet) -> T, а потім один ResultSet на всі аргументи
+        MethodHandle filtered = MethodHandles.filterArguments(constructor, 0, readers);
+        MethodHandle mapper = MethodHandles.permuteArguments(filtered,
+            MethodType.methodType(type, ResultSet.class), new int[components.length]);
+        return new RecordMapper<>(type, mapper.asType(MethodType.methodType(Object.class, ResultSet.class)));
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalArgumentException("Не вдалося побудувати відображувач для " + type.getName(), e);
+      }
+    }
+
+    private MethodHandle readerFor(RecordComponent component, int column) {
+      Class<?> componentType = component.getType();
+      MethodType readerType = MethodType.methodType(componentType, ResultSet.class);
+      ColumnReader<?> custom = customReaders.get(component.getName());
+      if (custom != null) {
+        return MethodHandles.insertArguments(READ_CUSTOM.bindTo(custom), 1, column).asType(readerType);
+      }
+      if (componentType == UUID.class) {
+        return MethodHandles.insertArguments(GET_UUID.bindTo(codec), 1, column);
+      }
+      if (componentType.isEnum() && CodedEnum.class.isAssignableFrom(componentType)) {
+        return MethodHandles.insertArguments(GET_ENUM.bindTo(codec), 1, column, componentType).asType(readerType);
+      }
+      MethodHandle reader = READERS.get(componentType);
+      if (reader == null) {
+        throw new IllegalArgumentException("Непідтримуваний тип " + componentType.getName()
+            + " компонента " + type.getSimpleName() + "." + component.getName());
+      }
+      return MethodHandles.insertArguments(reader, 1, column);
+    }
+  }
+
+  private static MethodHandle resultSetGetter(MethodHandles.Lookup lookup, String name, Class<?> returnType)
+      throws ReflectiveOperationException {
+    return lookup.findVirtual(ResultSet.class, name, MethodType.methodType(returnType, int.class));
+  }
+
+  private static MethodHandle staticReader(String name, Class<?> returnType) throws ReflectiveOperationException {
+    return LOOKUP.findStatic(RecordMapper.class, name,
+        MethodType.methodType(returnType, ResultSet.class, int.class));
+  }
+
+  private static Integer readInteger(ResultSet resultSet, int column) throws SQLException {
+    int value = resultSet.getInt(column);
+    return resultSet.wasNull() ? null : value;
+  }
+
+  private static Long readLong(ResultSet resultSet, int column) throws SQLException {
+    long value = resultSet.getLong(column);
+    return resultSet.wasNull() ? null : value;
+  }
+
+  private static Double readDouble(ResultSet resultSet, int column) throws SQLException {
+    double value = resultSet.getDouble(column);
+    return resultSet.wasNull() ? null : value;
+  }
+
+  private static Boolean readBoolean(ResultSet resultSet, int column) throws SQLException {
+    boolean value = resultSet.getBoolean(column);
+    return resultSet.wasNull() ? null : value;
+  }
+
+  // Дати в базі бувають і мілісекундами (setTimestamp), і текстом з початкових даних
+  private static LocalDateTime readDateTime(ResultSet resultSet, int column) throws SQLException {
+    Object value = resultSet.getObject(column);
+    if (value == null) {
+      return null;
+    }
+    if (value instanceof Number millis) {
+      return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis.longValue()), ZoneId.systemDefault());
+    }
+    String text = value.toString();
+    try {
+      return LocalDateTime.parse(text.replace(' ', 'T'));
+    } catch (DateTimeParseException e) {
+      throw new SQLException("Некоректна дата \"" + text + "\" у стовпці " + column, e);
+    }
+  }
+}
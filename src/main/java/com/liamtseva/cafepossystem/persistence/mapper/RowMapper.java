@@ -0,0 +1,12 @@
+package com.liamtseva.cafepossystem.persistence.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Перетворення поточного рядка результату на об'єкт.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+  T map(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,207 @@
+package com.liamtseva.cafepossystem.persistence.migration;
+
+import com.liamtseva.cafepossystem.domain.exception.SchemaMigrationException;
+import com.liamtseva.cafepossystem.persistence.codec.StorageFormat;
+import com.liamtseva.cafepossystem.persistence.entity.enums.BonusTransactionType;
+import com.liamtseva.cafepossystem.persistence.entity.enums.CodedEnum;
+import com.liamtseva.cafepossystem.persistence.entity.enums.OrderStatus;
+import com.liamtseva.cafepossystem.persistence.entity.enums.Role;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Переводить наявну базу з текстового формату на {@link StorageFormat#BINARY} на місці.
+ *
+ * <p>Кожна таблиця перебудовується так, як радить документація SQLite для змін типів стовпців:
+ * нова таблиця, копіювання з перетворенням, видалення старої, перейменування і відновлення її
+ * індексів та тригерів. Усе виконується в одній транзакції з вимкненими зовнішніми ключами,
+ * а перед комітом {@code PRAGMA foreign_key_check} підтверджує, що нових порушень не з'явилося. Читачі в режимі WAL
+ * до коміту продовжують бачити попередній знімок даних.
+ */
+class BinaryStorageConverter {
+
+  private static final Logger logger = LoggerFactory.getLogger(BinaryStorageConverter.class);
+
+  private static final List<String> TABLES = List.of(
+      "Users", "MenuItems", "Categories", "Orders", "Cart",
+      "ItemCategories", "OrderCartItems", "LoyaltyCards", "BonusTransactions", "MenuItemThumbnails");
+
+  private static final Map<String, Class<? extends Enum<?>>> ENUM_COLUMNS = Map.of(
+      "Users.role", Role.class,
+      "Orders.status", OrderStatus.class,
+      "BonusTransactions.type", BonusTransactionType.class);
+
+  private static final String UUID_TYPE = "VARCHAR(36)";
+  private static final String TEMP_SUFFIX = "__binary";
+
+  private final Map<String, Integer> enumCodes = new LinkedHashMap<>();
+
+  BinaryStorageConverter() {
+    for (Class<? extends Enum<?>> type : ENUM_COLUMNS.values()) {
+      for (Enum<?> constant : type.getEnumConstants()) {
+        enumCodes.put(constant.name(), ((CodedEnum) constant).code());
+      }
+    }
+  }
+
+  /**
+   * @return {@code true}, якщо базу перетворено; {@code false}, якщо вона вже двійкова
+   */
+  boolean convert(Connection connection) throws SQLException {
+    if (StorageFormat.read(connection) == StorageFormat.BINARY) {
+      return false;
+    }
+    logger.info("Перетворення бази на двійковий формат ключів і переліків");
+    // Обидві прагми не діють усередині транзакції, тож перемикаємо їх до її початку
+    execute(connection, "PRAGMA foreign_keys = OFF");
+    execute(connection, "PRAGMA legacy_alter_table = ON");
+    connection.setAutoCommit(false);
+    try {
+      int violationsBefore = countForeignKeyViolations(connection);
+      for (String table : TABLES) {
+        convertTable(connection, table);
+      }
+      // Пошуковий індекс посилається на rowid страв, а копіювання MenuItems дає нові rowid
+      MenuItemSearchIndex.rebuild(connection);
+      // Давні порушення лишаються як є, але перетворення не повинно додати нових
+      int violationsAfter = countForeignKeyViolations(connection);
+      if (violationsAfter > violationsBefore) {
+        throw new SchemaMigrationException("Перетворення порушило зовнішні ключі: було " + violationsBefore
+            + ", стало " + violationsAfter);
+      }
+      execute(connection, "UPDATE schema_settings SET value = 'BINARY' WHERE name = 'storage_format'");
+      connection.commit();
+      return true;
+    } catch (SQLException | RuntimeException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(true);
+      execute(connection, "PRAGMA legacy_alter_table = OFF");
+      execute(connection, "PRAGMA foreign_keys = ON");
+    }
+  }
+
+  private void convertTable(Connection connection, String table) throws SQLException {
+    String createSql = null;
+    List<String> dependents = new ArrayList<>();
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("SELECT type, sql FROM sqlite_master WHERE tbl_name = '"
+            + table + "' AND sql IS NOT NULL ORDER BY type = 'trigger'")) {
+      while (resultSet.next()) {
+        if ("table".equals(resultSet.getString("type"))) {
+          createSql = resultSet.getString("sql");
+        } else {
+          dependents.add(resultSet.getString("sql"));
+        }
+      }
+    }
+    if (createSql == null) {
+      return;
+    }
+
+    List<String> uuidColumns = new ArrayList<>();
+    StringJoiner columns = new StringJoiner(", ");
+    StringJoiner expressions = new StringJoiner(", ");
+    String newCreateSql = createSql;
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+      while (resultSet.next()) {
+        String column = resultSet.getString("name");
+        String type = resultSet.getString("type");
+        columns.add(column);
+        Class<? extends Enum<?>> enumType = ENUM_COLUMNS.get(table + "." + column);
+        if (UUID_TYPE.equalsIgnoreCase(type)) {
+          uuidColumns.add(column);
+          expressions.add("unhex(replace(" + column + ", '-', ''))");
+        } else if (enumType != null) {
+          expressions.add(enumCaseExpression(column, enumType));
+          newCreateSql = Pattern.compile("(\\b" + column + "\\s+)VARCHAR\\(\\d+\\)", Pattern.CASE_INSENSITIVE)
+              .matcher(newCreateSql).replaceFirst("$1INTEGER");
+        } else {
+          expressions.add(column);
+        }
+      }
+    }
+
+    newCreateSql = replaceEnumLiterals(newCreateSql.replaceAll("(?i)VARCHAR\\(36\\)", "BLOB"));
+    Matcher header = Pattern.compile("^CREATE TABLE\\s+(IF NOT EXISTS\\s+)?\"?" + table + "\"?",
+        Pattern.CASE_INSENSITIVE).matcher(newCreateSql);
+    if (!header.find()) {
+      throw new SchemaMigrationException("Не вдалося розібрати визначення таблиці " + table);
+    }
+    newCreateSql = header.replaceFirst("CREATE TABLE " + table + TEMP_SUFFIX);
+
+    execute(connection, newCreateSql);
+    // Рядок з ключем, що не є UUID, застосунок і так не може прочитати; такі рядки не копіюються
+    StringJoiner validKeys = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+    for (String column : uuidColumns) {
+      validKeys.add("(" + column + " IS NULL OR length(unhex(replace(" + column + ", '-', ''))) = 16)");
+    }
+    int total = count(connection, "SELECT count(*) FROM " + table);
+    int copied;
+    try (Statement statement = connection.createStatement()) {
+      copied = statement.executeUpdate("INSERT INTO " + table + TEMP_SUFFIX + " (" + columns + ") SELECT "
+          + expressions + " FROM " + table + validKeys);
+    }
+    if (copied < total) {
+      logger.warn("Таблиця {}: пропущено {} рядків з некоректними UUID", table, total - copied);
+    }
+    execute(connection, "DROP TABLE " + table);
+    execute(connection, "ALTER TABLE " + table + TEMP_SUFFIX + " RENAME TO " + table);
+    for (String sql : dependents) {
+      execute(connection, replaceEnumLiterals(sql));
+    }
+  }
+
+  private static int countForeignKeyViolations(Connection connection) throws SQLException {
+    int violations = 0;
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("PRAGMA foreign_key_check")) {
+      while (resultSet.next()) {
+        violations++;
+      }
+    }
+    return violations;
+  }
+
+  private static String enumCaseExpression(String column, Class<? extends Enum<?>> type) {
+    StringBuilder expression = new StringBuilder("CASE ").append(column);
+    for (Enum<?> constant : type.getEnumConstants()) {
+      expression.append(" WHEN '").append(constant.name()).append("' THEN ").append(((CodedEnum) constant).code());
+    }
+    return expression.append(" END").toString();
+  }
+
+  // Літерали переліків у CHECK, DEFAULT і умовах часткових індексів замінюються на коди
+  private String replaceEnumLiterals(String sql) {
+    for (Map.Entry<String, Integer> entry : enumCodes.entrySet()) {
+      sql = sql.replace("'" + entry.getKey() + "'", String.valueOf(entry.getValue()));
+    }
+    return sql;
+  }
+
+  private static int count(Connection connection, String query) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(query)) {
+      return resultSet.next() ? resultSet.getInt(1) : 0;
+    }
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate(sql);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.liamtseva.cafepossystem.persistence.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Обслуговування пошукового індексу страв {@code MenuItemSearch}.
+ *
+ * <p>Індекс посилається на неявний rowid MenuItems, а VACUUM чи перебудова таблиці можуть
+ * його змінити. Після такої перебудови індекс відновлюється командою FTS5 {@code 'rebuild'}.
+ */
+final class MenuItemSearchIndex {
+
+  private static final Logger logger = LoggerFactory.getLogger(MenuItemSearchIndex.class);
+
+  private MenuItemSearchIndex() {
+  }
+
+  /** Перечитує індекс з MenuItems наново. */
+  static void rebuild(Connection connection) throws SQLException {
+    if (exists(connection)) {
+      execute(connection, "INSERT INTO MenuItemSearch (MenuItemSearch) VALUES ('rebuild')");
+    }
+  }
+
+  /**
+   * Перебудовує індекс, якщо він розійшовся з MenuItems, наприклад після VACUUM поза застосунком.
+   *
+   * @return {@code true}, якщо індекс довелося перебудувати
+   */
+  static boolean rebuildIfStale(Connection connection) throws SQLException {
+    if (!exists(connection)) {
+      return false;
+    }
+    try {
+      // З рангом 1 FTS5 звіряє індекс із зовнішнім вмістом, а не лише власну структуру
+      execute(connection, "INSERT INTO MenuItemSearch (MenuItemSearch, rank) VALUES ('integrity-check', 1)");
+      return false;
+    } catch (SQLException e) {
+      logger.warn("Пошуковий індекс страв не відповідає MenuItems, перебудова: {}", e.getMessage());
+    }
+    execute(connection, "INSERT INTO MenuItemSearch (MenuItemSearch) VALUES ('rebuild')");
+    return true;
+  }
+
+  private static boolean exists(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(
+            "SELECT count(*) FROM sqlite_master WHERE name = 'MenuItemSearch'")) {
+      return resultSet.next() && resultSet.getInt(1) > 0;
+    }
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate(sql);
+    }
+  }
+}
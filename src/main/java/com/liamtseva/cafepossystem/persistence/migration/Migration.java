@@ -0,0 +1,43 @@
+package com.liamtseva.cafepossystem.persistence.migration;
+
+import com.liamtseva.cafepossystem.domain.exception.SchemaMigrationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Одна версія схеми: SQL-скрипт з ресурсів {@code /db/migration}.
+ *
+ * <p>{@code rebuildsTables} позначає скрипти, що перебудовують таблицю (нова, копіювання,
+ * видалення старої, перейменування): їх виконують з вимкненими зовнішніми ключами, інакше
+ * видалення старої таблиці спрацювало б каскадом на залежних рядках.
+ */
+public record Migration(int version, String description, String resource, boolean rebuildsTables) {
+
+  public Migration(int version, String description, String resource) {
+    this(version, description, resource, false);
+  }
+
+  public String script() {
+    try (InputStream inputStream = Migration.class.getResourceAsStream(resource)) {
+      if (inputStream == null) {
+        throw new SchemaMigrationException("Не знайдено скрипт міграції " + resource);
+      }
+      return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+    } catch (IOException e) {
+      throw new SchemaMigrationException("Не вдалося прочитати скрипт міграції " + resource, e);
+    }
+  }
+
+  public String checksum() {
+    try {
+      MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(messageDigest.digest(script().getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new SchemaMigrationException("SHA-256 недоступний", e);
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package com.liamtseva.cafepossystem.persistence.migration;
+
+import com.liamtseva.cafepossystem.domain.exception.SchemaMigrationException;
+import com.liamtseva.cafepossystem.persistence.codec.ColumnCodec;
+import com.liamtseva.cafepossystem.persistence.codec.StorageFormat;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Оновлює наявний файл бази до останньої версії схеми на місці.
+ *
+ * <p>Застосовані версії та контрольні суми їхніх скриптів зберігаються в таблиці
+ * {@code schema_migrations}. Кожна міграція виконується у власній транзакції; змінений
+ * після застосування скрипт зупиняє запуск, щоб схема не розійшлася з кодом непомітно.
+ * Мігратор працює напряму з пулом письменника, тому його запускають до першого запису.
+ *
+ * <p>Якщо задано {@code -Dcafepos.storage.format=BINARY}, після скриптів текстова база
+ * перетворюється на компактний двійковий формат ({@link BinaryStorageConverter}).
+ * Зворотного перетворення немає. Наприкінці мігратор звіряє пошуковий індекс страв з MenuItems
+ * і перебудовує його, якщо rowid страв змінилися.
+ */
+public class SchemaMigrator {
+
+  private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+  private static final List<Migration> MIGRATIONS = List.of(
+      new Migration(1, "baseline schema", "/db/migration/V1__baseline_schema.sql"),
+      new Migration(2, "hot path indexes", "/db/migration/V2__hot_path_indexes.sql"),
+      new Migration(3, "schema settings", "/db/migration/V3__schema_settings.sql"),
+      new Migration(4, "order date keyset", "/db/migration/V4__order_date_keyset.sql"),
+      new Migration(5, "menu item thumbnails", "/db/migration/V5__menu_item_thumbnails.sql"),
+      new Migration(6, "menu item search", "/db/migration/V6__menu_item_search.sql"),
+      new Migration(7, "cart delete policy", "/db/migration/V7__cart_delete_policy.sql", true),
+      new Migration(8, "catalog version", "/db/migration/V8__catalog_version.sql")
+  );
+
+  private static final String CREATE_HISTORY_TABLE = """
+      CREATE TABLE IF NOT EXISTS schema_migrations (
+          version INTEGER NOT NULL PRIMARY KEY,
+          description VARCHAR(255) NOT NULL,
+          checksum VARCHAR(64) NOT NULL,
+          applied_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+      )""";
+
+  private final DataSource dataSource;
+
+  public SchemaMigrator(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  /**
+   * Застосовує всі відсутні міграції по зростанню версії.
+   *
+   * @return кількість застосованих міграцій
+   */
+  public int migrate() {
+    try (Connection connection = dataSource.getConnection()) {
+      try (Statement statement = connection.createStatement()) {
+        statement.executeUpdate(CREATE_HISTORY_TABLE);
+      }
+      Map<Integer, String> applied = loadAppliedChecksums(connection);
+      int appliedNow = 0;
+      for (Migration migration : MIGRATIONS) {
+        String checksum = migration.checksum();
+        String appliedChecksum = applied.get(migration.version());
+        if (appliedChecksum == null) {
+          apply(connection, migration, checksum);
+          appliedNow++;
+        } else if (!appliedChecksum.equals(checksum)) {
+          throw new SchemaMigrationException("Скрипт міграції V" + migration.version()
+              + " змінено після застосування (очікувалась контрольна сума " + appliedChecksum + ")");
+        }
+      }
+      boolean converted = StorageFormat.requested() == StorageFormat.BINARY
+          && new BinaryStorageConverter().convert(connection);
+      if (converted) {
+        ColumnCodec.resetAll();
+      }
+      // Перебудови MenuItems поза мігратором (VACUUM, ручні зміни) змінюють rowid, на які спирається пошук
+      MenuItemSearchIndex.rebuildIfStale(connection);
+      if (appliedNow > 0 || converted) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("PRAGMA optimize");
+        }
+      }
+      return appliedNow;
+    } catch (SQLException e) {
+      throw new SchemaMigrationException("Не вдалося оновити схему бази даних", e);
+    }
+  }
+
+  private Map<Integer, String> loadAppliedChecksums(Connection connection) throws SQLException {
+    Map<Integer, String> applied = new HashMap<>();
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+      while (resultSet.next()) {
+        applied.put(resultSet.getInt("version"), resultSet.getString("checksum"));
+      }
+    }
+    return applied;
+  }
+
+  private void apply(Connection connection, Migration migration, String checksum) throws SQLException {
+    logger.info("Застосування міграції V{}: {}", migration.version(), migration.description());
+    if (migration.rebuildsTables()) {
+      // Прагми не діють усередині транзакції, тож перемикаємо їх до її початку
+      execute(connection, "PRAGMA foreign_keys = OFF");
+      execute(connection, "PRAGMA legacy_alter_table = ON");
+    }
+    connection.setAutoCommit(false);
+    try {
+      int violationsBefore = migration.rebuildsTables() ? countForeignKeyViolations(connection) : 0;
+      execute(connection, migration.script());
+      // Давні порушення лишаються як є, але перебудова не повинна додати нових
+      if (migration.rebuildsTables() && countForeignKeyViolations(connection) > violationsBefore) {
+        throw new SchemaMigrationException("Міграція V" + migration.version() + " порушила зовнішні ключі");
+      }
+      String query = "INSERT INTO schema_migrations (version, description, checksum) VALUES (?, ?, ?)";
+      try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+        preparedStatement.setInt(1, migration.version());
+        preparedStatement.setString(2, migration.description());
+        preparedStatement.setString(3, checksum);
+        preparedStatement.executeUpdate();
+      }
+      connection.commit();
+    } catch (SQLException | RuntimeException e) {
+      connection.rollback();
+      throw new SchemaMigrationException("Міграція V" + migration.version() + " не вдалася", e);
+    } finally {
+      connection.setAutoCommit(true);
+      if (migration.rebuildsTables()) {
+        execute(connection, "PRAGMA legacy_alter_table = OFF");
+        execute(connection, "PRAGMA foreign_keys = ON");
+      }
+    }
+  }
+
+  private static int countForeignKeyViolations(Connection connection) throws SQLException {
+    int violations = 0;
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("PRAGMA foreign_key_check")) {
+      while (resultSet.next()) {
+        violations++;
+      }
+    }
+    return violations;
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate(sql);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.liamtseva.cafepossystem.persistence.repository.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Асинхронний фасад над репозиторієм (або сервісом, що працює з базою): кожен виклик виконується
+ * у власному віртуальному потоці й повертає {@link CompletableFuture}, тож потік JavaFX не чекає
+ * на повільний диск чи заблоковану базу.
+ *
+ * <p>Кількість одночасних читань і так обмежує пул з'єднань, а записи впорядковує черга
+ * письменника; віртуальні потоки лише не тримають платформні потоки, поки виклик на це чекає.
+ * Виняток виклику, зокрема перевірений ({@code EntityNotFoundException}), завершує майбутнє з
+ * цим винятком як причиною.
+ *
+ * @param <R> контракт репозиторію
+ */
+public final class AsyncRepository<R> {
+
+  private static final ExecutorService EXECUTOR =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("repository-", 0).factory());
+
+  /** Виклик репозиторію з результатом. */
+  @FunctionalInterface
+  public interface RepositoryCall<R, T> {
+    T call(R repository) throws Exception;
+  }
+
+  /** Виклик репозиторію без результату. */
+  @FunctionalInterface
+  public interface RepositoryAction<R> {
+    void run(R repository) throws Exception;
+  }
+
+  private final R repository;
+
+  private AsyncRepository(R repository) {
+    this.repository = repository;
+  }
+
+  public static <R> AsyncRepository<R> of(R repository) {
+    return new AsyncRepository<>(repository);
+  }
+
+  /** Синхронний репозиторій — для коду, що вже виконується поза потоком JavaFX. */
+  public R repository() {
+    return repository;
+  }
+
+  public <T> CompletableFuture<T> supply(RepositoryCall<R, T> call) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    EXECUTOR.execute(() -> {
+      try {
+        future.complete(call.call(repository));
+      } catch (Exception e) {
+        future.completeExceptionally(e);
+      } catch (Error e) {
+        future.completeExceptionally(e);
+        throw e;
+      }
+    });
+    return future;
+  }
+
+  public CompletableFuture<Void> run(RepositoryAction<R> action) {
+    return supply(repository -> {
+      action.run(repository);
+      return null;
+    });
+  }
+}
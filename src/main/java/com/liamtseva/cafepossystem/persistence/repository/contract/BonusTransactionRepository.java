@@ -4,11 +4,17 @@ import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
 import com.liamtseva.cafepossystem.persistence.entity.BonusTransaction;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface BonusTransactionRepository {
     BonusTransaction findById(UUID id) throws EntityNotFoundException;
     List<BonusTransaction> findByCardId(UUID cardId);
     List<BonusTransaction> findAll();
-    BonusTransaction save(BonusTransaction bonusTransaction);
+    Stream<BonusTransaction> streamAll(int fetchSize);
+    SaveResult<BonusTransaction> upsert(BonusTransaction bonusTransaction);
+    default BonusTransaction save(BonusTransaction bonusTransaction) {
+        SaveResult<BonusTransaction> result = upsert(bonusTransaction);
+        return result == null ? null : result.entity();
+    }
     void deleteById(UUID id) throws EntityNotFoundException;
 }
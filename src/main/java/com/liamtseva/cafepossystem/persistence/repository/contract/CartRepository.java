@@ -4,11 +4,18 @@ import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
 import com.liamtseva.cafepossystem.persistence.entity.Cart;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface CartRepository {
     Cart findById(UUID id) throws EntityNotFoundException;
     List<Cart> findByUserId(UUID userId);
+    List<Cart> findActiveByUserId(UUID userId);
     List<Cart> findAll();
-    Cart save(Cart cart);
+    Stream<Cart> streamAll(int fetchSize);
+    SaveResult<Cart> upsert(Cart cart);
+    default Cart save(Cart cart) {
+        SaveResult<Cart> result = upsert(cart);
+        return result == null ? null : result.entity();
+    }
     void deleteById(UUID id) throws EntityNotFoundException;
 }
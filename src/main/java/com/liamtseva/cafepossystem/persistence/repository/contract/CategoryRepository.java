@@ -9,6 +9,10 @@ public interface CategoryRepository {
   Category findById(UUID id) throws EntityNotFoundException;
   Category findByName(String categoryName) throws EntityNotFoundException;
   List<Category> findAll();
-  Category save(Category category);
+  SaveResult<Category> upsert(Category category);
+  default Category save(Category category) {
+    SaveResult<Category> result = upsert(category);
+    return result == null ? null : result.entity();
+  }
   void deleteById(UUID id) throws EntityNotFoundException;
 }
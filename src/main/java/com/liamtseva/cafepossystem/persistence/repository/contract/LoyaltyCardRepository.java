@@ -9,6 +9,10 @@ public interface LoyaltyCardRepository {
     LoyaltyCard findById(UUID id) throws EntityNotFoundException;
     LoyaltyCard findByUserId(UUID userId) throws EntityNotFoundException;
     List<LoyaltyCard> findAll();
-    LoyaltyCard save(LoyaltyCard loyaltyCard);
+    SaveResult<LoyaltyCard> upsert(LoyaltyCard loyaltyCard);
+    default LoyaltyCard save(LoyaltyCard loyaltyCard) {
+        SaveResult<LoyaltyCard> result = upsert(loyaltyCard);
+        return result == null ? null : result.entity();
+    }
     void deleteById(UUID id) throws EntityNotFoundException;
 }
@@ -3,7 +3,9 @@ package com.liamtseva.cafepossystem.persistence.repository.contract;
 import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
 import com.liamtseva.cafepossystem.persistence.entity.Category;
 import com.liamtseva.cafepossystem.persistence.entity.MenuItem;
+import com.liamtseva.cafepossystem.persistence.entity.MenuItemSummary;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface MenuItemRepository {
@@ -13,7 +15,21 @@ public interface MenuItemRepository {
   List<MenuItem> findByCategoryId(UUID categoryId);
   List<MenuItem> findCartItemsByUserId(UUID userId);
   List<Category> findCategoriesByItemId(UUID itemId);
-  MenuItem save(MenuItem menuItem);
+  Map<UUID, List<Category>> findAllItemCategories();
+  MenuItemSummary findSummaryById(UUID id) throws EntityNotFoundException;
+  List<MenuItemSummary> findAllSummaries();
+  List<MenuItemSummary> findSummariesByCategoryId(UUID categoryId);
+  List<MenuItemSummary> findCartSummariesByUserId(UUID userId);
+  List<MenuItemSummary> search(String query, int limit);
+  byte[] loadImage(UUID itemId);
+  byte[] loadThumbnail(UUID itemId);
+  /** Лічильник змін каталогу, що його збільшують тригери; -1, якщо прочитати не вдалося. */
+  long findCatalogVersion();
+  SaveResult<MenuItem> upsert(MenuItem menuItem);
+  default MenuItem save(MenuItem menuItem) {
+    SaveResult<MenuItem> result = upsert(menuItem);
+    return result == null ? null : result.entity();
+  }
   void deleteById(UUID id) throws EntityNotFoundException;
   void saveItemCategories(UUID itemId, List<UUID> categoryIds);
   void deleteItemCategories(UUID itemId);
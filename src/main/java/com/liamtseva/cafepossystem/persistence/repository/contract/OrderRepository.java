@@ -2,16 +2,26 @@ package com.liamtseva.cafepossystem.persistence.repository.contract;
 
 import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
 import com.liamtseva.cafepossystem.persistence.entity.Order;
+import com.liamtseva.cafepossystem.persistence.entity.OrderLine;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface OrderRepository {
   Order findById(UUID id) throws EntityNotFoundException;
   List<Order> findAll();
-  List<String> findCartIdsByOrderId(UUID orderId);
+  Stream<Order> streamAll(int fetchSize); // Курсор без завантаження всієї таблиці; закривати після використання
+  List<Order> findPageAfter(Order after, int limit); // Сторінка за ключем (order_date, order_id); after == null — перша
+  List<String> findCartIdsByOrderId(UUID orderId); // У порядку додавання
+  List<OrderLine> findOrderLines(UUID orderId); // Позиції з назвами страв одним запитом, у порядку додавання
+  Map<UUID, List<OrderLine>> findOrderLines(Collection<UUID> orderIds); // Те саме для багатьох замовлень; кожен ID є ключем
   List<Order> findByUserId(UUID userId);
+  List<Order> findActive(); // Замовлення в роботі (PENDING, CONFIRMED) за індексом статусу
   Order create(Order order, List<String> cartIds); // Додаємо cartIds для зв’язків
   Order update(Order order, List<String> cartIds) throws EntityNotFoundException; // Новий метод update
+  Order update(Order order) throws EntityNotFoundException; // Лише поля замовлення (статус, столик); позиції лишаються як є
   void deleteById(UUID id) throws EntityNotFoundException;
 }
@@ -0,0 +1,16 @@
+package com.liamtseva.cafepossystem.persistence.repository.contract;
+
+/**
+ * Збережена сутність і те, чи було її вставлено як новий рядок, чи оновлено наявний.
+ */
+public record SaveResult<T>(T entity, Outcome outcome) {
+
+  public enum Outcome {
+    INSERTED,
+    UPDATED
+  }
+
+  public boolean inserted() {
+    return outcome == Outcome.INSERTED;
+  }
+}
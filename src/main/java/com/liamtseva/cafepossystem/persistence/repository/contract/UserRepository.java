@@ -5,11 +5,13 @@ import com.liamtseva.cafepossystem.persistence.entity.User;
 import com.liamtseva.cafepossystem.persistence.entity.enums.Role;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface UserRepository {
   User findById(UUID id) throws EntityNotFoundException;
   User findByUsername(String username) throws EntityNotFoundException;
   List<User> findAll();
+  Stream<User> streamAll(int fetchSize);
   void addUser(User user);
   void updateUser(User user) throws EntityNotFoundException;
   void updateUserRole(String username, Role newRole) throws EntityNotFoundException;
@@ -1,9 +1,14 @@
 package com.liamtseva.cafepossystem.persistence.repository.impl;
 
 import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
+import com.liamtseva.cafepossystem.persistence.codec.ColumnCodec;
+import com.liamtseva.cafepossystem.persistence.connection.CursorStream;
+import com.liamtseva.cafepossystem.persistence.connection.StatementCache;
+import com.liamtseva.cafepossystem.persistence.connection.WriteQueue;
 import com.liamtseva.cafepossystem.persistence.entity.BonusTransaction;
-import com.liamtseva.cafepossystem.persistence.entity.enums.BonusTransactionType;
+import com.liamtseva.cafepossystem.persistence.mapper.RecordMapper;
 import com.liamtseva.cafepossystem.persistence.repository.contract.BonusTransactionRepository;
+import com.liamtseva.cafepossystem.persistence.repository.contract.SaveResult;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -13,24 +18,36 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public class BonusTransactionRepositoryImpl implements BonusTransactionRepository {
 
-    private final DataSource dataSource;
+    private static final String COLUMNS = RecordMapper.columnList(BonusTransaction.class);
+    private final DataSource readDataSource;
+    private final WriteQueue writeQueue;
+    private final ColumnCodec codec;
+    private final RecordMapper<BonusTransaction> bonusTransactionMapper;
 
     public BonusTransactionRepositoryImpl(DataSource dataSource) {
-        this.dataSource = dataSource;
+        this(dataSource, dataSource);
+    }
+
+    public BonusTransactionRepositoryImpl(DataSource readDataSource, DataSource writeDataSource) {
+        this.readDataSource = readDataSource;
+        this.writeQueue = WriteQueue.forDataSource(writeDataSource);
+        this.codec = ColumnCodec.forDataSource(readDataSource);
+        this.bonusTransactionMapper = RecordMapper.of(BonusTransaction.class, codec);
     }
 
     @Override
     public BonusTransaction findById(UUID id) throws EntityNotFoundException {
-        String query = "SELECT * FROM BonusTransactions WHERE transaction_id = ?";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, id.toString());
+        String query = "SELECT " + COLUMNS + " FROM BonusTransactions WHERE transaction_id = ?";
+        try (Connection connection = readDataSource.getConnection();
+             PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, id);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 if (resultSet.next()) {
-                    return mapToBonusTransaction(resultSet);
+                    return bonusTransactionMapper.map(resultSet);
                 } else {
                     throw new EntityNotFoundException("Bonus transaction with ID " + id + " not found");
                 }
@@ -43,13 +60,13 @@ public class BonusTransactionRepositoryImpl implements BonusTransactionRepositor
     @Override
     public List<BonusTransaction> findByCardId(UUID cardId) {
         List<BonusTransaction> transactions = new ArrayList<>();
-        String query = "SELECT * FROM BonusTransactions WHERE card_id = ?";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, cardId.toString());
+        String query = "SELECT " + COLUMNS + " FROM BonusTransactions WHERE card_id = ?";
+        try (Connection connection = readDataSource.getConnection();
+             PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, cardId);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 while (resultSet.next()) {
-                    transactions.add(mapToBonusTransaction(resultSet));
+                    transactions.add(bonusTransactionMapper.map(resultSet));
                 }
             }
         } catch (SQLException e) {
@@ -61,12 +78,12 @@ public class BonusTransactionRepositoryImpl implements BonusTransactionRepositor
     @Override
     public List<BonusTransaction> findAll() {
         List<BonusTransaction> transactions = new ArrayList<>();
-        String query = "SELECT * FROM BonusTransactions";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query);
+        String query = "SELECT " + COLUMNS + " FROM BonusTransactions";
+        try (Connection connection = readDataSource.getConnection();
+             PreparedStatement preparedStatement = StatementCache.prepare(connection, query);
              ResultSet resultSet = preparedStatement.executeQuery()) {
             while (resultSet.next()) {
-                transactions.add(mapToBonusTransaction(resultSet));
+                transactions.add(bonusTransactionMapper.map(resultSet));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -75,28 +92,36 @@ public class BonusTransactionRepositoryImpl implements BonusTransactionRepositor
     }
 
     @Override
-    public BonusTransaction save(BonusTransaction bonusTransaction) {
-        String query = bonusTransaction.id() == null
-                ? "INSERT INTO BonusTransactions (transaction_id, card_id, order_id, amount, type, transaction_date, notes) VALUES (?, ?, ?, ?, ?, ?, ?)"
-                : "UPDATE BonusTransactions SET card_id = ?, order_id = ?, amount = ?, type = ?, transaction_date = ?, notes = ? WHERE transaction_id = ?";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            UUID id = bonusTransaction.id() == null ? UUID.randomUUID() : bonusTransaction.id();
-            int index = 1;
-            if (bonusTransaction.id() == null) {
-                preparedStatement.setString(index++, id.toString());
-            }
-            preparedStatement.setString(index++, bonusTransaction.cardId().toString());
-            preparedStatement.setString(index++, bonusTransaction.orderId() != null ? bonusTransaction.orderId().toString() : null);
-            preparedStatement.setDouble(index++, bonusTransaction.amount());
-            preparedStatement.setString(index++, bonusTransaction.type().name());
-            preparedStatement.setTimestamp(index++, java.sql.Timestamp.valueOf(bonusTransaction.transactionDate()));
-            preparedStatement.setString(index++, bonusTransaction.notes());
-            if (bonusTransaction.id() != null) {
-                preparedStatement.setString(index, id.toString());
-            }
-            preparedStatement.executeUpdate();
-            return new BonusTransaction(id, bonusTransaction.cardId(), bonusTransaction.orderId(), bonusTransaction.amount(), bonusTransaction.type(), bonusTransaction.transactionDate(), bonusTransaction.notes());
+    public Stream<BonusTransaction> streamAll(int fetchSize) {
+        String query = "SELECT " + COLUMNS + " FROM BonusTransactions";
+        try {
+            return CursorStream.open(readDataSource, query, fetchSize, bonusTransactionMapper);
+        } catch (SQLException e) {
+            throw new RuntimeException("Не вдалося відкрити курсор бонусних транзакцій", e);
+        }
+    }
+
+    @Override
+    public SaveResult<BonusTransaction> upsert(BonusTransaction bonusTransaction) {
+        String query = "INSERT INTO BonusTransactions (transaction_id, card_id, order_id, amount, type, transaction_date, notes) VALUES (?, ?, ?, ?, ?, ?, ?)"
+                + " ON CONFLICT(transaction_id) DO UPDATE SET card_id = excluded.card_id, order_id = excluded.order_id,"
+                + " amount = excluded.amount, type = excluded.type, transaction_date = excluded.transaction_date, notes = excluded.notes";
+        UUID id = bonusTransaction.id() == null ? UUID.randomUUID() : bonusTransaction.id();
+        try {
+            SaveResult.Outcome outcome = writeQueue.execute(connection -> {
+                try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+                    codec.setUuid(preparedStatement, 1, id);
+                    codec.setUuid(preparedStatement, 2, bonusTransaction.cardId());
+                    codec.setUuid(preparedStatement, 3, bonusTransaction.orderId());
+                    preparedStatement.setDouble(4, bonusTransaction.amount());
+                    codec.setEnum(preparedStatement, 5, bonusTransaction.type());
+                    preparedStatement.setTimestamp(6, java.sql.Timestamp.valueOf(bonusTransaction.transactionDate()));
+                    preparedStatement.setString(7, bonusTransaction.notes());
+                    return UpsertOutcome.execute(connection, preparedStatement, "BonusTransactions");
+                }
+            });
+            BonusTransaction savedTransaction = new BonusTransaction(id, bonusTransaction.cardId(), bonusTransaction.orderId(), bonusTransaction.amount(), bonusTransaction.type(), bonusTransaction.transactionDate(), bonusTransaction.notes());
+            return new SaveResult<>(savedTransaction, outcome);
         } catch (SQLException e) {
             e.printStackTrace();
             return null;
@@ -106,28 +131,18 @@ public class BonusTransactionRepositoryImpl implements BonusTransactionRepositor
     @Override
     public void deleteById(UUID id) throws EntityNotFoundException {
         String query = "DELETE FROM BonusTransactions WHERE transaction_id = ?";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, id.toString());
-            int affectedRows = preparedStatement.executeUpdate();
+        try {
+            int affectedRows = writeQueue.execute(connection -> {
+                try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+                    codec.setUuid(preparedStatement, 1, id);
+                    return preparedStatement.executeUpdate();
+                }
+            });
             if (affectedRows == 0) {
                 throw new EntityNotFoundException("Bonus transaction with ID " + id + " not found");
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Failed to delete bonus transaction with ID " + id, e);
         }
     }
-
-    private BonusTransaction mapToBonusTransaction(ResultSet resultSet) throws SQLException {
-        String orderIdStr = resultSet.getString("order_id");
-        return new BonusTransaction(
-                UUID.fromString(resultSet.getString("transaction_id")),
-                UUID.fromString(resultSet.getString("card_id")),
-                orderIdStr == null ? null : UUID.fromString(orderIdStr),
-                resultSet.getDouble("amount"),
-                BonusTransactionType.valueOf(resultSet.getString("type")),
-                resultSet.getTimestamp("transaction_date").toLocalDateTime(),
-                resultSet.getString("notes")
-        );
-    }
 }
@@ -1,8 +1,14 @@
 package com.liamtseva.cafepossystem.persistence.repository.impl;
 
 import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
+import com.liamtseva.cafepossystem.persistence.codec.ColumnCodec;
+import com.liamtseva.cafepossystem.persistence.connection.CursorStream;
+import com.liamtseva.cafepossystem.persistence.connection.StatementCache;
+import com.liamtseva.cafepossystem.persistence.connection.WriteQueue;
 import com.liamtseva.cafepossystem.persistence.entity.Cart;
+import com.liamtseva.cafepossystem.persistence.mapper.RecordMapper;
 import com.liamtseva.cafepossystem.persistence.repository.contract.CartRepository;
+import com.liamtseva.cafepossystem.persistence.repository.contract.SaveResult;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -12,24 +18,36 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public class CartRepositoryImpl implements CartRepository {
 
-    private final DataSource dataSource;
+    private static final String COLUMNS = RecordMapper.columnList(Cart.class);
+    private final DataSource readDataSource;
+    private final WriteQueue writeQueue;
+    private final ColumnCodec codec;
+    private final RecordMapper<Cart> cartMapper;
 
     public CartRepositoryImpl(DataSource dataSource) {
-        this.dataSource = dataSource;
+        this(dataSource, dataSource);
+    }
+
+    public CartRepositoryImpl(DataSource readDataSource, DataSource writeDataSource) {
+        this.readDataSource = readDataSource;
+        this.writeQueue = WriteQueue.forDataSource(writeDataSource);
+        this.codec = ColumnCodec.forDataSource(readDataSource);
+        this.cartMapper = RecordMapper.of(Cart.class, codec);
     }
 
     @Override
     public Cart findById(UUID id) throws EntityNotFoundException {
-        String query = "SELECT * FROM Cart WHERE cart_id = ?";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, id.toString());
+        String query = "SELECT " + COLUMNS + " FROM Cart WHERE cart_id = ?";
+        try (Connection connection = readDataSource.getConnection();
+             PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, id);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 if (resultSet.next()) {
-                    return mapToCart(resultSet);
+                    return cartMapper.map(resultSet);
                 } else {
                     throw new EntityNotFoundException("Cart with ID " + id + " not found");
                 }
@@ -42,14 +60,14 @@ public class CartRepositoryImpl implements CartRepository {
     @Override
     public List<Cart> findByUserId(UUID userId) {
         List<Cart> carts = new ArrayList<>();
-        String query = "SELECT * FROM Cart WHERE user_id = ?";
+        String query = "SELECT " + COLUMNS + " FROM Cart WHERE user_id = ?";
         
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, userId.toString());
+        try (Connection connection = readDataSource.getConnection();
+             PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, userId);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 while (resultSet.next()) {
-                    Cart cart = mapToCart(resultSet);
+                    Cart cart = cartMapper.map(resultSet);
                     carts.add(cart);
                 }
             }
@@ -59,15 +77,34 @@ public class CartRepositoryImpl implements CartRepository {
         return carts;
     }
 
+    @Override
+    public List<Cart> findActiveByUserId(UUID userId) {
+        List<Cart> carts = new ArrayList<>();
+        String query = "SELECT " + COLUMNS + " FROM Cart WHERE user_id = ? AND is_ordered = 0";
+
+        try (Connection connection = readDataSource.getConnection();
+             PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, userId);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    carts.add(cartMapper.map(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to fetch active carts for user " + userId, e);
+        }
+        return carts;
+    }
+
     @Override
     public List<Cart> findAll() {
         List<Cart> carts = new ArrayList<>();
-        String query = "SELECT * FROM Cart";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query);
+        String query = "SELECT " + COLUMNS + " FROM Cart";
+        try (Connection connection = readDataSource.getConnection();
+             PreparedStatement preparedStatement = StatementCache.prepare(connection, query);
              ResultSet resultSet = preparedStatement.executeQuery()) {
             while (resultSet.next()) {
-                carts.add(mapToCart(resultSet));
+                carts.add(cartMapper.map(resultSet));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to fetch carts", e);
@@ -76,43 +113,36 @@ public class CartRepositoryImpl implements CartRepository {
     }
 
     @Override
-    public Cart save(Cart cart) {
-        boolean isUpdate = false;
-        if (cart.id() != null) {
-            try {
-                findById(cart.id());
-                isUpdate = true;
-            } catch (EntityNotFoundException e) {
-                isUpdate = false;
-            }
+    public Stream<Cart> streamAll(int fetchSize) {
+        String query = "SELECT " + COLUMNS + " FROM Cart";
+        try {
+            return CursorStream.open(readDataSource, query, fetchSize, cartMapper);
+        } catch (SQLException e) {
+            throw new RuntimeException("Не вдалося відкрити курсор кошика", e);
         }
-        
-        String query = isUpdate
-                ? "UPDATE Cart SET user_id = ?, item_id = ?, quantity = ?, subtotal = ?, is_ordered = ? WHERE cart_id = ?"
-                : "INSERT INTO Cart (cart_id, user_id, item_id, quantity, subtotal, is_ordered) VALUES (?, ?, ?, ?, ?, ?)";
-        
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            UUID id = cart.id() == null ? UUID.randomUUID() : cart.id();
-            int index = 1;
-            
-            if (!isUpdate) {
-                preparedStatement.setString(index++, id.toString());
-            }
-            
-            preparedStatement.setString(index++, cart.userId().toString());
-            preparedStatement.setString(index++, cart.itemId().toString());
-            preparedStatement.setInt(index++, cart.quantity());
-            preparedStatement.setDouble(index++, cart.subtotal());
-            preparedStatement.setBoolean(index++, cart.isOrdered());
-            
-            if (isUpdate) {
-                preparedStatement.setString(index, id.toString());
-            }
-            
-            preparedStatement.executeUpdate();
+    }
+
+    @Override
+    public SaveResult<Cart> upsert(Cart cart) {
+        String query = "INSERT INTO Cart (cart_id, user_id, item_id, quantity, subtotal, is_ordered) VALUES (?, ?, ?, ?, ?, ?)"
+                + " ON CONFLICT(cart_id) DO UPDATE SET user_id = excluded.user_id, item_id = excluded.item_id,"
+                + " quantity = excluded.quantity, subtotal = excluded.subtotal, is_ordered = excluded.is_ordered";
+        UUID id = cart.id() == null ? UUID.randomUUID() : cart.id();
+
+        try {
+            SaveResult.Outcome outcome = writeQueue.execute(connection -> {
+                try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+                    codec.setUuid(preparedStatement, 1, id);
+                    codec.setUuid(preparedStatement, 2, cart.userId());
+                    codec.setUuid(preparedStatement, 3, cart.itemId());
+                    preparedStatement.setInt(4, cart.quantity());
+                    preparedStatement.setDouble(5, cart.subtotal());
+                    preparedStatement.setBoolean(6, cart.isOrdered());
+                    return UpsertOutcome.execute(connection, preparedStatement, "Cart");
+                }
+            });
             Cart savedCart = new Cart(id, cart.userId(), cart.itemId(), cart.quantity(), cart.subtotal(), cart.isOrdered());
-            return savedCart;
+            return new SaveResult<>(savedCart, outcome);
         } catch (SQLException e) {
             return null;
         }
@@ -121,26 +151,18 @@ public class CartRepositoryImpl implements CartRepository {
     @Override
     public void deleteById(UUID id) throws EntityNotFoundException {
         String query = "DELETE FROM Cart WHERE cart_id = ?";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, id.toString());
-            int affectedRows = preparedStatement.executeUpdate();
+        try {
+            int affectedRows = writeQueue.execute(connection -> {
+                try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+                    codec.setUuid(preparedStatement, 1, id);
+                    return preparedStatement.executeUpdate();
+                }
+            });
             if (affectedRows == 0) {
                 throw new EntityNotFoundException("Cart with ID " + id + " not found");
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Failed to delete cart with ID " + id, e);
         }
     }
-
-    private Cart mapToCart(ResultSet resultSet) throws SQLException {
-        return new Cart(
-                UUID.fromString(resultSet.getString("cart_id")),
-                UUID.fromString(resultSet.getString("user_id")),
-                UUID.fromString(resultSet.getString("item_id")),
-                resultSet.getInt("quantity"),
-                resultSet.getDouble("subtotal"),
-                resultSet.getBoolean("is_ordered")
-        );
-    }
 }
@@ -1,8 +1,14 @@
 package com.liamtseva.cafepossystem.persistence.repository.impl;
 
 import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
+import com.liamtseva.cafepossystem.persistence.cache.CachingMenuItemRepository;
+import com.liamtseva.cafepossystem.persistence.codec.ColumnCodec;
+import com.liamtseva.cafepossystem.persistence.connection.StatementCache;
+import com.liamtseva.cafepossystem.persistence.connection.WriteQueue;
 import com.liamtseva.cafepossystem.persistence.entity.Category;
+import com.liamtseva.cafepossystem.persistence.mapper.RecordMapper;
 import com.liamtseva.cafepossystem.persistence.repository.contract.CategoryRepository;
+import com.liamtseva.cafepossystem.persistence.repository.contract.SaveResult;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -13,21 +19,34 @@ import java.util.List;
 import java.util.UUID;
 
 public class CategoryRepositoryImpl implements CategoryRepository {
-  private final DataSource dataSource;
+  private static final String COLUMNS = RecordMapper.columnList(Category.class);
+  private final DataSource readDataSource;
+  private final WriteQueue writeQueue;
+  private final ColumnCodec codec;
+  private final RecordMapper<Category> categoryMapper;
+  private final CachingMenuItemRepository menuCatalog;
 
   public CategoryRepositoryImpl(DataSource dataSource) {
-    this.dataSource = dataSource;
+    this(dataSource, dataSource);
+  }
+
+  public CategoryRepositoryImpl(DataSource readDataSource, DataSource writeDataSource) {
+    this.readDataSource = readDataSource;
+    this.writeQueue = WriteQueue.forDataSource(writeDataSource);
+    this.codec = ColumnCodec.forDataSource(readDataSource);
+    this.categoryMapper = RecordMapper.of(Category.class, codec);
+    this.menuCatalog = CachingMenuItemRepository.forDataSources(readDataSource, writeDataSource);
   }
 
   @Override
   public Category findById(UUID id) throws EntityNotFoundException {
-    String query = "SELECT * FROM Categories WHERE category_id = ?";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-      preparedStatement.setString(1, id.toString());
+    String query = "SELECT " + COLUMNS + " FROM Categories WHERE category_id = ?";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+      codec.setUuid(preparedStatement, 1, id);
       try (ResultSet resultSet = preparedStatement.executeQuery()) {
         if (resultSet.next()) {
-          return mapToCategory(resultSet);
+          return categoryMapper.map(resultSet);
         } else {
           throw new EntityNotFoundException("Категорію з ID " + id + " не знайдено");
         }
@@ -39,13 +58,13 @@ public class CategoryRepositoryImpl implements CategoryRepository {
 
   @Override
   public Category findByName(String categoryName) throws EntityNotFoundException {
-    String query = "SELECT * FROM Categories WHERE category_name = ?";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+    String query = "SELECT " + COLUMNS + " FROM Categories WHERE category_name = ?";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
       preparedStatement.setString(1, categoryName);
       try (ResultSet resultSet = preparedStatement.executeQuery()) {
         if (resultSet.next()) {
-          return mapToCategory(resultSet);
+          return categoryMapper.map(resultSet);
         } else {
           throw new EntityNotFoundException("Категорію з назвою " + categoryName + " не знайдено");
         }
@@ -58,12 +77,12 @@ public class CategoryRepositoryImpl implements CategoryRepository {
   @Override
   public List<Category> findAll() {
     List<Category> categories = new ArrayList<>();
-    String query = "SELECT * FROM Categories";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
+    String query = "SELECT " + COLUMNS + " FROM Categories";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query);
         ResultSet resultSet = preparedStatement.executeQuery()) {
       while (resultSet.next()) {
-        categories.add(mapToCategory(resultSet));
+        categories.add(categoryMapper.map(resultSet));
       }
     } catch (SQLException e) {
       e.printStackTrace();
@@ -72,23 +91,21 @@ public class CategoryRepositoryImpl implements CategoryRepository {
   }
 
   @Override
-  public Category save(Category category) {
-    String query = category.id() == null
-        ? "INSERT INTO Categories (category_id, category_name) VALUES (?, ?)"
-        : "UPDATE Categories SET category_name = ? WHERE category_id = ?";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-      UUID id = category.id() == null ? UUID.randomUUID() : category.id();
-      int index = 1;
-      if (category.id() == null) {
-        preparedStatement.setString(index++, id.toString());
-      }
-      preparedStatement.setString(index++, category.categoryName());
-      if (category.id() != null) {
-        preparedStatement.setString(index, id.toString());
-      }
-      preparedStatement.executeUpdate();
-      return new Category(id, category.categoryName());
+  public SaveResult<Category> upsert(Category category) {
+    String query = "INSERT INTO Categories (category_id, category_name) VALUES (?, ?)"
+        + " ON CONFLICT(category_id) DO UPDATE SET category_name = excluded.category_name";
+    UUID id = category.id() == null ? UUID.randomUUID() : category.id();
+    try {
+      SaveResult.Outcome outcome = writeQueue.execute(connection -> {
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+          codec.setUuid(preparedStatement, 1, id);
+          preparedStatement.setString(2, category.categoryName());
+          return UpsertOutcome.execute(connection, preparedStatement, "Categories");
+        }
+      });
+      Category savedCategory = new Category(id, category.categoryName());
+      menuCatalog.categorySaved(savedCategory);
+      return new SaveResult<>(savedCategory, outcome);
     } catch (SQLException e) {
       e.printStackTrace();
       return null;
@@ -98,22 +115,19 @@ public class CategoryRepositoryImpl implements CategoryRepository {
   @Override
   public void deleteById(UUID id) throws EntityNotFoundException {
     String query = "DELETE FROM Categories WHERE category_id = ?";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-      preparedStatement.setString(1, id.toString());
-      int affectedRows = preparedStatement.executeUpdate();
+    try {
+      int affectedRows = writeQueue.execute(connection -> {
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+          codec.setUuid(preparedStatement, 1, id);
+          return preparedStatement.executeUpdate();
+        }
+      });
       if (affectedRows == 0) {
         throw new EntityNotFoundException("Категорію з ID " + id + " не знайдено");
       }
+      menuCatalog.categoryDeleted(id);
     } catch (SQLException e) {
-      e.printStackTrace();
+      throw new RuntimeException("Не вдалося видалити категорію з ID " + id, e);
     }
   }
-
-  private Category mapToCategory(ResultSet resultSet) throws SQLException {
-    return new Category(
-        UUID.fromString(resultSet.getString("category_id")),
-        resultSet.getString("category_name")
-    );
-  }
 }
@@ -1,8 +1,13 @@
 package com.liamtseva.cafepossystem.persistence.repository.impl;
 
 import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
+import com.liamtseva.cafepossystem.persistence.codec.ColumnCodec;
+import com.liamtseva.cafepossystem.persistence.connection.StatementCache;
+import com.liamtseva.cafepossystem.persistence.connection.WriteQueue;
 import com.liamtseva.cafepossystem.persistence.entity.LoyaltyCard;
+import com.liamtseva.cafepossystem.persistence.mapper.RecordMapper;
 import com.liamtseva.cafepossystem.persistence.repository.contract.LoyaltyCardRepository;
+import com.liamtseva.cafepossystem.persistence.repository.contract.SaveResult;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -16,21 +21,34 @@ import java.util.UUID;
 
 public class LoyaltyCardRepositoryImpl implements LoyaltyCardRepository {
 
-    private final DataSource dataSource;
+    private static final String COLUMNS = RecordMapper.columnList(LoyaltyCard.class);
+    private final DataSource readDataSource;
+    private final WriteQueue writeQueue;
+    private final ColumnCodec codec;
+    private final RecordMapper<LoyaltyCard> loyaltyCardMapper;
 
     public LoyaltyCardRepositoryImpl(DataSource dataSource) {
-        this.dataSource = dataSource;
+        this(dataSource, dataSource);
+    }
+
+    public LoyaltyCardRepositoryImpl(DataSource readDataSource, DataSource writeDataSource) {
+        this.readDataSource = readDataSource;
+        this.writeQueue = WriteQueue.forDataSource(writeDataSource);
+        this.codec = ColumnCodec.forDataSource(readDataSource);
+        this.loyaltyCardMapper = RecordMapper.builder(LoyaltyCard.class, codec)
+            .reader("userId", this::readUserId)
+            .build();
     }
 
     @Override
     public LoyaltyCard findById(UUID id) throws EntityNotFoundException {
-        String query = "SELECT * FROM LoyaltyCards WHERE card_id = ?";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, id.toString());
+        String query = "SELECT " + COLUMNS + " FROM LoyaltyCards WHERE card_id = ?";
+        try (Connection connection = readDataSource.getConnection();
+             PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, id);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 if (resultSet.next()) {
-                    return mapToLoyaltyCard(resultSet);
+                    return loyaltyCardMapper.map(resultSet);
                 } else {
                     throw new EntityNotFoundException("Loyalty card with ID " + id + " not found");
                 }
@@ -42,13 +60,13 @@ public class LoyaltyCardRepositoryImpl implements LoyaltyCardRepository {
 
     @Override
     public LoyaltyCard findByUserId(UUID userId) throws EntityNotFoundException {
-        String query = "SELECT * FROM LoyaltyCards WHERE user_id = ?";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, userId.toString());
+        String query = "SELECT " + COLUMNS + " FROM LoyaltyCards WHERE user_id = ?";
+        try (Connection connection = readDataSource.getConnection();
+             PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, userId);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 if (resultSet.next()) {
-                    return mapToLoyaltyCard(resultSet);
+                    return loyaltyCardMapper.map(resultSet);
                 } else {
                     throw new EntityNotFoundException("Loyalty card for user ID " + userId + " not found");
                 }
@@ -61,12 +79,12 @@ public class LoyaltyCardRepositoryImpl implements LoyaltyCardRepository {
     @Override
     public List<LoyaltyCard> findAll() {
         List<LoyaltyCard> loyaltyCards = new ArrayList<>();
-        String query = "SELECT * FROM LoyaltyCards";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query);
+        String query = "SELECT " + COLUMNS + " FROM LoyaltyCards";
+        try (Connection connection = readDataSource.getConnection();
+             PreparedStatement preparedStatement = StatementCache.prepare(connection, query);
              ResultSet resultSet = preparedStatement.executeQuery()) {
             while (resultSet.next()) {
-                loyaltyCards.add(mapToLoyaltyCard(resultSet));
+                loyaltyCards.add(loyaltyCardMapper.map(resultSet));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -75,39 +93,31 @@ public class LoyaltyCardRepositoryImpl implements LoyaltyCardRepository {
     }
 
     @Override
-    public LoyaltyCard save(LoyaltyCard loyaltyCard) {
-    LocalDateTime createdAt = loyaltyCard.createdAt() != null ? loyaltyCard.createdAt() : LocalDateTime.now();
-    String query = loyaltyCard.id() == null
-    ? "INSERT INTO LoyaltyCards (card_id, user_id, card_number, balance, is_active, created_at) VALUES (?, ?, ?, ?, ?, ?)"
-                : "UPDATE LoyaltyCards SET user_id = ?, card_number = ?, balance = ?, is_active = ? WHERE card_id = ?";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            UUID id = loyaltyCard.id() == null ? UUID.randomUUID() : loyaltyCard.id();
-            int index = 1;
-            if (loyaltyCard.id() == null) {
-                preparedStatement.setString(index++, id.toString());
-                if (loyaltyCard.userId() != null) {
-                    preparedStatement.setString(index++, loyaltyCard.userId().toString());
-                } else {
-                    preparedStatement.setObject(index++, null);
-                }
-                preparedStatement.setString(index++, loyaltyCard.cardNumber());
-                preparedStatement.setDouble(index++, loyaltyCard.balance());
-                preparedStatement.setBoolean(index++, loyaltyCard.isActive());
-                preparedStatement.setTimestamp(index, java.sql.Timestamp.valueOf(createdAt));
-            } else {
-                if (loyaltyCard.userId() != null) {
-                    preparedStatement.setString(index++, loyaltyCard.userId().toString());
-                } else {
-                    preparedStatement.setObject(index++, null);
+    public SaveResult<LoyaltyCard> upsert(LoyaltyCard loyaltyCard) {
+        LocalDateTime createdAt = loyaltyCard.createdAt() != null ? loyaltyCard.createdAt() : LocalDateTime.now();
+        // Дата створення картки під час оновлення не змінюється
+        String query = "INSERT INTO LoyaltyCards (card_id, user_id, card_number, balance, is_active, created_at) VALUES (?, ?, ?, ?, ?, ?)"
+                + " ON CONFLICT(card_id) DO UPDATE SET user_id = excluded.user_id, card_number = excluded.card_number,"
+                + " balance = excluded.balance, is_active = excluded.is_active";
+        UUID id = loyaltyCard.id() == null ? UUID.randomUUID() : loyaltyCard.id();
+        try {
+            SaveResult.Outcome outcome = writeQueue.execute(connection -> {
+                try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+                    codec.setUuid(preparedStatement, 1, id);
+                    if (loyaltyCard.userId() != null) {
+                        codec.setUuid(preparedStatement, 2, loyaltyCard.userId());
+                    } else {
+                        preparedStatement.setObject(2, null);
+                    }
+                    preparedStatement.setString(3, loyaltyCard.cardNumber());
+                    preparedStatement.setDouble(4, loyaltyCard.balance());
+                    preparedStatement.setBoolean(5, loyaltyCard.isActive());
+                    preparedStatement.setTimestamp(6, java.sql.Timestamp.valueOf(createdAt));
+                    return UpsertOutcome.execute(connection, preparedStatement, "LoyaltyCards");
                 }
-                preparedStatement.setString(index++, loyaltyCard.cardNumber());
-                preparedStatement.setDouble(index++, loyaltyCard.balance());
-                preparedStatement.setBoolean(index++, loyaltyCard.isActive());
-                preparedStatement.setString(index, id.toString());
-            }
-            preparedStatement.executeUpdate();
-            return new LoyaltyCard(id, loyaltyCard.userId(), loyaltyCard.cardNumber(), loyaltyCard.balance(), loyaltyCard.isActive(), createdAt);
+            });
+            LoyaltyCard savedCard = new LoyaltyCard(id, loyaltyCard.userId(), loyaltyCard.cardNumber(), loyaltyCard.balance(), loyaltyCard.isActive(), createdAt);
+            return new SaveResult<>(savedCard, outcome);
         } catch (SQLException e) {
             e.printStackTrace();
             return null;
@@ -117,35 +127,27 @@ public class LoyaltyCardRepositoryImpl implements LoyaltyCardRepository {
     @Override
     public void deleteById(UUID id) throws EntityNotFoundException {
         String query = "DELETE FROM LoyaltyCards WHERE card_id = ?";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, id.toString());
-            int affectedRows = preparedStatement.executeUpdate();
+        try {
+            int affectedRows = writeQueue.execute(connection -> {
+                try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+                    codec.setUuid(preparedStatement, 1, id);
+                    return preparedStatement.executeUpdate();
+                }
+            });
             if (affectedRows == 0) {
                 throw new EntityNotFoundException("Loyalty card with ID " + id + " not found");
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Failed to delete loyalty card with ID " + id, e);
         }
     }
 
-    private LoyaltyCard mapToLoyaltyCard(ResultSet resultSet) throws SQLException {
-        String userIdStr = resultSet.getString("user_id");
-        UUID userId = null;
+    private UUID readUserId(ResultSet resultSet, int column) throws SQLException {
         try {
-            if (userIdStr != null) {
-                userId = UUID.fromString(userIdStr);
-            }
+            return codec.getUuid(resultSet, column);
         } catch (IllegalArgumentException e) {
-            System.err.println("Попередження: Не вдалося розпарсити невалідний user_id: " + userIdStr);
+            System.err.println("Попередження: Не вдалося розпарсити невалідний user_id: " + resultSet.getString(column));
+            return null;
         }
-        return new LoyaltyCard(
-                UUID.fromString(resultSet.getString("card_id")),
-                userId,
-                resultSet.getString("card_number"),
-                resultSet.getDouble("balance"),
-                resultSet.getBoolean("is_active"),
-                resultSet.getTimestamp("created_at").toLocalDateTime()
-        );
     }
 }
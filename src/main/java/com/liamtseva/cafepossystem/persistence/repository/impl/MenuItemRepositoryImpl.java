@@ -1,34 +1,72 @@
 package com.liamtseva.cafepossystem.persistence.repository.impl;
 
 import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
+import com.liamtseva.cafepossystem.persistence.codec.ColumnCodec;
+import com.liamtseva.cafepossystem.persistence.connection.BatchWriter;
+import com.liamtseva.cafepossystem.persistence.connection.StatementCache;
+import com.liamtseva.cafepossystem.persistence.connection.WriteQueue;
 import com.liamtseva.cafepossystem.persistence.entity.Category;
 import com.liamtseva.cafepossystem.persistence.entity.MenuItem;
+import com.liamtseva.cafepossystem.persistence.entity.MenuItemSummary;
+import com.liamtseva.cafepossystem.persistence.image.ThumbnailPipeline;
+import com.liamtseva.cafepossystem.persistence.mapper.RecordMapper;
 import com.liamtseva.cafepossystem.persistence.repository.contract.MenuItemRepository;
+import com.liamtseva.cafepossystem.persistence.repository.contract.SaveResult;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 public class MenuItemRepositoryImpl implements MenuItemRepository {
-    private final DataSource dataSource;
+    private static final String COLUMNS = RecordMapper.columnList(MenuItem.class);
+    private static final String ALIASED_COLUMNS = RecordMapper.columnList(MenuItem.class, "m");
+    private static final String CATEGORY_COLUMNS = RecordMapper.columnList(Category.class, "c");
+    private static final String SUMMARY_COLUMNS = RecordMapper.columnList(MenuItemSummary.class);
+    private static final String ALIASED_SUMMARY_COLUMNS = RecordMapper.columnList(MenuItemSummary.class, "m");
+    private static final Pattern SEARCH_TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private final DataSource readDataSource;
+    private final WriteQueue writeQueue;
+    private final ColumnCodec codec;
+    private final RecordMapper<MenuItem> menuItemMapper;
+    private final RecordMapper<MenuItemSummary> summaryMapper;
+    private final RecordMapper<Category> categoryMapper;
+    private final ThumbnailPipeline thumbnails;
 
     public MenuItemRepositoryImpl(DataSource dataSource) {
-        this.dataSource = dataSource;
+        this(dataSource, dataSource);
+    }
+
+    public MenuItemRepositoryImpl(DataSource readDataSource, DataSource writeDataSource) {
+        this.readDataSource = readDataSource;
+        this.writeQueue = WriteQueue.forDataSource(writeDataSource);
+        this.codec = ColumnCodec.forDataSource(readDataSource);
+        this.menuItemMapper = RecordMapper.builder(MenuItem.class, codec)
+            .reader("calories", MenuItemRepositoryImpl::readCalories)
+            .build();
+        this.summaryMapper = RecordMapper.builder(MenuItemSummary.class, codec)
+            .reader("calories", MenuItemRepositoryImpl::readCalories)
+            .build();
+        this.categoryMapper = RecordMapper.of(Category.class, codec);
+        this.thumbnails = ThumbnailPipeline.forDataSources(readDataSource, writeDataSource);
     }
 
     @Override
     public MenuItem findById(UUID id) throws EntityNotFoundException {
-        String query = "SELECT * FROM MenuItems WHERE item_id = ?";
-        try (Connection connection = dataSource.getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, id.toString());
+        String query = "SELECT " + COLUMNS + " FROM MenuItems WHERE item_id = ?";
+        try (Connection connection = readDataSource.getConnection();
+            PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, id);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 if (resultSet.next()) {
-                    return mapToMenuItem(resultSet);
+                    return menuItemMapper.map(resultSet);
                 } else {
                     throw new EntityNotFoundException("Елемент меню з ID " + id + " не знайдено");
                 }
@@ -40,13 +78,13 @@ public class MenuItemRepositoryImpl implements MenuItemRepository {
 
     @Override
     public MenuItem findByName(String name) throws EntityNotFoundException {
-        String query = "SELECT * FROM MenuItems WHERE name = ?";
-        try (Connection connection = dataSource.getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+        String query = "SELECT " + COLUMNS + " FROM MenuItems WHERE name = ?";
+        try (Connection connection = readDataSource.getConnection();
+            PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
             preparedStatement.setString(1, name);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 if (resultSet.next()) {
-                    return mapToMenuItem(resultSet);
+                    return menuItemMapper.map(resultSet);
                 } else {
                     throw new EntityNotFoundException("Елемент меню з назвою " + name + " не знайдено");
                 }
@@ -59,12 +97,12 @@ public class MenuItemRepositoryImpl implements MenuItemRepository {
     @Override
     public List<MenuItem> findAll() {
         List<MenuItem> items = new ArrayList<>();
-        String query = "SELECT * FROM MenuItems";
-        try (Connection connection = dataSource.getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(query);
+        String query = "SELECT " + COLUMNS + " FROM MenuItems";
+        try (Connection connection = readDataSource.getConnection();
+            PreparedStatement preparedStatement = StatementCache.prepare(connection, query);
             ResultSet resultSet = preparedStatement.executeQuery()) {
             while (resultSet.next()) {
-                items.add(mapToMenuItem(resultSet));
+                items.add(menuItemMapper.map(resultSet));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -75,13 +113,13 @@ public class MenuItemRepositoryImpl implements MenuItemRepository {
     @Override
     public List<MenuItem> findByCategoryId(UUID categoryId) {
         List<MenuItem> items = new ArrayList<>();
-        String query = "SELECT m.* FROM MenuItems m JOIN ItemCategories ic ON m.item_id = ic.item_id WHERE ic.category_id = ?";
-        try (Connection connection = dataSource.getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, categoryId.toString());
+        String query = "SELECT " + ALIASED_COLUMNS + " FROM MenuItems m JOIN ItemCategories ic ON m.item_id = ic.item_id WHERE ic.category_id = ?";
+        try (Connection connection = readDataSource.getConnection();
+            PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, categoryId);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 while (resultSet.next()) {
-                    items.add(mapToMenuItem(resultSet));
+                    items.add(menuItemMapper.map(resultSet));
                 }
             }
         } catch (SQLException e) {
@@ -93,13 +131,13 @@ public class MenuItemRepositoryImpl implements MenuItemRepository {
     @Override
     public List<MenuItem> findCartItemsByUserId(UUID userId) {
         List<MenuItem> items = new ArrayList<>();
-        String query = "SELECT m.* FROM MenuItems m JOIN Cart c ON m.item_id = c.item_id WHERE c.user_id = ?";
-        try (Connection connection = dataSource.getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, userId.toString());
+        String query = "SELECT " + ALIASED_COLUMNS + " FROM MenuItems m JOIN Cart c ON m.item_id = c.item_id WHERE c.user_id = ?";
+        try (Connection connection = readDataSource.getConnection();
+            PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, userId);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 while (resultSet.next()) {
-                    items.add(mapToMenuItem(resultSet));
+                    items.add(menuItemMapper.map(resultSet));
                 }
             }
         } catch (SQLException e) {
@@ -109,28 +147,174 @@ public class MenuItemRepositoryImpl implements MenuItemRepository {
     }
 
     @Override
-    public MenuItem save(MenuItem menuItem) {
-        String query = menuItem.id() == null
-            ? "INSERT INTO MenuItems (item_id, name, description, price, calories, image, ingredients) VALUES (?, ?, ?, ?, ?, ?, ?)"
-            : "UPDATE MenuItems SET name = ?, description = ?, price = ?, calories = ?, image = ?, ingredients = ? WHERE item_id = ?";
-        try (Connection connection = dataSource.getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            UUID id = menuItem.id() == null ? UUID.randomUUID() : menuItem.id();
-            int index = 1;
-            if (menuItem.id() == null) {
-                preparedStatement.setString(index++, id.toString());
+    public MenuItemSummary findSummaryById(UUID id) throws EntityNotFoundException {
+        String query = "SELECT " + SUMMARY_COLUMNS + " FROM MenuItems WHERE item_id = ?";
+        try (Connection connection = readDataSource.getConnection();
+            PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, id);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    return summaryMapper.map(resultSet);
+                } else {
+                    throw new EntityNotFoundException("Елемент меню з ID " + id + " не знайдено");
+                }
             }
-            preparedStatement.setString(index++, menuItem.name());
-            preparedStatement.setString(index++, menuItem.description());
-            preparedStatement.setDouble(index++, menuItem.price());
-            preparedStatement.setObject(index++, menuItem.calories());
-            preparedStatement.setBytes(index++, menuItem.image());
-            preparedStatement.setString(index++, menuItem.ingredients());
-            if (menuItem.id() != null) {
-                preparedStatement.setString(index, id.toString());
+        } catch (SQLException e) {
+            throw new EntityNotFoundException("Помилка під час пошуку елемента меню з ID " + id, e);
+        }
+    }
+
+    @Override
+    public List<MenuItemSummary> findAllSummaries() {
+        String query = "SELECT " + SUMMARY_COLUMNS + " FROM MenuItems";
+        return findSummaries(query, null);
+    }
+
+    @Override
+    public List<MenuItemSummary> findSummariesByCategoryId(UUID categoryId) {
+        String query = "SELECT " + ALIASED_SUMMARY_COLUMNS + " FROM MenuItems m JOIN ItemCategories ic ON m.item_id = ic.item_id WHERE ic.category_id = ?";
+        return findSummaries(query, categoryId);
+    }
+
+    @Override
+    public List<MenuItemSummary> findCartSummariesByUserId(UUID userId) {
+        // Лише позиції поточного кошика: історія замовлень росте, а кошик лишається малим
+        String query = "SELECT DISTINCT " + ALIASED_SUMMARY_COLUMNS + " FROM MenuItems m JOIN Cart c ON m.item_id = c.item_id"
+            + " WHERE c.user_id = ? AND c.is_ordered = 0";
+        return findSummaries(query, userId);
+    }
+
+    /**
+     * Пошук за назвою, описом і складом через FTS5. Кожне слово запиту шукається як початок слова,
+     * усі слова мають знайтися; збіг у назві важить більше, ніж в описі, а в описі — більше, ніж у складі.
+     */
+    @Override
+    public List<MenuItemSummary> search(String query, int limit) {
+        String match = matchExpression(query);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+        List<MenuItemSummary> items = new ArrayList<>();
+        String sql = "SELECT " + ALIASED_SUMMARY_COLUMNS + " FROM MenuItemSearch s JOIN MenuItems m ON m.rowid = s.rowid"
+            + " WHERE MenuItemSearch MATCH ? ORDER BY bm25(MenuItemSearch, 10.0, 3.0, 1.0) LIMIT ?";
+        try (Connection connection = readDataSource.getConnection();
+            PreparedStatement preparedStatement = StatementCache.prepare(connection, sql)) {
+            preparedStatement.setString(1, match);
+            preparedStatement.setInt(2, limit);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    items.add(summaryMapper.map(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return items;
+    }
+
+    // Слова беруться в лапки: так оператори FTS5 (AND, NEAR, -, ^) у введеному тексті не діють
+    private static String matchExpression(String query) {
+        StringJoiner terms = new StringJoiner(" ");
+        for (String term : SEARCH_TERM_SEPARATOR.split(query == null ? "" : query)) {
+            if (!term.isEmpty()) {
+                terms.add("\"" + term + "\"*");
+            }
+        }
+        return terms.length() == 0 ? null : terms.toString();
+    }
+
+    @Override
+    public byte[] loadImage(UUID itemId) {
+        String query = "SELECT image FROM MenuItems WHERE item_id = ?";
+        try (Connection connection = readDataSource.getConnection();
+            PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, itemId);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? resultSet.getBytes(1) : null;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public byte[] loadThumbnail(UUID itemId) {
+        // Оригінал читається, лише поки мініатюру ще не створено
+        String query = "SELECT coalesce(t.thumbnail, m.image) FROM MenuItems m"
+            + " LEFT JOIN MenuItemThumbnails t ON t.item_id = m.item_id WHERE m.item_id = ?";
+        try (Connection connection = readDataSource.getConnection();
+            PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, itemId);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? resultSet.getBytes(1) : null;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public long findCatalogVersion() {
+        String query = "SELECT version FROM CatalogVersion WHERE id = 1";
+        try (Connection connection = readDataSource.getConnection();
+            PreparedStatement preparedStatement = StatementCache.prepare(connection, query);
+            ResultSet resultSet = preparedStatement.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : -1;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    private List<MenuItemSummary> findSummaries(String query, UUID parameter) {
+        List<MenuItemSummary> items = new ArrayList<>();
+        try (Connection connection = readDataSource.getConnection();
+            PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            if (parameter != null) {
+                codec.setUuid(preparedStatement, 1, parameter);
+            }
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    items.add(summaryMapper.map(resultSet));
+                }
             }
-            preparedStatement.executeUpdate();
-            return new MenuItem(id, menuItem.name(), menuItem.description(), menuItem.price(), menuItem.calories(), menuItem.image(), menuItem.ingredients());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return items;
+    }
+
+    @Override
+    public SaveResult<MenuItem> upsert(MenuItem menuItem) {
+        String query = "INSERT INTO MenuItems (item_id, name, description, price, calories, image, ingredients) VALUES (?, ?, ?, ?, ?, ?, ?)"
+            + " ON CONFLICT(item_id) DO UPDATE SET name = excluded.name, description = excluded.description,"
+            + " price = excluded.price, calories = excluded.calories, image = excluded.image, ingredients = excluded.ingredients";
+        UUID id = menuItem.id() == null ? UUID.randomUUID() : menuItem.id();
+        try {
+            SaveResult.Outcome outcome = writeQueue.execute(connection -> {
+                SaveResult.Outcome written;
+                try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+                    codec.setUuid(preparedStatement, 1, id);
+                    preparedStatement.setString(2, menuItem.name());
+                    preparedStatement.setString(3, menuItem.description());
+                    preparedStatement.setDouble(4, menuItem.price());
+                    preparedStatement.setObject(5, menuItem.calories());
+                    preparedStatement.setBytes(6, menuItem.image());
+                    preparedStatement.setString(7, menuItem.ingredients());
+                    written = UpsertOutcome.execute(connection, preparedStatement, "MenuItems");
+                }
+                if (menuItem.image() == null) {
+                    thumbnails.delete(connection, id);
+                }
+                return written;
+            });
+            if (menuItem.image() != null) {
+                thumbnails.submit(id, menuItem.image());
+            }
+            MenuItem savedMenuItem = new MenuItem(id, menuItem.name(), menuItem.description(), menuItem.price(), menuItem.calories(), menuItem.image(), menuItem.ingredients());
+            return new SaveResult<>(savedMenuItem, outcome);
         } catch (SQLException e) {
             e.printStackTrace();
             return null;
@@ -140,44 +324,33 @@ public class MenuItemRepositoryImpl implements MenuItemRepository {
     @Override
     public void deleteById(UUID id) throws EntityNotFoundException {
         String query = "DELETE FROM MenuItems WHERE item_id = ?";
-        try (Connection connection = dataSource.getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, id.toString());
-            int affectedRows = preparedStatement.executeUpdate();
+        try {
+            // Мініатюру видаляє каскад зовнішнього ключа MenuItemThumbnails (V5)
+            int affectedRows = writeQueue.execute(connection -> {
+                try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+                    codec.setUuid(preparedStatement, 1, id);
+                    return preparedStatement.executeUpdate();
+                }
+            });
             if (affectedRows == 0) {
                 throw new EntityNotFoundException("Елемент меню з ID " + id + " не знайдено");
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Не вдалося видалити елемент меню з ID " + id, e);
         }
     }
-
-    private MenuItem mapToMenuItem(ResultSet resultSet) throws SQLException {
-        return new MenuItem(
-            UUID.fromString(resultSet.getString("item_id")),
-            resultSet.getString("name"),
-            resultSet.getString("description"),
-            resultSet.getDouble("price"),
-            resultSet.getInt("calories") == 0 ? null : resultSet.getInt("calories"),
-            resultSet.getBytes("image"),
-            resultSet.getString("ingredients")
-        );
-    }
     @Override
     public List<Category> findCategoriesByItemId(UUID itemId) {
         List<Category> categories = new ArrayList<>();
-        String query = "SELECT c.* FROM Categories c " +
+        String query = "SELECT " + CATEGORY_COLUMNS + " FROM Categories c " +
                        "JOIN ItemCategories ic ON c.category_id = ic.category_id " +
                        "WHERE ic.item_id = ?";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, itemId.toString());
+        try (Connection connection = readDataSource.getConnection();
+             PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, itemId);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 while (resultSet.next()) {
-                    categories.add(new Category(
-                        UUID.fromString(resultSet.getString("category_id")),
-                        resultSet.getString("category_name")
-                    ));
+                    categories.add(categoryMapper.map(resultSet));
                 }
             }
         } catch (SQLException e) {
@@ -186,33 +359,76 @@ public class MenuItemRepositoryImpl implements MenuItemRepository {
         return categories;
     }
     @Override
-    public void saveItemCategories(UUID itemId, List<UUID> categoryIds) {
-        String query = "INSERT INTO ItemCategories (item_id, category_id) VALUES (?, ?)";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            for (UUID categoryId : categoryIds) {
-                preparedStatement.setString(1, itemId.toString());
-                preparedStatement.setString(2, categoryId.toString());
-                preparedStatement.executeUpdate();
+    public Map<UUID, List<Category>> findAllItemCategories() {
+        Map<UUID, List<Category>> categories = new HashMap<>();
+        // Мапер читає стовпці за позицією, тож item_id іде після стовпців категорії
+        String query = "SELECT " + CATEGORY_COLUMNS + ", ic.item_id FROM Categories c " +
+                       "JOIN ItemCategories ic ON c.category_id = ic.category_id";
+        try (Connection connection = readDataSource.getConnection();
+             PreparedStatement preparedStatement = StatementCache.prepare(connection, query);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+                categories.computeIfAbsent(codec.getUuid(resultSet, "item_id"), id -> new ArrayList<>())
+                    .add(categoryMapper.map(resultSet));
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return categories;
+    }
+    @Override
+    public void saveItemCategories(UUID itemId, List<UUID> categoryIds) {
+        try {
+            writeQueue.execute(connection -> {
+                insertItemCategories(connection, itemId, categoryIds);
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
     }
     @Override
     public void deleteItemCategories(UUID itemId) {
-        String query = "DELETE FROM ItemCategories WHERE item_id = ?";
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, itemId.toString());
-            preparedStatement.executeUpdate();
+        try {
+            writeQueue.execute(connection -> {
+                removeItemCategories(connection, itemId);
+                return null;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
     @Override
     public void updateItemCategories(UUID itemId, List<UUID> categoryIds) {
-        deleteItemCategories(itemId);
-        saveItemCategories(itemId, categoryIds);
+        try {
+            writeQueue.execute(connection -> {
+                removeItemCategories(connection, itemId);
+                insertItemCategories(connection, itemId, categoryIds);
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void insertItemCategories(Connection connection, UUID itemId, List<UUID> categoryIds) throws SQLException {
+        String query = "INSERT INTO ItemCategories (item_id, category_id) VALUES (?, ?)";
+        BatchWriter.executeBatch(connection, query, categoryIds, (preparedStatement, categoryId) -> {
+            codec.setUuid(preparedStatement, 1, itemId);
+            codec.setUuid(preparedStatement, 2, categoryId);
+        });
+    }
+
+    private void removeItemCategories(Connection connection, UUID itemId) throws SQLException {
+        String query = "DELETE FROM ItemCategories WHERE item_id = ?";
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+            codec.setUuid(preparedStatement, 1, itemId);
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    private static Integer readCalories(ResultSet resultSet, int column) throws SQLException {
+        int calories = resultSet.getInt(column);
+        return calories == 0 ? null : calories;
     }
 }
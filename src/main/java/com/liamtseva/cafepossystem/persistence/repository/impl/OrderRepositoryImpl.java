@@ -1,34 +1,72 @@
 package com.liamtseva.cafepossystem.persistence.repository.impl;
 
 import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
+import com.liamtseva.cafepossystem.persistence.cache.TableOccupancyRegistry;
+import com.liamtseva.cafepossystem.persistence.codec.ColumnCodec;
+import com.liamtseva.cafepossystem.persistence.connection.BatchWriter;
+import com.liamtseva.cafepossystem.persistence.connection.CursorStream;
+import com.liamtseva.cafepossystem.persistence.connection.StatementCache;
+import com.liamtseva.cafepossystem.persistence.connection.WriteQueue;
 import com.liamtseva.cafepossystem.persistence.entity.Order;
+import com.liamtseva.cafepossystem.persistence.entity.OrderLine;
 import com.liamtseva.cafepossystem.persistence.entity.enums.OrderStatus;
+import com.liamtseva.cafepossystem.persistence.mapper.RecordMapper;
 import com.liamtseva.cafepossystem.persistence.repository.contract.OrderRepository;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public class OrderRepositoryImpl implements OrderRepository {
-  private final DataSource dataSource;
+  private static final String COLUMNS = RecordMapper.columnList(Order.class);
+  // Формат з фіксованою довжиною: текстове сортування збігається з хронологічним (див. міграцію V4)
+  public static final DateTimeFormatter ORDER_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+  // Лише стовпці до зображення: SQLite не читає сторінки переповнення з байтами фото
+  private static final String ORDER_LINES = "SELECT oc.order_id, c.cart_id, c.item_id, m.name, c.quantity, c.subtotal"
+      + " FROM OrderCartItems oc"
+      + " JOIN Cart c ON c.cart_id = oc.cart_id"
+      + " LEFT JOIN MenuItems m ON m.item_id = c.item_id"
+      + " WHERE oc.order_id ";
+  // Сталий розмір пакета ID, щоб текст запиту не змінювався і підготовлений запит брався з кешу
+  private static final int ORDER_LINES_BATCH = 100;
+  private final DataSource readDataSource;
+  private final WriteQueue writeQueue;
+  private final ColumnCodec codec;
+  private final RecordMapper<Order> orderMapper;
+  private final RecordMapper<OrderLine> orderLineMapper;
+  private final TableOccupancyRegistry tableOccupancy;
 
   public OrderRepositoryImpl(DataSource dataSource) {
-    this.dataSource = dataSource;
+    this(dataSource, dataSource);
+  }
+
+  public OrderRepositoryImpl(DataSource readDataSource, DataSource writeDataSource) {
+    this.readDataSource = readDataSource;
+    this.writeQueue = WriteQueue.forDataSource(writeDataSource);
+    this.codec = ColumnCodec.forDataSource(readDataSource);
+    this.orderMapper = RecordMapper.of(Order.class, codec);
+    this.orderLineMapper = RecordMapper.of(OrderLine.class, codec);
+    this.tableOccupancy = TableOccupancyRegistry.forDataSource(readDataSource);
   }
 
   @Override
   public Order findById(UUID id) throws EntityNotFoundException {
-    String query = "SELECT * FROM Orders WHERE order_id = ?";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-      preparedStatement.setString(1, id.toString());
+    String query = "SELECT " + COLUMNS + " FROM Orders WHERE order_id = ?";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+      codec.setUuid(preparedStatement, 1, id);
       try (ResultSet resultSet = preparedStatement.executeQuery()) {
         if (resultSet.next()) {
-          return mapToOrder(resultSet);
+          return orderMapper.map(resultSet);
         } else {
           throw new EntityNotFoundException("Замовлення з ID " + id + " не знайдено");
         }
@@ -41,12 +79,12 @@ public class OrderRepositoryImpl implements OrderRepository {
   @Override
   public List<Order> findAll() {
     List<Order> orders = new ArrayList<>();
-    String query = "SELECT * FROM Orders";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
+    String query = "SELECT " + COLUMNS + " FROM Orders";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query);
         ResultSet resultSet = preparedStatement.executeQuery()) {
       while (resultSet.next()) {
-        orders.add(mapToOrder(resultSet));
+        orders.add(orderMapper.map(resultSet));
       }
     } catch (SQLException e) {
       throw new RuntimeException("Не вдалося отримати список замовлень", e);
@@ -54,16 +92,52 @@ public class OrderRepositoryImpl implements OrderRepository {
     return orders;
   }
 
+  @Override
+  public Stream<Order> streamAll(int fetchSize) {
+    String query = "SELECT " + COLUMNS + " FROM Orders";
+    try {
+      return CursorStream.open(readDataSource, query, fetchSize, orderMapper);
+    } catch (SQLException e) {
+      throw new RuntimeException("Не вдалося відкрити курсор замовлень", e);
+    }
+  }
+
+  @Override
+  public List<Order> findPageAfter(Order after, int limit) {
+    List<Order> orders = new ArrayList<>();
+    String query = after == null
+        ? "SELECT " + COLUMNS + " FROM Orders ORDER BY order_date, order_id LIMIT ?"
+        : "SELECT " + COLUMNS + " FROM Orders WHERE (order_date, order_id) > (?, ?)"
+            + " ORDER BY order_date, order_id LIMIT ?";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+      int index = 1;
+      if (after != null) {
+        preparedStatement.setString(index++, after.orderDate().format(ORDER_DATE_FORMATTER));
+        codec.setUuid(preparedStatement, index++, after.id());
+      }
+      preparedStatement.setInt(index, limit);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          orders.add(orderMapper.map(resultSet));
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Не вдалося отримати сторінку замовлень", e);
+    }
+    return orders;
+  }
+
   @Override
   public List<String> findCartIdsByOrderId(UUID orderId) {
     List<String> cartIds = new ArrayList<>();
-    String query = "SELECT cart_id FROM OrderCartItems WHERE order_id = ?";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-      preparedStatement.setString(1, orderId.toString());
+    String query = "SELECT cart_id FROM OrderCartItems WHERE order_id = ? ORDER BY rowid";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+      codec.setUuid(preparedStatement, 1, orderId);
       try (ResultSet resultSet = preparedStatement.executeQuery()) {
         while (resultSet.next()) {
-          cartIds.add(resultSet.getString("cart_id"));
+          cartIds.add(codec.getUuid(resultSet, "cart_id").toString());
         }
       }
     } catch (SQLException e) {
@@ -71,21 +145,70 @@ public class OrderRepositoryImpl implements OrderRepository {
     }
     return cartIds;
   }
+
+  @Override
+  public List<OrderLine> findOrderLines(UUID orderId) {
+    List<OrderLine> lines = new ArrayList<>();
+    String query = ORDER_LINES + "= ? ORDER BY oc.rowid";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+      codec.setUuid(preparedStatement, 1, orderId);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          lines.add(orderLineMapper.map(resultSet));
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Не вдалося отримати позиції замовлення " + orderId, e);
+    }
+    return lines;
+  }
+
+  @Override
+  public Map<UUID, List<OrderLine>> findOrderLines(Collection<UUID> orderIds) {
+    Map<UUID, List<OrderLine>> linesByOrder = new LinkedHashMap<>();
+    for (UUID orderId : orderIds) {
+      linesByOrder.putIfAbsent(orderId, new ArrayList<>());
+    }
+    if (linesByOrder.isEmpty()) {
+      return linesByOrder;
+    }
+    List<UUID> ids = new ArrayList<>(linesByOrder.keySet());
+    String query = ORDER_LINES + "IN (" + "?, ".repeat(ORDER_LINES_BATCH - 1) + "?) ORDER BY oc.rowid";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+      for (int from = 0; from < ids.size(); from += ORDER_LINES_BATCH) {
+        for (int i = 0; i < ORDER_LINES_BATCH; i++) {
+          // Неповний пакет добивається останнім ID: повтор у IN результату не змінює
+          codec.setUuid(preparedStatement, i + 1, ids.get(Math.min(from + i, ids.size() - 1)));
+        }
+        try (ResultSet resultSet = preparedStatement.executeQuery()) {
+          while (resultSet.next()) {
+            OrderLine line = orderLineMapper.map(resultSet);
+            linesByOrder.get(line.orderId()).add(line);
+          }
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Не вдалося отримати позиції для " + ids.size() + " замовлень", e);
+    }
+    return linesByOrder;
+  }
   @Override
   public List<Order> findByUserId(UUID userId) {
     List<Order> orders = new ArrayList<>();
 
       String query =
-        "SELECT * FROM Orders WHERE user_id = ?";
+        "SELECT " + COLUMNS + " FROM Orders WHERE user_id = ?";
 
-    try (Connection connection = dataSource.getConnection();
-         PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+    try (Connection connection = readDataSource.getConnection();
+         PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
 
-        preparedStatement.setString(1, userId.toString());
+        codec.setUuid(preparedStatement, 1, userId);
 
         try (ResultSet resultSet = preparedStatement.executeQuery()) {
             while (resultSet.next()) {
-                orders.add(mapToOrder(resultSet));
+                orders.add(orderMapper.map(resultSet));
             }
         }
     } catch (SQLException e) {
@@ -94,44 +217,54 @@ public class OrderRepositoryImpl implements OrderRepository {
 
     return orders;
   }
+  @Override
+  public List<Order> findActive() {
+    List<Order> orders = new ArrayList<>();
+    String query = "SELECT " + COLUMNS + " FROM Orders WHERE status IN (?, ?)";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+      codec.setEnum(preparedStatement, 1, OrderStatus.PENDING);
+      codec.setEnum(preparedStatement, 2, OrderStatus.CONFIRMED);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          orders.add(orderMapper.map(resultSet));
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Не вдалося отримати активні замовлення", e);
+    }
+    return orders;
+  }
+
   @Override
   public Order create(Order order, List<String> cartIds) {
     String query = "INSERT INTO Orders (order_id, user_id, order_date, total_amount, bonuses_earned, bonuses_used, status, notes, is_social, table_number) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-    try (Connection connection = dataSource.getConnection()) {
-      connection.setAutoCommit(false);
-      try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-        preparedStatement.setString(1, order.id().toString());
-        preparedStatement.setString(2, order.userId().toString());
-        preparedStatement.setTimestamp(3, java.sql.Timestamp.valueOf(order.orderDate()));
-        preparedStatement.setDouble(4, order.totalAmount());
-        preparedStatement.setDouble(5, order.bonusesEarned());
-        preparedStatement.setDouble(6, order.bonusesUsed());
-        preparedStatement.setString(7, order.status().name());
-        preparedStatement.setString(8, order.notes());
-        preparedStatement.setBoolean(9, order.isSocial());
-        preparedStatement.setObject(10, order.tableNumber());
-        int affectedRows = preparedStatement.executeUpdate();
-        if (affectedRows > 0) {
-            if (cartIds != null && !cartIds.isEmpty()) {
-            String linkQuery = "INSERT INTO OrderCartItems (order_id, cart_id) VALUES (?, ?)";
-            try (PreparedStatement linkStatement = connection.prepareStatement(linkQuery)) {
-              for (String cartId : cartIds) {
-                linkStatement.setString(1, order.id().toString());
-                linkStatement.setString(2, cartId);
-                linkStatement.executeUpdate();
-              }
-            }
-          }
-          connection.commit();
-          return order;
-        } else {
-          connection.rollback();
-          return null;
+    try {
+      int affectedRows = writeQueue.execute(connection -> {
+        int inserted;
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+          codec.setUuid(preparedStatement, 1, order.id());
+          codec.setUuid(preparedStatement, 2, order.userId());
+          preparedStatement.setString(3, order.orderDate().format(ORDER_DATE_FORMATTER));
+          preparedStatement.setDouble(4, order.totalAmount());
+          preparedStatement.setDouble(5, order.bonusesEarned());
+          preparedStatement.setDouble(6, order.bonusesUsed());
+          codec.setEnum(preparedStatement, 7, order.status());
+          preparedStatement.setString(8, order.notes());
+          preparedStatement.setBoolean(9, order.isSocial());
+          preparedStatement.setObject(10, order.tableNumber());
+          inserted = preparedStatement.executeUpdate();
+        }
+        if (inserted > 0) {
+          insertCartLinks(connection, order.id(), cartIds);
         }
-      } catch (SQLException e) {
-        connection.rollback();
+        return inserted;
+      });
+      if (affectedRows == 0) {
         return null;
       }
+      tableOccupancy.track(order);
+      return order;
     } catch (SQLException e) {
       return null;
     }
@@ -139,91 +272,93 @@ public class OrderRepositoryImpl implements OrderRepository {
 
   @Override
   public Order update(Order order, List<String> cartIds) throws EntityNotFoundException {
-    String query = "UPDATE Orders SET user_id = ?, order_date = ?, total_amount = ?, bonuses_earned = ?, bonuses_used = ?, status = ?, notes = ?, is_social = ?, table_number = ? WHERE order_id = ?";
-    try (Connection connection = dataSource.getConnection()) {
-      connection.setAutoCommit(false);
-      try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-        preparedStatement.setString(1, order.userId().toString());
-        preparedStatement.setTimestamp(2, java.sql.Timestamp.valueOf(order.orderDate()));
-        preparedStatement.setDouble(3, order.totalAmount());
-        preparedStatement.setDouble(4, order.bonusesEarned());
-        preparedStatement.setDouble(5, order.bonusesUsed());
-        preparedStatement.setString(6, order.status().name());
-        preparedStatement.setString(7, order.notes());
-        preparedStatement.setBoolean(8, order.isSocial());
-        preparedStatement.setObject(9, order.tableNumber());
-        preparedStatement.setString(10, order.id().toString());
-        int affectedRows = preparedStatement.executeUpdate();
-        if (affectedRows == 0) {
-          connection.rollback();
-          throw new EntityNotFoundException("Замовлення з ID " + order.id() + " не знайдено");
-        }
-          String deleteLinksQuery = "DELETE FROM OrderCartItems WHERE order_id = ?";
-        try (PreparedStatement deleteStatement = connection.prepareStatement(deleteLinksQuery)) {
-          deleteStatement.setString(1, order.id().toString());
-          deleteStatement.executeUpdate();
-        }
-        if (cartIds != null && !cartIds.isEmpty()) {
-          String linkQuery = "INSERT INTO OrderCartItems (order_id, cart_id) VALUES (?, ?)";
-          try (PreparedStatement linkStatement = connection.prepareStatement(linkQuery)) {
-            for (String cartId : cartIds) {
-              linkStatement.setString(1, order.id().toString());
-              linkStatement.setString(2, cartId);
-              linkStatement.executeUpdate();
-            }
-          }
+    int affectedRows;
+    try {
+      affectedRows = writeQueue.execute(connection -> {
+        int updated = updateOrderRow(connection, order);
+        if (updated > 0) {
+          deleteCartLinks(connection, order.id());
+          insertCartLinks(connection, order.id(), cartIds);
         }
-        connection.commit();
-        return order;
-      } catch (SQLException e) {
-        connection.rollback();
-        return null;
-      }
+        return updated;
+      });
+    } catch (SQLException e) {
+      return null;
+    }
+    if (affectedRows == 0) {
+      throw new EntityNotFoundException("Замовлення з ID " + order.id() + " не знайдено");
+    }
+    tableOccupancy.track(order);
+    return order;
+  }
+
+  // Зв'язки з позиціями не перезаписуються, тож порядок позицій (rowid OrderCartItems) зберігається
+  @Override
+  public Order update(Order order) throws EntityNotFoundException {
+    int affectedRows;
+    try {
+      affectedRows = writeQueue.execute(connection -> updateOrderRow(connection, order));
     } catch (SQLException e) {
       return null;
     }
+    if (affectedRows == 0) {
+      throw new EntityNotFoundException("Замовлення з ID " + order.id() + " не знайдено");
+    }
+    tableOccupancy.track(order);
+    return order;
   }
 
   @Override
   public void deleteById(UUID id) throws EntityNotFoundException {
-    try (Connection connection = dataSource.getConnection()) {
-      connection.setAutoCommit(false);
-        try {
-        String deleteLinksQuery = "DELETE FROM OrderCartItems WHERE order_id = ?";
-        try (PreparedStatement deleteStatement = connection.prepareStatement(deleteLinksQuery)) {
-          deleteStatement.setString(1, id.toString());
-          deleteStatement.executeUpdate();
-        }
+    int affectedRows;
+    try {
+      affectedRows = writeQueue.execute(connection -> {
+        deleteCartLinks(connection, id);
         String query = "DELETE FROM Orders WHERE order_id = ?";
-        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-          preparedStatement.setString(1, id.toString());
-          int affectedRows = preparedStatement.executeUpdate();
-          if (affectedRows == 0) {
-            connection.rollback();
-            throw new EntityNotFoundException("Замовлення з ID " + id + " не знайдено");
-          }
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+          codec.setUuid(preparedStatement, 1, id);
+          return preparedStatement.executeUpdate();
         }
-        connection.commit();
-      } catch (SQLException e) {
-        connection.rollback();
-        throw new EntityNotFoundException("Помилка при видаленні замовлення з ID " + id, e);
-      }
+      });
     } catch (SQLException e) {
-      throw new EntityNotFoundException("Помилка транзакції при видаленні замовлення з ID " + id, e);
-    }
-  }
-  private Order mapToOrder(ResultSet resultSet) throws SQLException {
-    return new Order(
-        UUID.fromString(resultSet.getString("order_id")),
-        UUID.fromString(resultSet.getString("user_id")),
-        resultSet.getTimestamp("order_date").toLocalDateTime(),
-        resultSet.getDouble("total_amount"),
-        resultSet.getDouble("bonuses_earned"),
-        resultSet.getDouble("bonuses_used"),
-        OrderStatus.valueOf(resultSet.getString("status")),
-        resultSet.getString("notes"),
-        resultSet.getBoolean("is_social"),
-        (Integer) resultSet.getObject("table_number")
-    );
+      throw new EntityNotFoundException("Помилка при видаленні замовлення з ID " + id, e);
+    }
+    if (affectedRows == 0) {
+      throw new EntityNotFoundException("Замовлення з ID " + id + " не знайдено");
+    }
+    tableOccupancy.forget(id);
+  }
+
+  private int updateOrderRow(Connection connection, Order order) throws SQLException {
+    String query = "UPDATE Orders SET user_id = ?, order_date = ?, total_amount = ?, bonuses_earned = ?, bonuses_used = ?, status = ?, notes = ?, is_social = ?, table_number = ? WHERE order_id = ?";
+    try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+      codec.setUuid(preparedStatement, 1, order.userId());
+      preparedStatement.setString(2, order.orderDate().format(ORDER_DATE_FORMATTER));
+      preparedStatement.setDouble(3, order.totalAmount());
+      preparedStatement.setDouble(4, order.bonusesEarned());
+      preparedStatement.setDouble(5, order.bonusesUsed());
+      codec.setEnum(preparedStatement, 6, order.status());
+      preparedStatement.setString(7, order.notes());
+      preparedStatement.setBoolean(8, order.isSocial());
+      preparedStatement.setObject(9, order.tableNumber());
+      codec.setUuid(preparedStatement, 10, order.id());
+      return preparedStatement.executeUpdate();
+    }
+  }
+
+  private void insertCartLinks(Connection connection, UUID orderId, List<String> cartIds) throws SQLException {
+    String linkQuery = "INSERT INTO OrderCartItems (order_id, cart_id) VALUES (?, ?)";
+    BatchWriter.executeBatch(connection, linkQuery, cartIds, (linkStatement, cartId) -> {
+      codec.setUuid(linkStatement, 1, orderId);
+      codec.setUuid(linkStatement, 2, UUID.fromString(cartId));
+    });
+  }
+
+  private void deleteCartLinks(Connection connection, UUID orderId) throws SQLException {
+    String deleteLinksQuery = "DELETE FROM OrderCartItems WHERE order_id = ?";
+    try (PreparedStatement deleteStatement = StatementCache.prepare(connection, deleteLinksQuery)) {
+      codec.setUuid(deleteStatement, 1, orderId);
+      deleteStatement.executeUpdate();
+    }
   }
 }
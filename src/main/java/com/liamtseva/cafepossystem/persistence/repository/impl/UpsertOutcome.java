@@ -0,0 +1,40 @@
+package com.liamtseva.cafepossystem.persistence.repository.impl;
+
+import com.liamtseva.cafepossystem.persistence.repository.contract.SaveResult;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteUpdateListener;
+
+/**
+ * Виконує UPSERT одним запитом і повідомляє, вставив він рядок чи оновив.
+ *
+ * <p>Сам запит цього не каже: {@code changes()} дорівнює 1 в обох випадках, а
+ * {@code last_insert_rowid()} спільний для всіх таблиць з'єднання. Тому на час виконання на
+ * з'єднання письменника ставиться хук змін SQLite ({@code sqlite3_update_hook}), який отримує
+ * вид зміни кожного рядка. Зміни, зроблені тригерами в інших таблицях, відкидаються за назвою.
+ */
+final class UpsertOutcome {
+
+  private UpsertOutcome() {
+  }
+
+  static SaveResult.Outcome execute(Connection connection, PreparedStatement statement, String table)
+      throws SQLException {
+    SQLiteConnection physical = connection.unwrap(SQLiteConnection.class);
+    boolean[] inserted = new boolean[1];
+    SQLiteUpdateListener listener = (type, database, changedTable, rowId) -> {
+      if (type == SQLiteUpdateListener.Type.INSERT && table.equalsIgnoreCase(changedTable)) {
+        inserted[0] = true;
+      }
+    };
+    physical.addUpdateListener(listener);
+    try {
+      statement.executeUpdate();
+    } finally {
+      physical.removeUpdateListener(listener);
+    }
+    return inserted[0] ? SaveResult.Outcome.INSERTED : SaveResult.Outcome.UPDATED;
+  }
+}
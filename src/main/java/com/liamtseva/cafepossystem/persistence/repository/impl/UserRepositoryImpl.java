@@ -1,8 +1,13 @@
 package com.liamtseva.cafepossystem.persistence.repository.impl;
 
 import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
+import com.liamtseva.cafepossystem.persistence.codec.ColumnCodec;
+import com.liamtseva.cafepossystem.persistence.connection.CursorStream;
+import com.liamtseva.cafepossystem.persistence.connection.StatementCache;
+import com.liamtseva.cafepossystem.persistence.connection.WriteQueue;
 import com.liamtseva.cafepossystem.persistence.entity.User;
 import com.liamtseva.cafepossystem.persistence.entity.enums.Role;
+import com.liamtseva.cafepossystem.persistence.mapper.RecordMapper;
 import com.liamtseva.cafepossystem.persistence.repository.contract.UserRepository;
 import java.time.format.DateTimeFormatter;
 import javax.sql.DataSource;
@@ -15,23 +20,37 @@ import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public class UserRepositoryImpl implements UserRepository {
-  private final DataSource dataSource;
+  private static final String COLUMNS = RecordMapper.columnList(User.class);
+  private final DataSource readDataSource;
+  private final WriteQueue writeQueue;
+  private final ColumnCodec codec;
+  private final RecordMapper<User> userMapper;
   private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
   public UserRepositoryImpl(DataSource dataSource) {
-    this.dataSource = dataSource;
+    this(dataSource, dataSource);
+  }
+
+  public UserRepositoryImpl(DataSource readDataSource, DataSource writeDataSource) {
+    this.readDataSource = readDataSource;
+    this.writeQueue = WriteQueue.forDataSource(writeDataSource);
+    this.codec = ColumnCodec.forDataSource(readDataSource);
+    this.userMapper = RecordMapper.builder(User.class, codec)
+        .reader("createdAt", UserRepositoryImpl::readCreatedAt)
+        .build();
   }
 
   @Override
   public User findById(UUID id) throws EntityNotFoundException {
-    String query = "SELECT * FROM Users WHERE user_id = ?";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-      preparedStatement.setString(1, id.toString());
+    String query = "SELECT " + COLUMNS + " FROM Users WHERE user_id = ?";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+      codec.setUuid(preparedStatement, 1, id);
       try (ResultSet resultSet = preparedStatement.executeQuery()) {
         if (resultSet.next()) {
-          return mapToUser(resultSet);
+          return userMapper.map(resultSet);
         } else {
           throw new EntityNotFoundException("Користувача з ID " + id + " не знайдено");
         }
@@ -43,13 +62,13 @@ public class UserRepositoryImpl implements UserRepository {
 
   @Override
   public User findByUsername(String username) throws EntityNotFoundException {
-    String query = "SELECT * FROM Users WHERE username = ?";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+    String query = "SELECT " + COLUMNS + " FROM Users WHERE username = ?";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
       preparedStatement.setString(1, username);
       try (ResultSet resultSet = preparedStatement.executeQuery()) {
         if (resultSet.next()) {
-          return mapToUser(resultSet);
+          return userMapper.map(resultSet);
         } else {
           throw new EntityNotFoundException("Користувача з ім'ям " + username + " не знайдено");
         }
@@ -62,12 +81,12 @@ public class UserRepositoryImpl implements UserRepository {
   @Override
   public List<User> findAll() {
     List<User> users = new ArrayList<>();
-    String query = "SELECT * FROM Users";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
+    String query = "SELECT " + COLUMNS + " FROM Users";
+    try (Connection connection = readDataSource.getConnection();
+        PreparedStatement preparedStatement = StatementCache.prepare(connection, query);
         ResultSet resultSet = preparedStatement.executeQuery()) {
       while (resultSet.next()) {
-        users.add(mapToUser(resultSet));
+        users.add(userMapper.map(resultSet));
       }
     } catch (SQLException e) {
       e.printStackTrace();
@@ -75,20 +94,32 @@ public class UserRepositoryImpl implements UserRepository {
     return users;
   }
 
+  @Override
+  public Stream<User> streamAll(int fetchSize) {
+    String query = "SELECT " + COLUMNS + " FROM Users";
+    try {
+      return CursorStream.open(readDataSource, query, fetchSize, userMapper);
+    } catch (SQLException e) {
+      throw new RuntimeException("Не вдалося відкрити курсор користувачів", e);
+    }
+  }
+
   @Override
   public void addUser(User user) {
     String query = "INSERT INTO Users (user_id, username, password, role, email, created_at) VALUES (?, ?, ?, ?, ?, ?)";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-      UUID id = UUID.randomUUID();
-      preparedStatement.setString(1, id.toString());
-      preparedStatement.setString(2, user.username());
-      preparedStatement.setString(3, user.password());
-      preparedStatement.setString(4, user.role().name());
-      preparedStatement.setString(5, user.email());
-      preparedStatement.setString(6, user.createdAt().format(DATE_TIME_FORMATTER));
-      preparedStatement.executeUpdate();
-      new User(id, user.username(), user.password(), user.role(), user.email(), user.createdAt());
+    UUID id = UUID.randomUUID();
+    try {
+      writeQueue.execute(connection -> {
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+          codec.setUuid(preparedStatement, 1, id);
+          preparedStatement.setString(2, user.username());
+          preparedStatement.setString(3, user.password());
+          codec.setEnum(preparedStatement, 4, user.role());
+          preparedStatement.setString(5, user.email());
+          preparedStatement.setString(6, user.createdAt().format(DATE_TIME_FORMATTER));
+          return preparedStatement.executeUpdate();
+        }
+      });
     } catch (SQLException e) {
       throw new RuntimeException("Не вдалося додати користувача", e);
     }
@@ -96,55 +127,67 @@ public class UserRepositoryImpl implements UserRepository {
   @Override
   public void updateUser(User user) throws EntityNotFoundException {
     String query = "UPDATE Users SET username = ?, password = ?, role = ?, email = ? WHERE user_id = ?";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-      preparedStatement.setString(1, user.username());
-      preparedStatement.setString(2, user.password());
-      preparedStatement.setString(3, user.role().name());
-      preparedStatement.setString(4, user.email());
-      preparedStatement.setString(5, user.id().toString());
-      int affectedRows = preparedStatement.executeUpdate();
-      if (affectedRows == 0) {
-        throw new EntityNotFoundException("Користувача з ID " + user.id() + " не знайдено");
-      }
+    int affectedRows;
+    try {
+      affectedRows = writeQueue.execute(connection -> {
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+          preparedStatement.setString(1, user.username());
+          preparedStatement.setString(2, user.password());
+          codec.setEnum(preparedStatement, 3, user.role());
+          preparedStatement.setString(4, user.email());
+          codec.setUuid(preparedStatement, 5, user.id());
+          return preparedStatement.executeUpdate();
+        }
+      });
     } catch (SQLException e) {
       throw new RuntimeException("Помилка при оновленні користувача: " + e.getMessage(), e);
     }
+    if (affectedRows == 0) {
+      throw new EntityNotFoundException("Користувача з ID " + user.id() + " не знайдено");
+    }
   }
 
   @Override
   public void updateUserRole(String username, Role newRole) throws EntityNotFoundException {
     String query = "UPDATE Users SET role = ? WHERE username = ?";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-      preparedStatement.setString(1, newRole.toString());
-      preparedStatement.setString(2, username);
-      int affectedRows = preparedStatement.executeUpdate();
-      if (affectedRows == 0) {
-        throw new EntityNotFoundException("Користувача з ім'ям " + username + " не знайдено");
-      }
+    int affectedRows;
+    try {
+      affectedRows = writeQueue.execute(connection -> {
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+          codec.setEnum(preparedStatement, 1, newRole);
+          preparedStatement.setString(2, username);
+          return preparedStatement.executeUpdate();
+        }
+      });
     } catch (SQLException e) {
       throw new RuntimeException("Не вдалося оновити роль користувача", e);
     }
+    if (affectedRows == 0) {
+      throw new EntityNotFoundException("Користувача з ім'ям " + username + " не знайдено");
+    }
   }
 
   @Override
   public void deleteUser(String username) throws EntityNotFoundException {
     String query = "DELETE FROM Users WHERE username = ?";
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-      preparedStatement.setString(1, username);
-      int affectedRows = preparedStatement.executeUpdate();
-      if (affectedRows == 0) {
-        throw new EntityNotFoundException("Користувача з ім'ям " + username + " не знайдено");
-      }
+    int affectedRows;
+    try {
+      affectedRows = writeQueue.execute(connection -> {
+        try (PreparedStatement preparedStatement = StatementCache.prepare(connection, query)) {
+          preparedStatement.setString(1, username);
+          return preparedStatement.executeUpdate();
+        }
+      });
     } catch (SQLException e) {
       throw new RuntimeException("Не вдалося видалити користувача", e);
     }
+    if (affectedRows == 0) {
+      throw new EntityNotFoundException("Користувача з ім'ям " + username + " не знайдено");
+    }
   }
 
-  private User mapToUser(ResultSet resultSet) throws SQLException {
-    String createdAtStr = resultSet.getString("created_at");
+  private static LocalDateTime readCreatedAt(ResultSet resultSet, int column) throws SQLException {
+    String createdAtStr = resultSet.getString(column);
     LocalDateTime createdAt;
 
     try {
@@ -156,14 +199,6 @@ public class UserRepositoryImpl implements UserRepository {
           createdAt = LocalDateTime.now();
       }
     }
-
-    return new User(
-        UUID.fromString(resultSet.getString("user_id")),
-        resultSet.getString("username"),
-        resultSet.getString("password"),
-        Role.valueOf(resultSet.getString("role")),
-        resultSet.getString("email"),
-        createdAt
-    );
+    return createdAt;
   }
 }
@@ -0,0 +1,64 @@
+package com.liamtseva.cafepossystem.presentation.async;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Повернення результатів асинхронних викликів бази в потік JavaFX.
+ *
+ * <p>Обробники {@link #onFx} завжди виконуються через {@code Platform.runLater}, навіть якщо
+ * майбутнє вже завершене, тож контролер може змінювати вузли сцени без перевірок потоку.
+ */
+public final class FxFutures {
+
+    private FxFutures() {
+    }
+
+    /**
+     * Передає результат у {@code onSuccess}, а помилку — з розгорнутою причиною — у {@code onError};
+     * обидва викликаються в потоці JavaFX.
+     */
+    public static <T> void onFx(CompletableFuture<T> future, Consumer<? super T> onSuccess, Consumer<Throwable> onError) {
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                onError.accept(cause(error));
+            }
+        }));
+    }
+
+    /**
+     * Вимикає {@code nodes}, доки виконується виклик, щоб його не запустили вдруге, і вмикає їх
+     * у потоці JavaFX після завершення. Викликається з потоку JavaFX.
+     */
+    public static <T> CompletableFuture<T> whileLoading(CompletableFuture<T> future, Node... nodes) {
+        for (Node node : nodes) {
+            if (node != null) {
+                node.setDisable(true);
+            }
+        }
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            for (Node node : nodes) {
+                if (node != null) {
+                    node.setDisable(false);
+                }
+            }
+        }));
+        return future;
+    }
+
+    /** Початковий виняток без обгорток {@link CompletionException} і {@link ExecutionException}. */
+    public static Throwable cause(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,125 @@
+package com.liamtseva.cafepossystem.presentation.component;
+
+import com.liamtseva.cafepossystem.presentation.image.ImageCache;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+
+/**
+ * Позиція кошика, побудована кодом; вигляд відповідає {@code /view/cartItemCard.fxml}.
+ * Заглушка й іконки кнопок беруться з {@link ImageCache} і спільні для всіх карток.
+ */
+public final class CartItemCardView extends HBox {
+
+    private final ImageView menuImage = new ImageView(ImageCache.shared().resource(MenuItemCardView.PLACEHOLDER));
+    private final Label menuItemName = new Label();
+    private final Label menuItemPrice = new Label("0.00 грн");
+    private final Label menuItemCalories = new Label("0 ккал");
+    private final Label quantityLabel = new Label("0");
+    private final Button detailsButton = new Button();
+    private final Button deleteFromCartButton = new Button();
+
+    public CartItemCardView() {
+        setAlignment(Pos.CENTER_LEFT);
+        setMinHeight(140);
+        setPrefSize(520, 150);
+        setMaxHeight(160);
+        getStyleClass().add("cart-item-card-horizontal");
+        getStylesheets().add(MenuItemCardView.STYLESHEET);
+
+        menuImage.setFitWidth(110);
+        menuImage.setFitHeight(110);
+        menuImage.setPreserveRatio(true);
+        menuImage.getStyleClass().add("cart-item-image-h");
+        VBox imageBox = new VBox(menuImage);
+        imageBox.setAlignment(Pos.CENTER);
+        imageBox.setPadding(new Insets(12));
+
+        menuItemName.setMaxWidth(280);
+        menuItemName.setWrapText(true);
+        menuItemName.getStyleClass().add("cart-item-name-h");
+        menuItemCalories.getStyleClass().add("cart-item-calories-h");
+        HBox caloriesRow = new HBox(8, menuItemCalories);
+        caloriesRow.setAlignment(Pos.CENTER_LEFT);
+        VBox title = new VBox(4, menuItemName, caloriesRow);
+        HBox.setHgrow(title, Priority.ALWAYS);
+
+        quantityLabel.getStyleClass().add("quantity-number");
+        VBox quantityBox = new VBox(quantityLabel);
+        quantityBox.setAlignment(Pos.CENTER);
+        quantityBox.setPadding(new Insets(6, 10, 6, 10));
+
+        HBox header = new HBox(10, title, quantityBox);
+        header.setAlignment(Pos.TOP_LEFT);
+
+        Region spacer = new Region();
+        spacer.setPrefSize(350, 0);
+        VBox.setVgrow(spacer, Priority.ALWAYS);
+
+        menuItemPrice.getStyleClass().add("cart-item-price-h");
+        HBox priceBadge = new HBox(6, menuItemPrice);
+        priceBadge.setAlignment(Pos.CENTER);
+        priceBadge.setPadding(new Insets(6, 12, 6, 12));
+        priceBadge.getStyleClass().add("cart-price-badge");
+
+        Region gap = new Region();
+        HBox.setHgrow(gap, Priority.ALWAYS);
+        detailsButton.setGraphic(icon("/data/details.png"));
+        detailsButton.getStyleClass().add("cart-info-btn");
+        deleteFromCartButton.setGraphic(icon("/data/delete.png"));
+        deleteFromCartButton.getStyleClass().add("cart-remove-btn");
+
+        HBox footer = new HBox(12, priceBadge, gap, detailsButton, deleteFromCartButton);
+        footer.setAlignment(Pos.CENTER_LEFT);
+
+        VBox details = new VBox(8, header, spacer, footer);
+        details.setAlignment(Pos.TOP_LEFT);
+        details.setPadding(new Insets(12, 16, 12, 16));
+        HBox.setHgrow(details, Priority.ALWAYS);
+
+        getChildren().addAll(imageBox, details);
+    }
+
+    private static ImageView icon(String path) {
+        ImageView icon = new ImageView(ImageCache.shared().resource(path));
+        icon.setFitWidth(30);
+        icon.setFitHeight(30);
+        icon.setPickOnBounds(true);
+        icon.setPreserveRatio(true);
+        return icon;
+    }
+
+    public ImageView getMenuImage() {
+        return menuImage;
+    }
+
+    public Label getMenuItemName() {
+        return menuItemName;
+    }
+
+    public Label getMenuItemPrice() {
+        return menuItemPrice;
+    }
+
+    public Label getMenuItemCalories() {
+        return menuItemCalories;
+    }
+
+    public Label getQuantityLabel() {
+        return quantityLabel;
+    }
+
+    public Button getDetailsButton() {
+        return detailsButton;
+    }
+
+    public Button getDeleteFromCartButton() {
+        return deleteFromCartButton;
+    }
+}
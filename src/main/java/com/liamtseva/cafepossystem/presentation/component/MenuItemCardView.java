@@ -0,0 +1,122 @@
+package com.liamtseva.cafepossystem.presentation.component;
+
+import com.liamtseva.cafepossystem.presentation.image.ImageCache;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Картка страви в меню, побудована кодом; вигляд відповідає {@code /view/menuItemCard.fxml}.
+ *
+ * <p>На відміну від FXML, тут немає розбору XML, рефлексії для контролера і повторного
+ * декодування заглушки: заглушка береться з {@link ImageCache}, а таблиця стилів розбирається
+ * один раз на всі картки.
+ */
+public final class MenuItemCardView extends AnchorPane {
+
+    static final String PLACEHOLDER = "/data/ingredients.png";
+    static final String STYLESHEET = MenuItemCardView.class.getResource("/design/style.css").toExternalForm();
+
+    private final ImageView menuImage = new ImageView(ImageCache.shared().resource(PLACEHOLDER));
+    private final Label menuItemName = new Label();
+    private final Label menuItemPrice = new Label("0.00 грн");
+    private final Label menuItemCalories = new Label("0 ккал");
+    private final Spinner<Integer> quantity = new Spinner<>();
+    private final Button detailsButton = new Button("Деталі");
+    private final Button addToCartButton = new Button("Додати в кошик");
+
+    public MenuItemCardView() {
+        setMinSize(220, 350);
+        setPrefSize(240, 360);
+        setMaxSize(280, 380);
+        setStyle("-fx-background-color: white; -fx-background-radius: 20px; -fx-effect: dropshadow(gaussian, rgba(2, 87, 38, 0.15), 15, 0.25, 0, 4); -fx-border-color: rgba(162, 213, 163, 0.4); -fx-border-width: 2px; -fx-border-radius: 20px;");
+
+        menuImage.setFitWidth(117);
+        menuImage.setFitHeight(113);
+        menuImage.setPreserveRatio(true);
+        menuImage.setStyle("-fx-effect: dropshadow(gaussian, rgba(2, 87, 38, 0.2), 8, 0.3, 0, 2);");
+
+        menuItemName.setAlignment(Pos.CENTER);
+        menuItemName.setMaxWidth(200);
+        menuItemName.setTextAlignment(TextAlignment.CENTER);
+        menuItemName.setWrapText(true);
+        menuItemName.setStyle("-fx-font-size: 16px; -fx-font-weight: bold; -fx-text-fill: #2d3748;");
+
+        menuItemPrice.setAlignment(Pos.CENTER);
+        menuItemPrice.setTextAlignment(TextAlignment.CENTER);
+        menuItemPrice.setStyle("-fx-text-fill: #025726; -fx-font-size: 20px; -fx-font-weight: bold;");
+
+        menuItemCalories.setAlignment(Pos.CENTER);
+        menuItemCalories.setTextAlignment(TextAlignment.CENTER);
+        menuItemCalories.setStyle("-fx-text-fill: #718096; -fx-font-size: 12px;");
+
+        VBox info = new VBox(6, menuItemName, menuItemPrice, menuItemCalories);
+        info.setAlignment(Pos.CENTER);
+        info.setStyle("-fx-padding: 0 16;");
+
+        quantity.setPrefSize(90, 38);
+        quantity.setStyle("-fx-font-size: 14px;");
+
+        detailsButton.setPrefSize(110, 38);
+        detailsButton.setFont(Font.font(13));
+        detailsButton.setStyle("-fx-background-color: rgba(2, 87, 38, 0.1); -fx-text-fill: #025726; -fx-font-weight: 600; -fx-background-radius: 10px; -fx-border-color: #025726; -fx-border-width: 1.5px; -fx-border-radius: 10px; -fx-cursor: hand;");
+
+        HBox actions = new HBox(8, quantity, detailsButton);
+        actions.setAlignment(Pos.CENTER);
+        actions.setStyle("-fx-padding: 0 16;");
+
+        addToCartButton.setMaxWidth(Double.MAX_VALUE);
+        addToCartButton.setPrefSize(180, 35);
+        addToCartButton.setTextFill(Color.WHITE);
+        addToCartButton.setStyle("-fx-font-size: 15px; -fx-font-weight: bold;");
+        addToCartButton.getStyleClass().add("side-btn");
+        addToCartButton.getStylesheets().add(STYLESHEET);
+        VBox.setMargin(addToCartButton, new Insets(0, 16, 0, 16));
+
+        VBox content = new VBox(12, menuImage, info, actions, addToCartButton);
+        content.setAlignment(Pos.TOP_CENTER);
+        content.setPadding(new Insets(16, 0, 16, 0));
+        AnchorPane.setTopAnchor(content, 0.0);
+        AnchorPane.setRightAnchor(content, 0.0);
+        AnchorPane.setBottomAnchor(content, 0.0);
+        AnchorPane.setLeftAnchor(content, 0.0);
+        getChildren().add(content);
+    }
+
+    public ImageView getMenuImage() {
+        return menuImage;
+    }
+
+    public Label getMenuItemName() {
+        return menuItemName;
+    }
+
+    public Label getMenuItemPrice() {
+        return menuItemPrice;
+    }
+
+    public Label getMenuItemCalories() {
+        return menuItemCalories;
+    }
+
+    public Spinner<Integer> getQuantity() {
+        return quantity;
+    }
+
+    public Button getDetailsButton() {
+        return detailsButton;
+    }
+
+    public Button getAddToCartButton() {
+        return addToCartButton;
+    }
+}
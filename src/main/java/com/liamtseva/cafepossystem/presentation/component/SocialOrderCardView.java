@@ -0,0 +1,60 @@
+package com.liamtseva.cafepossystem.presentation.component;
+
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+/**
+ * Картка спільного столика, побудована кодом; вигляд відповідає {@code /view/socialOrderCard.fxml}.
+ * Поля доступні напряму, без пошуку вузлів за {@code fx:id}.
+ */
+public final class SocialOrderCardView extends HBox {
+
+    private final Label userLabel = new Label();
+    private final Label tableLabel = new Label();
+    private final Label timeLabel = new Label();
+    private final Label statusLabel = new Label();
+    private final Button joinButton = new Button("Приєднатися");
+
+    public SocialOrderCardView() {
+        setSpacing(15);
+        getStyleClass().add("social-card");
+
+        userLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 16px; -fx-text-fill: #2d3748;");
+        tableLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #718096;");
+        VBox who = new VBox(5, userLabel, tableLabel);
+        who.setPrefWidth(150);
+
+        timeLabel.setStyle("-fx-font-size: 13px; -fx-text-fill: #4a5568;");
+        statusLabel.setStyle("-fx-font-size: 13px; -fx-text-fill: #28a745; -fx-font-weight: bold;");
+        VBox when = new VBox(8, timeLabel, statusLabel);
+        when.setPrefWidth(150);
+
+        joinButton.setPrefSize(176, 26);
+        joinButton.setMaxWidth(176);
+        joinButton.getStyleClass().add("side-btn");
+
+        getChildren().addAll(who, when, joinButton);
+    }
+
+    public Label getUserLabel() {
+        return userLabel;
+    }
+
+    public Label getTableLabel() {
+        return tableLabel;
+    }
+
+    public Label getTimeLabel() {
+        return timeLabel;
+    }
+
+    public Label getStatusLabel() {
+        return statusLabel;
+    }
+
+    public Button getJoinButton() {
+        return joinButton;
+    }
+}
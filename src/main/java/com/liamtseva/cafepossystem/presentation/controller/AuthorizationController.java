@@ -7,7 +7,10 @@ import com.liamtseva.cafepossystem.persistence.connection.DatabaseConnection;
 import com.liamtseva.cafepossystem.persistence.entity.User;
 import com.liamtseva.cafepossystem.persistence.repository.contract.UserRepository;
 import com.liamtseva.cafepossystem.persistence.repository.impl.UserRepositoryImpl;
+import com.liamtseva.cafepossystem.presentation.async.FxFutures;
+import com.liamtseva.cafepossystem.startup.StartupSequence;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -40,12 +43,9 @@ public class AuthorizationController {
     @FXML
     private Button btnClose;
 
+    // Створюється лише після готовності бази: поки показане вікно входу, пул ще може відкриватися
     private UserRepository userRepository;
 
-    public AuthorizationController() {
-        this.userRepository = new UserRepositoryImpl(new DatabaseConnection().getDataSource());
-    }
-
     private void switchScene(String fxmlPath) {
         Scene currentScene = authSignInButton.getScene();
         FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
@@ -66,43 +66,59 @@ public class AuthorizationController {
         btnClose.setOnAction(event -> {
             System.exit(0);
         });
-        authSingUpButton.setOnAction(event -> {
-            String loginText = loginTextField.getText().trim();
-            String loginPassword = passwordField.getText().trim();
-
-            if (!loginText.isEmpty() && !loginPassword.isEmpty()) {
-                try {
-                    User user = userRepository.findByUsername(loginText);
-                    if (user != null) {
-                        String hashedPassword = PasswordHashing.getInstance()
-                            .hashedPassword(loginPassword);
-                        if (user.password().equals(hashedPassword)) {
-                            AuthenticatedUser.getInstance().setCurrentUser(user);
-                            authSingUpButton.getScene().getWindow().hide();
-                            FXMLLoader loader = new FXMLLoader(
-                                getClass().getResource("/view/mainMenu.fxml"));
-                            Parent root = loader.load();
-                            Stage stage = new Stage();
-                            stage.getIcons()
-                                .add(new Image(getClass().getResourceAsStream("/data/icon.png")));
-                            stage.setScene(new Scene(root));
-                            stage.initStyle(StageStyle.UNDECORATED);
-                            stage.setResizable(true);
-                            stage.setMaximized(true);
-                            stage.showAndWait();
-                        } else {
-                            AlertController.showAlert("Неправильний логін або пароль");
-                        }
+        authSingUpButton.setOnAction(event -> whenDatabaseReady(authSingUpButton, this::signIn));
+
+        authSignInButton.setOnAction(event -> whenDatabaseReady(authSignInButton, () -> switchScene("/view/registration.fxml")));
+
+    }
+
+    private void whenDatabaseReady(Button button, Runnable action) {
+        CompletableFuture<Void> database = StartupSequence.get().database();
+        if (database.isDone() && !database.isCompletedExceptionally()) {
+            action.run();
+            return;
+        }
+        FxFutures.onFx(FxFutures.whileLoading(database, button),
+            ignored -> action.run(),
+            error -> AlertController.showAlert("Не вдалося підготувати базу даних: " + error.getMessage()));
+    }
+
+    private void signIn() {
+        if (userRepository == null) {
+            userRepository = new UserRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        }
+        String loginText = loginTextField.getText().trim();
+        String loginPassword = passwordField.getText().trim();
+
+        if (!loginText.isEmpty() && !loginPassword.isEmpty()) {
+            try {
+                User user = userRepository.findByUsername(loginText);
+                if (user != null) {
+                    String hashedPassword = PasswordHashing.getInstance()
+                        .hashedPassword(loginPassword);
+                    if (user.password().equals(hashedPassword)) {
+                        AuthenticatedUser.getInstance().setCurrentUser(user);
+                        authSingUpButton.getScene().getWindow().hide();
+                        FXMLLoader loader = new FXMLLoader(
+                            getClass().getResource("/view/mainMenu.fxml"));
+                        Parent root = loader.load();
+                        Stage stage = new Stage();
+                        stage.getIcons()
+                            .add(new Image(getClass().getResourceAsStream("/data/icon.png")));
+                        stage.setScene(new Scene(root));
+                        stage.initStyle(StageStyle.UNDECORATED);
+                        stage.setResizable(true);
+                        stage.setMaximized(true);
+                        stage.showAndWait();
+                    } else {
+                        AlertController.showAlert("Неправильний логін або пароль");
                     }
-                } catch (EntityNotFoundException | IOException e) {
-                    AlertController.showAlert("Неправильний логін або пароль");
                 }
-            } else {
-                AlertController.showAlert("Будь ласка, введіть логін та пароль");
+            } catch (EntityNotFoundException | IOException e) {
+                AlertController.showAlert("Неправильний логін або пароль");
             }
-        });
-
-        authSignInButton.setOnAction(event -> switchScene("/view/registration.fxml"));
-
+        } else {
+            AlertController.showAlert("Будь ласка, введіть логін та пароль");
+        }
     }
 }
@@ -1,45 +1,48 @@
 package com.liamtseva.cafepossystem.presentation.controller;
 
+import com.liamtseva.cafepossystem.domain.exception.CheckoutException;
 import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
 import com.liamtseva.cafepossystem.domain.security.AuthenticatedUser;
+import com.liamtseva.cafepossystem.domain.service.CheckoutService;
+import com.liamtseva.cafepossystem.persistence.cache.CachingMenuItemRepository;
+import com.liamtseva.cafepossystem.persistence.cache.TableOccupancyRegistry;
 import com.liamtseva.cafepossystem.persistence.connection.DatabaseConnection;
 import com.liamtseva.cafepossystem.persistence.entity.Cart;
 import com.liamtseva.cafepossystem.persistence.entity.LoyaltyCard;
-import com.liamtseva.cafepossystem.persistence.entity.MenuItem;
+import com.liamtseva.cafepossystem.persistence.entity.MenuItemSummary;
 import com.liamtseva.cafepossystem.persistence.entity.Order;
 import com.liamtseva.cafepossystem.persistence.entity.User;
-import com.liamtseva.cafepossystem.persistence.entity.enums.OrderStatus;
 import com.liamtseva.cafepossystem.persistence.repository.contract.CartRepository;
 import com.liamtseva.cafepossystem.persistence.repository.contract.LoyaltyCardRepository;
 import com.liamtseva.cafepossystem.persistence.repository.contract.MenuItemRepository;
 import com.liamtseva.cafepossystem.persistence.repository.contract.OrderRepository;
 import com.liamtseva.cafepossystem.persistence.repository.impl.CartRepositoryImpl;
 import com.liamtseva.cafepossystem.persistence.repository.impl.LoyaltyCardRepositoryImpl;
-import com.liamtseva.cafepossystem.persistence.repository.impl.MenuItemRepositoryImpl;
 import com.liamtseva.cafepossystem.persistence.repository.impl.OrderRepositoryImpl;
+import com.liamtseva.cafepossystem.persistence.repository.async.AsyncRepository;
+import com.liamtseva.cafepossystem.presentation.async.FxFutures;
+import com.liamtseva.cafepossystem.presentation.component.CartItemCardView;
 import com.liamtseva.cafepossystem.presentation.validation.CartValidator;
 import com.liamtseva.cafepossystem.presentation.validation.OrderValidator;
 import com.liamtseva.cafepossystem.presentation.validation.ValidationResult;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
-import javafx.scene.layout.HBox;
 import javafx.scene.layout.ColumnConstraints;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.RowConstraints;
 
-import java.io.IOException;
-import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
-public class CartController {
+public class CartController implements RefreshablePage {
 
     @FXML
     private Label cartLabel;
@@ -77,14 +80,32 @@ public class CartController {
     private MenuItemRepository menuItemRepository;
     private OrderRepository orderRepository;
     private LoyaltyCardRepository loyaltyCardRepository;
+    private CheckoutService checkoutService;
+    private TableOccupancyRegistry tableOccupancy;
+    private AsyncRepository<CartRepository> asyncCartRepository;
+    private AsyncRepository<LoyaltyCardRepository> asyncLoyaltyCardRepository;
+    private AsyncRepository<CheckoutService> asyncCheckoutService;
+    private AsyncRepository<TableOccupancyRegistry> asyncTableOccupancy;
     private List<Cart> cartItems;
     private LoyaltyCard userLoyaltyCard;
+    // Відповідь на застаріле завантаження кошика (його перезавантажили ще раз) не показуємо
+    private long cartLoad;
+
+    // Позиції кошика зі стравами і мініатюрами, прочитані у фоновому потоці
+    private record CartView(List<Cart> items, Map<UUID, MenuItemSummary> menuItems, Map<UUID, byte[]> thumbnails) {
+    }
 
     public CartController() {
-        this.cartRepository = new CartRepositoryImpl(new DatabaseConnection().getDataSource());
-        this.menuItemRepository = new MenuItemRepositoryImpl(new DatabaseConnection().getDataSource());
-        this.orderRepository = new OrderRepositoryImpl(new DatabaseConnection().getDataSource());
-        this.loyaltyCardRepository = new LoyaltyCardRepositoryImpl(new DatabaseConnection().getDataSource());
+        this.cartRepository = new CartRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.menuItemRepository = CachingMenuItemRepository.forDataSources(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.orderRepository = new OrderRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.loyaltyCardRepository = new LoyaltyCardRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.checkoutService = new CheckoutService(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.tableOccupancy = TableOccupancyRegistry.forDataSource(new DatabaseConnection().getReadDataSource());
+        this.asyncCartRepository = AsyncRepository.of(cartRepository);
+        this.asyncLoyaltyCardRepository = AsyncRepository.of(loyaltyCardRepository);
+        this.asyncCheckoutService = AsyncRepository.of(checkoutService);
+        this.asyncTableOccupancy = AsyncRepository.of(tableOccupancy);
     }
 
     @FXML
@@ -111,6 +132,14 @@ public class CartController {
         }
     }
 
+    @Override
+    public void onShow() {
+        loadCartItems();
+        loadLoyaltyCardInfo();
+        // Столики, звільнені чи зайняті з інших терміналів, до вибору столика
+        asyncTableOccupancy.run(TableOccupancyRegistry::rebuild);
+    }
+
     public void loadCartItems() {
         User currentUser = AuthenticatedUser.getInstance().getCurrentUser();
         if (currentUser == null) {
@@ -118,11 +147,46 @@ public class CartController {
             updateTotalAmount(0.0);
             return;
         }
-        List<Cart> allCartItems = cartRepository.findByUserId(currentUser.id());
-        cartItems = allCartItems.stream().filter(cart -> !cart.isOrdered()).collect(Collectors.toList());
+        long load = ++cartLoad;
+        cartLabel.setText("Завантаження кошика...");
+        FxFutures.onFx(asyncCartRepository.supply(repository -> findCartView(repository, currentUser.id())),
+            cartView -> {
+                if (load == cartLoad) {
+                    showCartItems(cartView);
+                }
+            },
+            error -> {
+                if (load == cartLoad) {
+                    cartLabel.setText("Помилка завантаження кошика: " + error.getMessage());
+                }
+            });
+    }
+
+    // Виконується у фоновому потоці
+    private CartView findCartView(CartRepository repository, UUID userId) {
+        List<Cart> items = repository.findActiveByUserId(userId);
+        if (items == null || items.isEmpty()) {
+            return new CartView(List.of(), Map.of(), Map.of());
+        }
+        // Страви кошика одним запитом і без зображень; картка показує лише мініатюру
+        Map<UUID, MenuItemSummary> menuItems = menuItemRepository.findCartSummariesByUserId(userId).stream()
+            .collect(Collectors.toMap(MenuItemSummary::id, item -> item, (first, second) -> first));
+        Map<UUID, byte[]> thumbnails = new HashMap<>();
+        for (UUID itemId : menuItems.keySet()) {
+            byte[] thumbnail = menuItemRepository.loadThumbnail(itemId);
+            if (thumbnail != null) {
+                thumbnails.put(itemId, thumbnail);
+            }
+        }
+        return new CartView(items, menuItems, thumbnails);
+    }
+
+    private void showCartItems(CartView cartView) {
+        cartItems = cartView.items();
         cartGridPane.getChildren().clear();
+        cartLabel.setText("");
 
-        if (cartItems == null || cartItems.isEmpty()) {
+        if (cartItems.isEmpty()) {
             if (cartScrollPane != null) {
                 cartScrollPane.setVisible(true);
                 cartScrollPane.setManaged(true);
@@ -130,13 +194,14 @@ public class CartController {
             updateTotalAmount(0.0);
             return;
         } else {
-            cartLabel.setText("");
             if (cartScrollPane != null) {
                 cartScrollPane.setVisible(true);
                 cartScrollPane.setManaged(true);
             }
         }
 
+        Map<UUID, MenuItemSummary> menuItems = cartView.menuItems();
+
         int column = 0;
         int row = 0;
         int cardsPerRow = 1;
@@ -167,35 +232,23 @@ public class CartController {
                 continue;
             }
 
-            MenuItem menuItem;
-            try {
-                menuItem = menuItemRepository.findById(cartItem.itemId());
-                if (menuItem == null) {
-                    cartLabel.setText("Помилка: Один із елементів кошика не знайдено.");
-                    continue;
-                }
-            } catch (EntityNotFoundException e) {
+            MenuItemSummary menuItem = menuItems.get(cartItem.itemId());
+            if (menuItem == null) {
                 continue;
             }
 
             totalAmount += cartItem.subtotal();
 
-            try {
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/cartItemCard.fxml"));
-                HBox card = loader.load();
-                CartItemCard controller = loader.getController();
-                if (controller != null) {
-                    controller.setCartItem(cartItem, menuItem);
-                    controller.setParentController(this);
-                    cartGridPane.add(card, column, row);
-                    column++;
-                    if (column >= cardsPerRow) {
-                        column = 0;
-                        row++;
-                    }
-                }
-            } catch (IOException e) {
-                cartLabel.setText("Помилка завантаження картки: " + e.getMessage());
+            CartItemCardView card = new CartItemCardView();
+            CartItemCard controller = new CartItemCard(card);
+            controller.setCartItem(cartItem, menuItem);
+            controller.showImage(cartView.thumbnails().get(menuItem.id()));
+            controller.setParentController(this);
+            cartGridPane.add(card, column, row);
+            column++;
+            if (column >= cardsPerRow) {
+                column = 0;
+                row++;
             }
         }
 
@@ -215,18 +268,23 @@ public class CartController {
             return;
         }
 
-        try {
-            userLoyaltyCard = loyaltyCardRepository.findByUserId(currentUser.id());
-            if (bonusBalanceLabel != null) {
-                bonusBalanceLabel.setText(String.format("Баланс бонусів: %.2f", userLoyaltyCard.balance()));
-            }
-        } catch (EntityNotFoundException e) {
-            if (bonusBalanceLabel != null) {
-                bonusBalanceLabel.setText("Бонусна карта відсутня");
-            }
-            userLoyaltyCard = null;
-        }
-        updateFinalAmount();
+        FxFutures.onFx(asyncLoyaltyCardRepository.supply(repository -> repository.findByUserId(currentUser.id())),
+            loyaltyCard -> {
+                userLoyaltyCard = loyaltyCard;
+                if (bonusBalanceLabel != null) {
+                    bonusBalanceLabel.setText(String.format("Баланс бонусів: %.2f", userLoyaltyCard.balance()));
+                }
+                updateFinalAmount();
+            },
+            error -> {
+                if (bonusBalanceLabel != null) {
+                    bonusBalanceLabel.setText(error instanceof EntityNotFoundException
+                        ? "Бонусна карта відсутня"
+                        : "Помилка завантаження бонусної карти: " + error.getMessage());
+                }
+                userLoyaltyCard = null;
+                updateFinalAmount();
+            });
     }
 
     private void updateFinalAmount() {
@@ -318,12 +376,6 @@ public class CartController {
             }
         }
 
-        double bonusesEarned = (totalAmount - bonusToUse) * 0.05;
-        
-        List<String> cartIds = cartItems.stream()
-            .map(cart -> cart.id().toString())
-            .collect(Collectors.toList());
-
         String tableInput = tableNumberField.getText().trim();
         if (tableInput.isEmpty()) {
             AlertController.showAlert("Будь ласка, введіть номер столика");
@@ -342,28 +394,18 @@ public class CartController {
             return;
         }
 
-        List<Order> allOrders = orderRepository.findAll();
-        boolean tableOccupied = allOrders.stream()
-            .anyMatch(order -> order.tableNumber() != null && parsedTableNumber == order.tableNumber() &&
-                (order.status() == OrderStatus.PENDING || order.status() == OrderStatus.CONFIRMED));
-        if (tableOccupied) {
+        if (tableOccupancy.isOccupied(parsedTableNumber)) {
             AlertController.showAlert("Столик №" + parsedTableNumber + " вже зайнятий. Оберіть інший столик.");
             return;
         }
 
-        Integer tableNumber = parsedTableNumber;
-
-        Order order = new Order(
-            UUID.randomUUID(),
+        Order order = checkoutService.newOrder(
             currentUser.id(),
-            LocalDateTime.now(),
-            totalAmount,
-            bonusesEarned,
+            cartItems,
             bonusToUse,
-            OrderStatus.PENDING,
             notes.isEmpty() ? null : notes,
             socialCheckBox.isSelected(),
-            tableNumber
+            parsedTableNumber
         );
 
         ValidationResult orderValidationResult = OrderValidator.isOrderValid(order, false, (OrderRepositoryImpl) orderRepository);
@@ -372,49 +414,18 @@ public class CartController {
             return;
         }
 
-        Order createdOrder = orderRepository.create(order, cartIds);
-        if (createdOrder != null) {
-            for (String cartId : cartIds) {
-                try {
-                    Cart cart = cartRepository.findById(UUID.fromString(cartId));
-                    cartRepository.save(new Cart(cart.id(), cart.userId(), cart.itemId(), cart.quantity(), cart.subtotal(), true));
-                } catch (EntityNotFoundException e) {
-                    AlertController.showAlert("Не вдалося оновити статус елементів кошика");
-                }
-            }
-
-            if (bonusToUse > 0 && userLoyaltyCard != null) {
-                double newBalance = userLoyaltyCard.balance() - bonusToUse + bonusesEarned;
-                LoyaltyCard updatedCard = new LoyaltyCard(
-                    userLoyaltyCard.id(),
-                    userLoyaltyCard.userId(),
-                    userLoyaltyCard.cardNumber(),
-                    newBalance,
-                    userLoyaltyCard.isActive(),
-                    userLoyaltyCard.createdAt()
-                );
-                loyaltyCardRepository.save(updatedCard);
-            } else if (bonusesEarned > 0 && userLoyaltyCard != null) {
-                double newBalance = userLoyaltyCard.balance() + bonusesEarned;
-                LoyaltyCard updatedCard = new LoyaltyCard(
-                    userLoyaltyCard.id(),
-                    userLoyaltyCard.userId(),
-                    userLoyaltyCard.cardNumber(),
-                    newBalance,
-                    userLoyaltyCard.isActive(),
-                    userLoyaltyCard.createdAt()
-                );
-                loyaltyCardRepository.save(updatedCard);
-            }
-
-            notesArea.clear();
-            bonusToUseField.clear();
-            tableNumberField.clear();
-            AlertController.showAlert(String.format("Замовлення успішно оформлено!\nБудь ласка, підійдіть до каси для оплати замовлення.", bonusToUse, bonusesEarned));
-            loadCartItems();
-            loadLoyaltyCardInfo();
-        } else {
-            cartLabel.setText("Помилка при оформленні замовлення");
-        }
+        List<Cart> orderedItems = cartItems;
+        FxFutures.onFx(FxFutures.whileLoading(asyncCheckoutService.supply(service -> service.checkout(order, orderedItems)), placeOrderButton),
+            placedOrder -> {
+                notesArea.clear();
+                bonusToUseField.clear();
+                tableNumberField.clear();
+                AlertController.showAlert("Замовлення успішно оформлено!\nБудь ласка, підійдіть до каси для оплати замовлення.");
+                loadCartItems();
+                loadLoyaltyCardInfo();
+            },
+            error -> AlertController.showAlert(error instanceof CheckoutException
+                ? error.getMessage()
+                : "Помилка при оформленні замовлення: " + error.getMessage()));
     }
 }
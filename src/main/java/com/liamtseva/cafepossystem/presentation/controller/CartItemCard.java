@@ -1,13 +1,19 @@
 package com.liamtseva.cafepossystem.presentation.controller;
 
 import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
+import com.liamtseva.cafepossystem.persistence.cache.CachingMenuItemRepository;
 import com.liamtseva.cafepossystem.persistence.connection.DatabaseConnection;
 import com.liamtseva.cafepossystem.persistence.entity.Cart;
 import com.liamtseva.cafepossystem.persistence.entity.MenuItem;
+import com.liamtseva.cafepossystem.persistence.entity.MenuItemSummary;
 import com.liamtseva.cafepossystem.persistence.repository.contract.CartRepository;
+import com.liamtseva.cafepossystem.persistence.repository.contract.MenuItemRepository;
 import com.liamtseva.cafepossystem.persistence.repository.impl.CartRepositoryImpl;
+import com.liamtseva.cafepossystem.presentation.component.CartItemCardView;
+import com.liamtseva.cafepossystem.presentation.image.ImageCache;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -15,7 +21,6 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.Stage;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import javafx.stage.StageStyle;
 
@@ -39,16 +44,37 @@ public class CartItemCard {
     @FXML
     private Button deleteFromCartButton;
 
+    private Parent root;
     private Cart cartItem;
-    private MenuItem menuItem;
+    private MenuItemSummary menuItem;
     private CartController parentController;
     private CartRepository cartRepository;
+    private MenuItemRepository menuItemRepository;
 
     public CartItemCard() {
-        this.cartRepository = new CartRepositoryImpl(new DatabaseConnection().getDataSource());
+        this.cartRepository = new CartRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.menuItemRepository = CachingMenuItemRepository.forDataSources(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
     }
 
-    public void setCartItem(Cart cartItem, MenuItem menuItem) {
+    /** Картка над вузлами, побудованими кодом, — без завантаження cartItemCard.fxml. */
+    public CartItemCard(CartItemCardView view) {
+        this();
+        this.root = view;
+        this.menuImage = view.getMenuImage();
+        this.menuItemName = view.getMenuItemName();
+        this.menuItemPrice = view.getMenuItemPrice();
+        this.menuItemCalories = view.getMenuItemCalories();
+        this.quantityLabel = view.getQuantityLabel();
+        this.deleteFromCartButton = view.getDeleteFromCartButton();
+        view.getDetailsButton().setOnAction(event -> showDetails());
+    }
+
+    /** Кореневий вузол картки, створеної з {@link CartItemCardView}. */
+    public Parent getRoot() {
+        return root;
+    }
+
+    public void setCartItem(Cart cartItem, MenuItemSummary menuItem) {
         this.cartItem = cartItem;
         this.menuItem = menuItem;
 
@@ -64,19 +90,17 @@ public class CartItemCard {
         if (quantityLabel != null) {
             quantityLabel.setText(String.valueOf(cartItem.quantity()));
         }
-        if (menuImage != null) {
-            if (menuItem.image() != null && menuItem.image().length > 0) {
-                menuImage.setImage(new Image(new ByteArrayInputStream(menuItem.image())));
-            } else {
-                menuImage.setImage(new Image(getClass().getResourceAsStream("/data/ingredients.png")));
-            }
-        }
-
         if (deleteFromCartButton != null) {
             deleteFromCartButton.setOnAction(event -> deleteFromCart());
         }
     }
 
+    public void showImage(byte[] image) {
+        if (menuImage != null) {
+            ImageCache.shared().display(menuImage, menuItem.id(), image, "/data/ingredients.png");
+        }
+    }
+
     public void setParentController(CartController controller) {
         this.parentController = controller;
     }
@@ -93,10 +117,11 @@ public class CartItemCard {
             stage.setResizable(false);
 
             MenuItemDetailsController controller = loader.getController();
-            controller.setMenuItem(menuItem);
+            MenuItem details = menuItemRepository.findById(menuItem.id());
+            controller.setMenuItem(details);
 
             stage.showAndWait();
-        } catch (IOException e) {
+        } catch (IOException | EntityNotFoundException e) {
             AlertController.showAlert("Не вдалося завантажити деталі страви");
         }
     }
@@ -110,6 +135,8 @@ public class CartItemCard {
             }
         } catch (EntityNotFoundException e) {
             AlertController.showAlert("Не вдалося видалити елемент з кошика");
+        } catch (RuntimeException e) {
+            AlertController.showAlert("Не вдалося видалити елемент з кошика: " + e.getMessage());
         }
     }
 }
@@ -13,7 +13,7 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import java.util.List;
 
-public class CategoryManagementController {
+public class CategoryManagementController implements RefreshablePage {
 
     @FXML
     private TextField nameField;
@@ -37,7 +37,7 @@ public class CategoryManagementController {
     private Category selectedCategory;
 
     public CategoryManagementController() {
-        this.categoryRepository = new CategoryRepositoryImpl(new DatabaseConnection().getDataSource());
+        this.categoryRepository = new CategoryRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
         this.categoriesList = FXCollections.observableArrayList();
     }
 
@@ -63,6 +63,12 @@ public class CategoryManagementController {
             });
     }
 
+    @Override
+    public void onShow() {
+        loadCategories();
+        RefreshablePage.reapplySearch(searchTextField, this::searchCategories);
+    }
+
     private void loadCategories() {
         try {
             List<Category> categories = categoryRepository.findAll();
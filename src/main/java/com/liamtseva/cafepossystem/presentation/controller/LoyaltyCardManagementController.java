@@ -18,7 +18,7 @@ import javafx.scene.control.*;
 import java.util.List;
 import javafx.util.StringConverter;
 
-public class LoyaltyCardManagementController {
+public class LoyaltyCardManagementController implements RefreshablePage {
 
     @FXML
     private TextField cardNumberField;
@@ -48,8 +48,8 @@ public class LoyaltyCardManagementController {
     private LoyaltyCard selectedLoyaltyCard;
 
     public LoyaltyCardManagementController() {
-        this.loyaltyCardRepository = new LoyaltyCardRepositoryImpl(new DatabaseConnection().getDataSource());
-        this.userRepository = new UserRepositoryImpl(new DatabaseConnection().getDataSource());
+        this.loyaltyCardRepository = new LoyaltyCardRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.userRepository = new UserRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
         this.loyaltyCardList = FXCollections.observableArrayList();
         this.userList = FXCollections.observableArrayList();
     }
@@ -92,6 +92,13 @@ public class LoyaltyCardManagementController {
         });
     }
 
+    @Override
+    public void onShow() {
+        loadUsers();
+        loadLoyaltyCards();
+        RefreshablePage.reapplySearch(searchTextField, this::searchLoyaltyCards);
+    }
+
     private void loadLoyaltyCards() {
         try {
             List<LoyaltyCard> loyaltyCards = loyaltyCardRepository.findAll();
@@ -4,9 +4,15 @@ import com.liamtseva.cafepossystem.domain.security.AuthenticatedUser;
 import com.liamtseva.cafepossystem.persistence.entity.User;
 import com.liamtseva.cafepossystem.persistence.entity.enums.Role;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.animation.FadeTransition;
+import javafx.animation.PauseTransition;
 import javafx.animation.TranslateTransition;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -15,7 +21,6 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.image.Image;
-import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
@@ -23,6 +28,12 @@ import javafx.util.Duration;
 
 public class MainMenuController {
 
+    // Сторінки, на які користувач цієї ролі найімовірніше перейде після меню
+    private static final Map<Role, List<String>> PRELOADED_PAGES = Map.of(
+            Role.USER, List.of("cart.fxml", "orders.fxml", "socialTables.fxml"),
+            Role.ADMIN, List.of("orderManagement.fxml", "menuItemManagement.fxml", "userManagement.fxml"));
+    private static final Duration PRELOAD_PAUSE = Duration.millis(300);
+
     @FXML
     private Button menuButton;
 
@@ -64,9 +75,16 @@ public class MainMenuController {
 
     private Button selectedButton;
 
+    // Завантажена сторінка живе до закриття головного вікна, тож FXML і контролер створюються один раз
+    private record Page(Parent root, Object controller) {
+    }
+
+    private final Map<String, Page> pages = new HashMap<>();
+    private final Deque<String> preloadQueue = new ArrayDeque<>();
+
     @FXML
     void initialize() {
-        showReservation();
+        showPage("menu.fxml");
         setActiveButton(menuButton);
 
         menuButton.setOnAction(event -> showMenuPage());
@@ -93,11 +111,13 @@ public class MainMenuController {
             orderManagementButton.setVisible(false);
             orderManagementButton.setManaged(false);
         }
+        preloadQueue.addAll(PRELOADED_PAGES.getOrDefault(currentUser.role(), List.of()));
 
         Platform.runLater(() -> {
             Stage primaryStage = (Stage) contentArea.getScene().getWindow();
             addDragListeners(primaryStage.getScene().getRoot());
             moveStackPane(menuButton);
+            preloadNextPage();
         });
     }
 
@@ -132,90 +152,98 @@ public class MainMenuController {
     private void showMenuPage() {
         moveStackPane(menuButton);
         setActiveButton(menuButton);
-        loadFXML("menu.fxml");
+        showPage("menu.fxml");
     }
 
     private void showCartPage() {
         moveStackPane(cartButton);
         setActiveButton(cartButton);
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/cart.fxml"));
-            Parent fxml = loader.load();
-
-            CartController cartController = loader.getController();
-            if (cartController != null) {
-                cartController.loadCartItems();
-            }
-
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(fxml);
-        } catch (IOException ex) {
-            Logger.getLogger(MainMenuController.class.getName()).log(Level.SEVERE, null, ex);
-        }
+        showPage("cart.fxml");
     }
 
     private void showOrdersPage() {
     moveStackPane(ordersButton);
     setActiveButton(ordersButton);
-    loadFXML("orders.fxml");
+    showPage("orders.fxml");
     }
 
     private void showSocialTablesPage() {
         moveStackPane(socialTablesButton);
         setActiveButton(socialTablesButton);
-        loadFXML("socialTables.fxml");
+        showPage("socialTables.fxml");
     }
 
     private void showCategoryManagementPage() {
         moveStackPane(categoryManagementButton);
         setActiveButton(categoryManagementButton);
-        loadFXML("categoryManagement.fxml");
+        showPage("categoryManagement.fxml");
     }
 
     private void showMenuItemManagementPage() {
         moveStackPane(menuItemManagementButton);
         setActiveButton(menuItemManagementButton);
-        loadFXML("menuItemManagement.fxml");
+        showPage("menuItemManagement.fxml");
     }
 
     private void showUserManagementPage() {
         moveStackPane(userManagementButton);
         setActiveButton(userManagementButton);
-        loadFXML("userManagement.fxml");
+        showPage("userManagement.fxml");
     }
 
     private void showLoyaltyCardManagementPage() {
         moveStackPane(loyaltyCardManagementButton);
         setActiveButton(loyaltyCardManagementButton);
-        loadFXML("loyaltyCardManagement.fxml");
+        showPage("loyaltyCardManagement.fxml");
     }
 
     private void showOrderManagementPage() {
         moveStackPane(orderManagementButton);
         setActiveButton(orderManagementButton);
-        loadFXML("orderManagement.fxml");
+        showPage("orderManagement.fxml");
+    }
+
+    private void showPage(String fxmlFileName) {
+        Page page = pages.get(fxmlFileName);
+        if (page == null) {
+            page = loadPage(fxmlFileName);
+            if (page == null) {
+                return;
+            }
+        } else if (page.controller() instanceof RefreshablePage refreshablePage) {
+            refreshablePage.onShow();
+        }
+        contentArea.getChildren().setAll(page.root());
     }
 
-    private void loadFXML(String fxmlFileName) {
+    private Page loadPage(String fxmlFileName) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/" + fxmlFileName));
             Parent fxml = loader.load();
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(fxml);
+            Page page = new Page(fxml, loader.getController());
+            pages.put(fxmlFileName, page);
+            return page;
         } catch (IOException ex) {
             Logger.getLogger(MainMenuController.class.getName()).log(Level.SEVERE, null, ex);
+            return null;
         }
     }
 
-    private void showReservation() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/menu.fxml"));
-            AnchorPane bookingsAnchorPane = loader.load();
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(bookingsAnchorPane);
-        } catch (IOException e) {
-            e.printStackTrace();
+    // Сторінки будуються в потоці JavaFX: контролери вже з initialize оновлюють свої вузли
+    // з асинхронних викликів. Тому догружаємо по одній з паузою, щоб між ними оброблявся ввід
+    private void preloadNextPage() {
+        if (preloadQueue.isEmpty()) {
+            return;
         }
+        PauseTransition pause = new PauseTransition(PRELOAD_PAUSE);
+        pause.setOnFinished(event -> {
+            String fxmlFileName = preloadQueue.poll();
+            if (!pages.containsKey(fxmlFileName)) {
+                loadPage(fxmlFileName);
+            }
+            preloadNextPage();
+        });
+        pause.play();
     }
 
     private void addDragListeners(Parent root) {
@@ -1,44 +1,50 @@
 package com.liamtseva.cafepossystem.presentation.controller;
 
 import com.liamtseva.cafepossystem.domain.security.AuthenticatedUser;
+import com.liamtseva.cafepossystem.persistence.cache.CachingMenuItemRepository;
+import com.liamtseva.cafepossystem.persistence.cache.CategoryIndex;
 import com.liamtseva.cafepossystem.persistence.connection.DatabaseConnection;
 import com.liamtseva.cafepossystem.persistence.entity.Cart;
 import com.liamtseva.cafepossystem.persistence.entity.Category;
-import com.liamtseva.cafepossystem.persistence.entity.MenuItem;
+import com.liamtseva.cafepossystem.persistence.entity.MenuItemSummary;
 import com.liamtseva.cafepossystem.persistence.entity.User;
 import com.liamtseva.cafepossystem.persistence.repository.contract.CartRepository;
 import com.liamtseva.cafepossystem.persistence.repository.contract.CategoryRepository;
-import com.liamtseva.cafepossystem.persistence.repository.contract.MenuItemRepository;
 import com.liamtseva.cafepossystem.persistence.repository.impl.CartRepositoryImpl;
 import com.liamtseva.cafepossystem.persistence.repository.impl.CategoryRepositoryImpl;
-import com.liamtseva.cafepossystem.persistence.repository.impl.MenuItemRepositoryImpl;
+import com.liamtseva.cafepossystem.persistence.repository.async.AsyncRepository;
+import com.liamtseva.cafepossystem.presentation.async.FxFutures;
+import com.liamtseva.cafepossystem.presentation.component.MenuItemCardView;
+import com.liamtseva.cafepossystem.presentation.search.DebouncedSearch;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
-import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.ColumnConstraints;
-import javafx.scene.layout.GridPane;
-import javafx.scene.layout.RowConstraints;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
-public class MenuController {
+public class MenuController implements RefreshablePage {
 
-    @FXML
-    private Label errorLabel;
+    private static final int SEARCH_LIMIT = 200;
+    private static final int CARDS_PER_ROW = 4;
+    private static final double CARD_GAP = 20;
+    // Висота картки (до 380) з проміжком між рядками
+    private static final double ROW_HEIGHT = 400;
 
     @FXML
-    private GridPane menuGridPane;
+    private Label errorLabel;
 
     @FXML
-    private ScrollPane menuScrollPane;
+    private ListView<List<MenuItemSummary>> menuListView;
 
     @FXML
     private TextField searchTextField;
@@ -46,28 +52,57 @@ public class MenuController {
     @FXML
     private ComboBox<Category> categoryComboBox;
 
-    private MenuItemRepository menuItemRepository;
+    private CachingMenuItemRepository menuItemRepository;
     private CartRepository cartRepository;
     private CategoryRepository categoryRepository;
-    private List<MenuItem> cartItems;
+    private AsyncRepository<CachingMenuItemRepository> asyncMenuItemRepository;
+    private AsyncRepository<CartRepository> asyncCartRepository;
+    private AsyncRepository<CategoryRepository> asyncCategoryRepository;
+    private DebouncedSearch<String, List<MenuItemSummary>> search;
+    // Результати останнього пошуку за релевантністю; null — пошукового запиту немає
+    private List<MenuItemSummary> searchResults;
 
     public MenuController() {
-        this.menuItemRepository = new MenuItemRepositoryImpl(new DatabaseConnection().getDataSource());
-        this.cartRepository = new CartRepositoryImpl(new DatabaseConnection().getDataSource());
-        this.categoryRepository = new CategoryRepositoryImpl(new DatabaseConnection().getDataSource());
+        this.menuItemRepository = CachingMenuItemRepository.forDataSources(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.cartRepository = new CartRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.categoryRepository = new CategoryRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.asyncMenuItemRepository = AsyncRepository.of(menuItemRepository);
+        this.asyncCategoryRepository = AsyncRepository.of(categoryRepository);
+        this.asyncCartRepository = AsyncRepository.of(cartRepository);
+    }
+
+    private enum CartAddition {
+        ADDED, ALREADY_IN_CART, FAILED
     }
 
     @FXML
     public void initialize() {
         if (searchTextField != null) {
             searchTextField.setPromptText("Пошук страв...");
-            searchTextField.setOnKeyReleased(event -> searchMenuItems());
+            search = new DebouncedSearch<>(
+                    () -> searchTextField.getText() == null ? "" : searchTextField.getText().trim(),
+                    query -> {
+                        // Результати пошуку звужуються знімком каталогу, тож він має бути свіжим
+                        menuItemRepository.refreshIfChanged();
+                        return query.isEmpty() ? null : menuItemRepository.search(query, SEARCH_LIMIT);
+                    },
+                    results -> {
+                        searchResults = results;
+                        filterMenuItems();
+                    });
+            searchTextField.textProperty().addListener((observable, oldValue, newValue) -> search.schedule());
         }
 
         if (categoryComboBox != null) {
             categoryComboBox.getItems().add(new Category(null, "Усі категорії"));
-            categoryComboBox.getItems().addAll(categoryRepository.findAll());
             categoryComboBox.setValue(categoryComboBox.getItems().get(0));
+            FxFutures.onFx(asyncCategoryRepository.supply(CategoryRepository::findAll),
+                    categories -> categoryComboBox.getItems().addAll(categories),
+                    error -> {
+                        if (errorLabel != null) {
+                            errorLabel.setText("Помилка завантаження категорій: " + error.getMessage());
+                        }
+                    });
             categoryComboBox.setCellFactory(param -> new ListCell<Category>() {
                 @Override
                 protected void updateItem(Category item, boolean empty) {
@@ -90,124 +125,164 @@ public class MenuController {
                     }
                 }
             });
-            categoryComboBox.setOnAction(event -> filterMenuItemsByCategory());
+            categoryComboBox.setOnAction(event -> refreshAndFilterMenuItems());
         }
 
+        if (menuListView != null) {
+            menuListView.setFixedCellSize(ROW_HEIGHT);
+            menuListView.setCellFactory(listView -> new MenuRowCell());
+        }
+
+        loadMenuItems();
+    }
+
+    @Override
+    public void onShow() {
         loadMenuItems();
     }
 
     private void loadMenuItems() {
-        User currentUser = AuthenticatedUser.getInstance().getCurrentUser();
-        if (currentUser != null) {
-            cartItems = menuItemRepository.findCartItemsByUserId(currentUser.id());
-        } else {
-            cartItems = List.of();
+        if (errorLabel != null && menuListView != null && menuListView.getItems().isEmpty()) {
+            errorLabel.setText("Завантаження меню...");
         }
-        List<MenuItem> menuItems = menuItemRepository.findAll();
-        displayMenuCards(menuItems);
+        FxFutures.onFx(asyncMenuItemRepository.supply(repository -> {
+                    // Страви, додані чи видалені на інших терміналах
+                    repository.refreshIfChanged();
+                    return repository.findAllSummaries();
+                }),
+                menuItems -> {
+                    // Закешовану сторінку перечитують при показі — обрані категорія й пошук лишаються
+                    if (searchResults == null && getSelectedCategoryIds().isEmpty()) {
+                        displayMenuCards(menuItems);
+                    } else {
+                        filterMenuItems();
+                    }
+                },
+                error -> {
+                    if (errorLabel != null) {
+                        errorLabel.setText("Помилка завантаження меню: " + error.getMessage());
+                    }
+                });
     }
 
-    private void displayMenuCards(List<MenuItem> menuItems) {
-        if (menuGridPane == null || menuScrollPane == null || errorLabel == null) {
+    // Картки не створюються заново: список рядків лише замінюється, а видимі комірки
+    // перепризначають свої картки новим стравам
+    private void displayMenuCards(List<MenuItemSummary> menuItems) {
+        if (menuListView == null || errorLabel == null) {
             return;
         }
-        menuGridPane.getChildren().clear();
         if (menuItems.isEmpty()) {
             errorLabel.setText("Немає доступних страв");
-            menuScrollPane.setVisible(false);
+            menuListView.getItems().clear();
+            menuListView.setVisible(false);
             return;
         } else {
             errorLabel.setText("");
-            menuScrollPane.setVisible(true);
+            menuListView.setVisible(true);
         }
 
-        int column = 0;
-        int row = 0;
-        int cardsPerRow = 4;
-
-        menuGridPane.setHgap(20);
-        menuGridPane.setVgap(20);
-
-        menuGridPane.getColumnConstraints().clear();
-        menuGridPane.getRowConstraints().clear();
-
-        for (int i = 0; i < cardsPerRow; i++) {
-            ColumnConstraints columnConstraints = new ColumnConstraints();
-            columnConstraints.setPercentWidth(100.0 / cardsPerRow);
-            columnConstraints.setMinWidth(220);
-            columnConstraints.setPrefWidth(240);
-            menuGridPane.getColumnConstraints().add(columnConstraints);
+        List<List<MenuItemSummary>> rows = new ArrayList<>((menuItems.size() + CARDS_PER_ROW - 1) / CARDS_PER_ROW);
+        for (int from = 0; from < menuItems.size(); from += CARDS_PER_ROW) {
+            rows.add(menuItems.subList(from, Math.min(from + CARDS_PER_ROW, menuItems.size())));
         }
+        menuListView.getItems().setAll(rows);
+    }
 
-        for (int i = 0; i < (int) Math.ceil((double) menuItems.size() / cardsPerRow); i++) {
-            RowConstraints rowConstraints = new RowConstraints();
-            rowConstraints.setMinHeight(360);
-            rowConstraints.setPrefHeight(380);
-            menuGridPane.getRowConstraints().add(rowConstraints);
-        }
+    private void loadThumbnail(MenuItemCard card, MenuItemSummary item) {
+        // Поки мініатюра читалась, комірку могли прокрутити й віддати іншій страві
+        FxFutures.onFx(asyncMenuItemRepository.supply(repository -> repository.loadThumbnail(item.id())),
+                thumbnail -> {
+                    if (card.getMenuItem() == item) {
+                        card.showImage(thumbnail);
+                    }
+                },
+                error -> {
+                    // Картка лишається із заглушкою
+                });
+    }
 
-        for (MenuItem item : menuItems) {
-            AnchorPane card = loadMenuItemCard(item);
-            if (card != null) {
-                menuGridPane.add(card, column, row);
-                column++;
-                if (column == cardsPerRow) {
-                    column = 0;
-                    row++;
-                }
+    /**
+     * Рядок сітки меню. Комірок стільки, скільки рядків уміщує видима область (плюс запас
+     * {@link ListView}), і кожна один раз будує {@link #CARDS_PER_ROW} карток;
+     * під час прокрутки та після фільтрації картки лише отримують нові страви.
+     */
+    private final class MenuRowCell extends ListCell<List<MenuItemSummary>> {
+        private final HBox row = new HBox(CARD_GAP);
+        private final List<MenuItemCardView> cards = new ArrayList<>(CARDS_PER_ROW);
+        private final List<MenuItemCard> controllers = new ArrayList<>(CARDS_PER_ROW);
+
+        private MenuRowCell() {
+            setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+            // Ширину рядку задає видима область, а картки розтягуються в її межах (220–280);
+            // інакше ширина карток за замовчуванням дала б горизонтальну прокрутку
+            setPrefWidth(0);
+            row.setAlignment(Pos.TOP_LEFT);
+            for (int i = 0; i < CARDS_PER_ROW; i++) {
+                MenuItemCardView card = new MenuItemCardView();
+                MenuItemCard controller = new MenuItemCard(card);
+                controller.setParentController(MenuController.this);
+                HBox.setHgrow(card, Priority.ALWAYS);
+                cards.add(card);
+                controllers.add(controller);
+                row.getChildren().add(card);
             }
         }
-    }
 
-    private AnchorPane loadMenuItemCard(MenuItem item) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/menuItemCard.fxml"));
-            AnchorPane card = loader.load();
-            MenuItemCard controller = loader.getController();
-            if (controller != null) {
-                controller.setMenuItem(item);
-                controller.setParentController(this);
-                return card;
+        @Override
+        protected void updateItem(List<MenuItemSummary> items, boolean empty) {
+            super.updateItem(items, empty);
+            if (empty || items == null) {
+                setGraphic(null);
+                return;
             }
-            return null;
-        } catch (IOException e) {
-            if (errorLabel != null) {
-                errorLabel.setText("Помилка завантаження картки: " + e.getMessage());
+            for (int i = 0; i < cards.size(); i++) {
+                MenuItemCardView card = cards.get(i);
+                if (i < items.size()) {
+                    MenuItemSummary item = items.get(i);
+                    MenuItemCard controller = controllers.get(i);
+                    // Той самий рядок перемальовується без зміни страви — мініатюру не перечитуємо
+                    if (controller.getMenuItem() != item) {
+                        controller.setMenuItem(item);
+                        loadThumbnail(controller, item);
+                    }
+                    card.setVisible(true);
+                } else {
+                    card.setVisible(false);
+                }
             }
-            return null;
+            setGraphic(row);
         }
     }
 
-    private void searchMenuItems() {
-        if (searchTextField == null) {
-            return;
-        }
-        String query = searchTextField.getText().toLowerCase().trim();
-        List<MenuItem> allMenuItems = getFilteredItemsByCategory();
-        List<MenuItem> result = allMenuItems.stream()
-            .filter(item -> item.name().toLowerCase().contains(query) || (item.description() != null && item.description().toLowerCase().contains(query)))
-            .collect(Collectors.toList());
-        displayMenuCards(result);
+    // Лічильник каталогу читається у фоновому потоці, фільтрація — вже над свіжим знімком
+    private void refreshAndFilterMenuItems() {
+        FxFutures.onFx(asyncMenuItemRepository.supply(CachingMenuItemRepository::refreshIfChanged),
+                refreshed -> filterMenuItems(),
+                error -> filterMenuItems());
     }
 
-    private void filterMenuItemsByCategory() {
-        List<MenuItem> filteredItems = getFilteredItemsByCategory();
-        String query = searchTextField.getText().toLowerCase().trim();
-        List<MenuItem> result = filteredItems.stream()
-            .filter(item -> item.name().toLowerCase().contains(query) || (item.description() != null && item.description().toLowerCase().contains(query)))
-            .collect(Collectors.toList());
-        displayMenuCards(result);
+    // Категорія звужує каталог бітмапом; результати пошуку лишаються в порядку релевантності.
+    // Зміна категорії перефільтровує вже отримані результати без звернення до бази
+    private void filterMenuItems() {
+        CategoryIndex index = menuItemRepository.categoryIndex();
+        BitSet selection = index.anyOf(getSelectedCategoryIds());
+        if (searchResults == null) {
+            displayMenuCards(index.select(selection));
+        } else {
+            displayMenuCards(index.retain(searchResults, selection));
+        }
     }
 
-    private List<MenuItem> getFilteredItemsByCategory() {
-        Category selectedCategory = categoryComboBox.getValue();
+    private List<UUID> getSelectedCategoryIds() {
+        Category selectedCategory = categoryComboBox != null ? categoryComboBox.getValue() : null;
         if (selectedCategory == null || selectedCategory.id() == null) {
-            return menuItemRepository.findAll();
+            return List.of();
         }
-        return menuItemRepository.findByCategoryId(selectedCategory.id());
+        return List.of(selectedCategory.id());
     }
 
-    public void addToCart(MenuItem item, int quantity) {
+    // Перевірка кошика і запис виконуються у фоновому потоці; кнопка картки вимкнена до їх завершення
+    public void addToCart(MenuItemSummary item, int quantity, Node addButton) {
         User currentUser = AuthenticatedUser.getInstance().getCurrentUser();
         if (currentUser == null) {
             if (errorLabel != null) {
@@ -232,14 +307,31 @@ public class MenuController {
             subtotal,
             false
         );
-        Cart savedCartItem = cartRepository.save(cartItem);
-
-        if (savedCartItem != null) {
-            loadMenuItems();
-        } else {
-            if (errorLabel != null) {
-                errorLabel.setText("Помилка додавання до кошика");
-            }
-        }
+        UUID userId = currentUser.id();
+        FxFutures.onFx(FxFutures.whileLoading(asyncCartRepository.supply(repository -> {
+                    boolean itemExistsInCart = repository.findActiveByUserId(userId).stream()
+                        .anyMatch(existing -> existing.itemId().equals(item.id()));
+                    if (itemExistsInCart) {
+                        return CartAddition.ALREADY_IN_CART;
+                    }
+                    return repository.save(cartItem) != null ? CartAddition.ADDED : CartAddition.FAILED;
+                }), addButton),
+                addition -> {
+                    // Каталог не змінився — перемальовувати сітку не потрібно
+                    switch (addition) {
+                        case ADDED -> AlertController.showAlert("Товар додано до кошика!");
+                        case ALREADY_IN_CART -> AlertController.showAlert("Цей елемент уже є у Вашому кошику!");
+                        case FAILED -> {
+                            if (errorLabel != null) {
+                                errorLabel.setText("Помилка додавання до кошика");
+                            }
+                        }
+                    }
+                },
+                error -> {
+                    if (errorLabel != null) {
+                        errorLabel.setText("Помилка додавання до кошика: " + error.getMessage());
+                    }
+                });
     }
 }
@@ -1,14 +1,18 @@
 package com.liamtseva.cafepossystem.presentation.controller;
 
 import com.liamtseva.cafepossystem.domain.security.AuthenticatedUser;
+import com.liamtseva.cafepossystem.persistence.cache.CachingMenuItemRepository;
 import com.liamtseva.cafepossystem.persistence.connection.DatabaseConnection;
-import com.liamtseva.cafepossystem.persistence.entity.Cart;
+import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
 import com.liamtseva.cafepossystem.persistence.entity.MenuItem;
+import com.liamtseva.cafepossystem.persistence.entity.MenuItemSummary;
 import com.liamtseva.cafepossystem.persistence.entity.User;
-import com.liamtseva.cafepossystem.persistence.repository.contract.CartRepository;
-import com.liamtseva.cafepossystem.persistence.repository.impl.CartRepositoryImpl;
+import com.liamtseva.cafepossystem.persistence.repository.contract.MenuItemRepository;
+import com.liamtseva.cafepossystem.presentation.component.MenuItemCardView;
+import com.liamtseva.cafepossystem.presentation.image.ImageCache;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -18,9 +22,7 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.Stage;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.List;
 import javafx.stage.StageStyle;
 
 public class MenuItemCard {
@@ -43,12 +45,32 @@ public class MenuItemCard {
     @FXML
     private Button addToCartButton;
 
+    private Parent root;
     private MenuController parentController;
-    private MenuItem menuItem;
-    private CartRepository cartRepository;
+    private MenuItemSummary menuItem;
+    private MenuItemRepository menuItemRepository;
 
     public MenuItemCard() {
-        this.cartRepository = new CartRepositoryImpl(new DatabaseConnection().getDataSource());
+        this.menuItemRepository = CachingMenuItemRepository.forDataSources(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+    }
+
+    /** Картка над вузлами, побудованими кодом, — без завантаження menuItemCard.fxml. */
+    public MenuItemCard(MenuItemCardView view) {
+        this();
+        this.root = view;
+        this.menuImage = view.getMenuImage();
+        this.menuItemName = view.getMenuItemName();
+        this.menuItemPrice = view.getMenuItemPrice();
+        this.menuItemCalories = view.getMenuItemCalories();
+        this.quantity = view.getQuantity();
+        this.addToCartButton = view.getAddToCartButton();
+        view.getDetailsButton().setOnAction(event -> showDetails());
+        initialize();
+    }
+
+    /** Кореневий вузол картки, створеної з {@link MenuItemCardView}. */
+    public Parent getRoot() {
+        return root;
     }
 
     @FXML
@@ -63,7 +85,7 @@ public class MenuItemCard {
         }
     }
 
-    public void setMenuItem(MenuItem item) {
+    public void setMenuItem(MenuItemSummary item) {
         this.menuItem = item;
         if (menuItemName != null) {
             menuItemName.setText(item.name());
@@ -74,12 +96,21 @@ public class MenuItemCard {
         if (menuItemCalories != null) {
             menuItemCalories.setText(item.calories() != null ? item.calories() + " ккал" : "0 ккал");
         }
+        // Картку перевикористовують для іншої страви: скидаємо кількість і до приходу мініатюри
+        // показуємо заглушку, а не фото попередньої страви
+        if (quantity != null && quantity.getValueFactory() != null) {
+            quantity.getValueFactory().setValue(1);
+        }
+        showImage(null);
+    }
+
+    public MenuItemSummary getMenuItem() {
+        return menuItem;
+    }
+
+    public void showImage(byte[] image) {
         if (menuImage != null) {
-            if (item.image() != null && item.image().length > 0) {
-                menuImage.setImage(new Image(new ByteArrayInputStream(item.image())));
-            } else {
-                menuImage.setImage(new Image(getClass().getResourceAsStream("/data/ingredients.png")));
-            }
+            ImageCache.shared().display(menuImage, menuItem.id(), image, "/data/ingredients.png");
         }
     }
 
@@ -111,19 +142,8 @@ public class MenuItemCard {
             return;
         }
 
-        List<Cart> userCartItems = cartRepository.findByUserId(currentUser.id());
-        boolean itemExistsInCart = userCartItems.stream()
-            .filter(cartItem -> !cartItem.isOrdered())
-            .anyMatch(cartItem -> cartItem.itemId().equals(menuItem.id()));
-
-        if (itemExistsInCart) {
-            AlertController.showAlert("Цей елемент уже є у Вашому кошику!");
-            return;
-        }
-
         if (parentController != null) {
-            parentController.addToCart(menuItem, qty);
-            AlertController.showAlert("Товар додано до кошика!");
+            parentController.addToCart(menuItem, qty, addToCartButton);
         } else {
             AlertController.showAlert("Помилка: parentController є null");
         }
@@ -142,10 +162,12 @@ public class MenuItemCard {
             stage.setResizable(false);
 
             MenuItemDetailsController controller = loader.getController();
-            controller.setMenuItem(menuItem);
+            // Картка тримає лише короткий опис; повна страва з зображенням читається при відкритті
+            MenuItem details = menuItemRepository.findById(menuItem.id());
+            controller.setMenuItem(details);
 
             stage.showAndWait();
-        } catch (IOException e) {
+        } catch (IOException | EntityNotFoundException e) {
             AlertController.showAlert("Не вдалося завантажити деталі страви");
         }
     }
@@ -1,11 +1,14 @@
 package com.liamtseva.cafepossystem.presentation.controller;
 
 import com.liamtseva.cafepossystem.domain.exception.EntityNotFoundException;
+import com.liamtseva.cafepossystem.persistence.cache.CachingMenuItemRepository;
 import com.liamtseva.cafepossystem.persistence.connection.DatabaseConnection;
 import com.liamtseva.cafepossystem.persistence.entity.Category;
 import com.liamtseva.cafepossystem.persistence.entity.MenuItem;
+import com.liamtseva.cafepossystem.persistence.repository.contract.MenuItemRepository;
 import com.liamtseva.cafepossystem.persistence.repository.impl.CategoryRepositoryImpl;
-import com.liamtseva.cafepossystem.persistence.repository.impl.MenuItemRepositoryImpl;
+import com.liamtseva.cafepossystem.persistence.repository.async.AsyncRepository;
+import com.liamtseva.cafepossystem.presentation.async.FxFutures;
 import com.liamtseva.cafepossystem.presentation.validation.MenuItemValidator;
 import com.liamtseva.cafepossystem.presentation.validation.ValidationResult;
 import javafx.beans.property.SimpleStringProperty;
@@ -18,7 +21,7 @@ import javafx.util.StringConverter;
 
 import java.util.List;
 
-public class MenuItemManagementController {
+public class MenuItemManagementController implements RefreshablePage {
 
     @FXML
     private TextField nameField;
@@ -49,15 +52,19 @@ public class MenuItemManagementController {
     @FXML
     private TableColumn<MenuItem, String> descriptionColumn;
 
-    private MenuItemRepositoryImpl menuItemRepository;
+    private MenuItemRepository menuItemRepository;
     private CategoryRepositoryImpl categoryRepository;
+    private AsyncRepository<MenuItemRepository> asyncMenuItemRepository;
+    private AsyncRepository<CategoryRepositoryImpl> asyncCategoryRepository;
     private ObservableList<MenuItem> menuItemList;
     private ObservableList<Category> categoryList;
     private MenuItem selectedMenuItem;
 
     public MenuItemManagementController() {
-        this.menuItemRepository = new MenuItemRepositoryImpl(new DatabaseConnection().getDataSource());
-        this.categoryRepository = new CategoryRepositoryImpl(new DatabaseConnection().getDataSource());
+        this.menuItemRepository = CachingMenuItemRepository.forDataSources(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.categoryRepository = new CategoryRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.asyncMenuItemRepository = AsyncRepository.of(menuItemRepository);
+        this.asyncCategoryRepository = AsyncRepository.of(categoryRepository);
         this.menuItemList = FXCollections.observableArrayList();
         this.categoryList = FXCollections.observableArrayList();
     }
@@ -103,27 +110,34 @@ public class MenuItemManagementController {
         });
     }
 
+    @Override
+    public void onShow() {
+        loadMenuItems();
+        loadCategories();
+    }
+
+    // Страви з зображеннями (редагування зберігає наявне фото) читаються у фоновому потоці:
+    // сторінку догружають одразу після входу, і потік JavaFX не чекає на байти фото
     private void loadMenuItems() {
-        try {
-            List<MenuItem> menuItems = menuItemRepository.findAll();
-            menuItemList.setAll(menuItems);
-            menuItemTable.setItems(menuItemList);
-            if (menuItemList.isEmpty()) {
-                menuItemTable.setPlaceholder(new Label("Немає елементів меню"));
-            }
-        } catch (Exception e) {
-            AlertController.showAlert("Помилка при завантаженні елементів меню: " + e.getMessage());
-        }
+        FxFutures.onFx(asyncMenuItemRepository.supply(MenuItemRepository::findAll),
+                menuItems -> {
+                    menuItemList.setAll(menuItems);
+                    menuItemTable.setItems(menuItemList);
+                    if (menuItemList.isEmpty()) {
+                        menuItemTable.setPlaceholder(new Label("Немає елементів меню"));
+                    }
+                    RefreshablePage.reapplySearch(searchTextField, this::searchMenuItems);
+                },
+                error -> AlertController.showAlert("Помилка при завантаженні елементів меню: " + error.getMessage()));
     }
 
     private void loadCategories() {
-        try {
-            List<Category> categories = categoryRepository.findAll();
-            categoryList.setAll(categories);
-            categoryCheckComboBox.getItems().addAll(categoryList);
-        } catch (Exception e) {
-            AlertController.showAlert("Помилка при завантаженні категорій: " + e.getMessage());
-        }
+        FxFutures.onFx(asyncCategoryRepository.supply(CategoryRepositoryImpl::findAll),
+                categories -> {
+                    categoryList.setAll(categories);
+                    categoryCheckComboBox.getItems().setAll(categoryList);
+                },
+                error -> AlertController.showAlert("Помилка при завантаженні категорій: " + error.getMessage()));
     }
 
     private void searchMenuItems(String searchText) {
@@ -1,11 +1,10 @@
 package com.liamtseva.cafepossystem.presentation.controller;
 
-import com.liamtseva.cafepossystem.persistence.entity.Cart;
-import com.liamtseva.cafepossystem.persistence.entity.MenuItem;
 import com.liamtseva.cafepossystem.persistence.entity.Order;
-import com.liamtseva.cafepossystem.persistence.repository.contract.CartRepository;
-import com.liamtseva.cafepossystem.persistence.repository.contract.MenuItemRepository;
+import com.liamtseva.cafepossystem.persistence.entity.OrderLine;
+import com.liamtseva.cafepossystem.persistence.repository.async.AsyncRepository;
 import com.liamtseva.cafepossystem.persistence.repository.contract.OrderRepository;
+import com.liamtseva.cafepossystem.presentation.async.FxFutures;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
@@ -15,9 +14,7 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.net.URL;
-import java.util.List;
 import java.util.ResourceBundle;
-import java.util.UUID;
 
 public class OrderDetailsController implements Initializable {
 
@@ -35,16 +32,12 @@ public class OrderDetailsController implements Initializable {
     private Button closeButton;
 
     private final Order order;
-    private final OrderRepository orderRepository;
-    private final CartRepository cartRepository;
-    private final MenuItemRepository menuItemRepository;
+    private final AsyncRepository<OrderRepository> asyncOrderRepository;
     private Stage stage;
 
-    public OrderDetailsController(Order order, OrderRepository orderRepository, CartRepository cartRepository, MenuItemRepository menuItemRepository) {
+    public OrderDetailsController(Order order, OrderRepository orderRepository) {
         this.order = order;
-        this.orderRepository = orderRepository;
-        this.cartRepository = cartRepository;
-        this.menuItemRepository = menuItemRepository;
+        this.asyncOrderRepository = AsyncRepository.of(orderRepository);
     }
 
     @Override
@@ -66,45 +59,41 @@ public class OrderDetailsController implements Initializable {
     }
     
     private void loadOrderItems() {
-        List<String> cartIds = orderRepository.findCartIdsByOrderId(order.id());
-        if (cartIds.isEmpty()) {
-            Label noItemsLabel = new Label("Немає товарів у замовленні");
-            noItemsLabel.getStyleClass().add("order-no-items");
-            itemsContainer.getChildren().add(noItemsLabel);
-        } else {
-            for (String cartIdStr : cartIds) {
-                try {
-                    UUID cartId = UUID.fromString(cartIdStr);
-                    Cart cartItem = cartRepository.findById(cartId);
-                    if (cartItem != null) {
-                        MenuItem menuItem = menuItemRepository.findById(cartItem.itemId());
-                        VBox itemCard = createItemCard(menuItem, cartItem);
-                        itemsContainer.getChildren().add(itemCard);
-                    }
-                } catch (Exception e) {
-                    Label errorLabel = new Label("Помилка завантаження товару");
-                    errorLabel.getStyleClass().add("order-error-text");
-                    itemsContainer.getChildren().add(errorLabel);
+        // Позиції разом з назвами страв приходять одним запитом, без окремих пошуків кошика і страви
+        FxFutures.onFx(asyncOrderRepository.supply(repository -> repository.findOrderLines(order.id())),
+            lines -> {
+                if (lines.isEmpty()) {
+                    Label noItemsLabel = new Label("Немає товарів у замовленні");
+                    noItemsLabel.getStyleClass().add("order-no-items");
+                    itemsContainer.getChildren().add(noItemsLabel);
+                    return;
                 }
-            }
-        }
+                for (OrderLine line : lines) {
+                    itemsContainer.getChildren().add(createItemCard(line));
+                }
+            },
+            error -> {
+                Label errorLabel = new Label("Помилка завантаження товарів");
+                errorLabel.getStyleClass().add("order-error-text");
+                itemsContainer.getChildren().add(errorLabel);
+            });
     }
     
-    private VBox createItemCard(MenuItem menuItem, Cart cartItem) {
+    private VBox createItemCard(OrderLine line) {
         VBox card = new VBox(8);
         card.getStyleClass().add("order-item-card");
         
         HBox nameRow = new HBox(8);
         Label nameIcon = new Label("");
         nameIcon.getStyleClass().add("order-item-icon");
-        Label nameLabel = new Label(menuItem != null ? menuItem.name() : "[Видалений товар]");
+        Label nameLabel = new Label(line.itemName() != null ? line.itemName() : "[Видалений товар]");
         nameLabel.getStyleClass().add("order-item-name");
         nameRow.getChildren().addAll(nameIcon, nameLabel);
         
         HBox detailsRow = new HBox(16);
-        Label quantityLabel = new Label("Кількість: " + cartItem.quantity());
+        Label quantityLabel = new Label("Кількість: " + line.quantity());
         quantityLabel.getStyleClass().add("order-item-quantity");
-        Label priceLabel = new Label(String.format("%.2f грн", cartItem.subtotal()));
+        Label priceLabel = new Label(String.format("%.2f грн", line.subtotal()));
         priceLabel.getStyleClass().add("order-item-price");
         detailsRow.getChildren().addAll(quantityLabel, priceLabel);
         
@@ -6,15 +6,29 @@ import com.liamtseva.cafepossystem.persistence.entity.User;
 import com.liamtseva.cafepossystem.persistence.entity.enums.OrderStatus;
 import com.liamtseva.cafepossystem.persistence.repository.impl.OrderRepositoryImpl;
 import com.liamtseva.cafepossystem.persistence.repository.impl.UserRepositoryImpl;
+import com.liamtseva.cafepossystem.persistence.repository.async.AsyncRepository;
+import com.liamtseva.cafepossystem.presentation.async.FxFutures;
+import com.liamtseva.cafepossystem.presentation.search.DebouncedSearch;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
-public class OrderManagementController {
+public class OrderManagementController implements RefreshablePage {
+
+    private static final int PAGE_SIZE = 50;
 
     @FXML
     private ComboBox<OrderStatus> statusComboBox;
@@ -31,14 +45,34 @@ public class OrderManagementController {
 
     private OrderRepositoryImpl orderRepository;
     private UserRepositoryImpl userRepository;
+    private AsyncRepository<OrderRepositoryImpl> asyncOrderRepository;
+    private AsyncRepository<UserRepositoryImpl> asyncUserRepository;
     private ObservableList<Order> orderList;
+    private FilteredList<Order> filteredOrders;
+    private Order lastLoadedOrder;
+    private boolean hasMoreOrders = true;
+    private boolean loadingPage;
+    // Сторінки, запитані до перезавантаження списку, відкидаються
+    private long pageLoad;
     private ObservableList<User> userList;
     private Order selectedOrder;
+    private DebouncedSearch<OrderQuery, OrderMatches> ordersSearch;
+
+    // Стан таблиці, знятий у потоці JavaFX для фонового пошуку
+    private record OrderQuery(String text, List<Order> loaded, Order after, boolean hasMore, List<User> users) {
+    }
+
+    // Фільтр пошуку і сторінки, дочитані після курсора after, поки не набралась сторінка збігів
+    private record OrderMatches(Predicate<Order> predicate, Order after, List<Order> pages, boolean hasMore) {
+    }
 
     public OrderManagementController() {
-        this.orderRepository = new OrderRepositoryImpl(new DatabaseConnection().getDataSource());
-        this.userRepository = new UserRepositoryImpl(new DatabaseConnection().getDataSource());
+        this.orderRepository = new OrderRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.userRepository = new UserRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.asyncOrderRepository = AsyncRepository.of(orderRepository);
+        this.asyncUserRepository = AsyncRepository.of(userRepository);
         this.orderList = FXCollections.observableArrayList();
+        this.filteredOrders = new FilteredList<>(orderList);
         this.userList = FXCollections.observableArrayList();
     }
 
@@ -50,12 +84,30 @@ public class OrderManagementController {
         });
         statusColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().status().toString()));
 
+        SortedList<Order> sortedOrders = new SortedList<>(filteredOrders);
+        sortedOrders.comparatorProperty().bind(orderTable.comparatorProperty());
+        orderTable.setItems(sortedOrders);
+        orderTable.setRowFactory(table -> new TableRow<>() {
+            @Override
+            protected void updateItem(Order order, boolean empty) {
+                super.updateItem(order, empty);
+                // Користувач догортав до останнього завантаженого рядка — підвантажуємо наступну сторінку
+                if (!empty && getIndex() == getTableView().getItems().size() - 1) {
+                    Platform.runLater(() -> loadNextPage());
+                }
+            }
+        });
+
         loadOrders();
         loadUsers();
 
         statusComboBox.setItems(FXCollections.observableArrayList(OrderStatus.values()));
 
-        searchTextField.textProperty().addListener((observable, oldValue, newValue) -> searchOrders(newValue));
+        ordersSearch = new DebouncedSearch<>(
+                () -> new OrderQuery(searchTextField.getText(), List.copyOf(orderList), lastLoadedOrder, hasMoreOrders, List.copyOf(userList)),
+                this::findOrders,
+                this::showOrders);
+        searchTextField.textProperty().addListener((observable, oldValue, newValue) -> ordersSearch.schedule());
 
         updateStatusButton.setOnAction(event -> updateOrderStatus());
 
@@ -66,38 +118,107 @@ public class OrderManagementController {
                 });
     }
 
+    @Override
+    public void onShow() {
+        loadUsers();
+        loadOrders();
+    }
+
     private void loadOrders() {
-        try {
-            List<Order> orders = orderRepository.findAll();
-            orderList.setAll(orders);
-            orderTable.setItems(orderList);
-            if (orderList.isEmpty()) {
-                orderTable.setPlaceholder(new Label("Немає замовлень"));
-            }
-        } catch (Exception e) {
-            AlertController.showAlert("Помилка при завантаженні замовлень: " + e.getMessage());
-        }
+        pageLoad++;
+        orderList.clear();
+        lastLoadedOrder = null;
+        hasMoreOrders = true;
+        loadingPage = false;
+        loadNextPage();
     }
 
-    private void searchOrders(String searchText) {
-        if (searchText == null || searchText.trim().isEmpty()) {
-            loadOrders();
+    private void loadNextPage() {
+        if (loadingPage || !hasMoreOrders) {
             return;
         }
+        loadingPage = true;
+        long load = pageLoad;
+        Order after = lastLoadedOrder;
+        if (orderList.isEmpty()) {
+            orderTable.setPlaceholder(new Label("Завантаження замовлень..."));
+        }
+        FxFutures.onFx(asyncOrderRepository.supply(repository -> repository.findPageAfter(after, PAGE_SIZE)),
+                page -> {
+                    if (load != pageLoad) {
+                        return;
+                    }
+                    loadingPage = false;
+                    // Пошук міг дочитати ці сторінки раніше — тоді курсор уже зсунувся
+                    if (lastLoadedOrder == after) {
+                        hasMoreOrders = page.size() == PAGE_SIZE;
+                        if (!page.isEmpty()) {
+                            lastLoadedOrder = page.get(page.size() - 1);
+                            orderList.addAll(page);
+                        }
+                    }
+                    if (filteredOrders.isEmpty()) {
+                        orderTable.setPlaceholder(new Label("Немає замовлень"));
+                    }
+                },
+                error -> {
+                    if (load != pageLoad) {
+                        return;
+                    }
+                    loadingPage = false;
+                    hasMoreOrders = false;
+                    AlertController.showAlert("Помилка при завантаженні замовлень: " + error.getMessage());
+                });
+    }
+
+    // Виконується у фоновому потоці: збіги можуть бути на ще не завантажених сторінках
+    private OrderMatches findOrders(OrderQuery query) {
+        Predicate<Order> predicate = searchPredicate(query.text(), query.users());
+        Predicate<Order> matches = predicate != null ? predicate : order -> true;
+        long found = query.loaded().stream().filter(matches).count();
+        List<Order> pages = new ArrayList<>();
+        Order after = query.after();
+        boolean hasMore = query.hasMore();
+        while (hasMore && found < PAGE_SIZE) {
+            List<Order> page = orderRepository.findPageAfter(after, PAGE_SIZE);
+            hasMore = page.size() == PAGE_SIZE;
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1);
+                pages.addAll(page);
+                found += page.stream().filter(matches).count();
+            }
+        }
+        return new OrderMatches(predicate, query.after(), pages, hasMore);
+    }
 
-        List<Order> filteredOrders = orderList.stream()
-                .filter(order -> {
-                    User user = findUserById(order.userId());
-                    return String.valueOf(order.id()).contains(searchText) ||
-                            (user != null && user.username().toLowerCase().contains(searchText.toLowerCase()));
-                })
-                .toList();
+    private void showOrders(OrderMatches result) {
+        // Поки йшов пошук, прокрутка могла підвантажити ті самі сторінки — тоді дочитане не додаємо
+        if (lastLoadedOrder == result.after()) {
+            if (!result.pages().isEmpty()) {
+                orderList.addAll(result.pages());
+                lastLoadedOrder = result.pages().get(result.pages().size() - 1);
+            }
+            hasMoreOrders = result.hasMore();
+        }
+        filteredOrders.setPredicate(result.predicate());
         if (filteredOrders.isEmpty()) {
             orderTable.setPlaceholder(new Label("Немає замовлень"));
         } else {
             orderTable.setPlaceholder(null);
         }
-        orderTable.setItems(FXCollections.observableArrayList(filteredOrders));
+    }
+
+    private static Predicate<Order> searchPredicate(String searchText, List<User> users) {
+        if (searchText == null || searchText.trim().isEmpty()) {
+            return null;
+        }
+        Map<UUID, User> usersById = users.stream().collect(Collectors.toMap(User::id, Function.identity(), (first, second) -> first));
+        String username = searchText.toLowerCase();
+        return order -> {
+            User user = order.userId() != null ? usersById.get(order.userId()) : null;
+            return String.valueOf(order.id()).contains(searchText) ||
+                    (user != null && user.username().toLowerCase().contains(username));
+        };
     }
 
     private void updateOrderStatus() {
@@ -112,14 +233,18 @@ public class OrderManagementController {
             return;
         }
 
-        try {
-            Order updatedOrder = new Order(selectedOrder.id(), selectedOrder.userId(), selectedOrder.orderDate(), selectedOrder.totalAmount(), selectedOrder.bonusesEarned(), selectedOrder.bonusesUsed(), newStatus, selectedOrder.notes(), selectedOrder.isSocial(), selectedOrder.tableNumber());
-            orderRepository.update(updatedOrder, orderRepository.findCartIdsByOrderId(selectedOrder.id()));
-            loadOrders();
-            AlertController.showAlert("Статус замовлення успішно оновлено!");
-        } catch (Exception e) {
-            AlertController.showAlert("Помилка при оновленні статусу замовлення: " + e.getMessage());
-        }
+        Order order = selectedOrder;
+        Order updatedOrder = new Order(order.id(), order.userId(), order.orderDate(), order.totalAmount(), order.bonusesEarned(), order.bonusesUsed(), newStatus, order.notes(), order.isSocial(), order.tableNumber());
+        FxFutures.onFx(FxFutures.whileLoading(asyncOrderRepository.supply(repository -> repository.update(updatedOrder)),
+                        updateStatusButton),
+                result -> {
+                    int index = orderList.indexOf(order);
+                    if (index >= 0) {
+                        orderList.set(index, updatedOrder);
+                    }
+                    AlertController.showAlert("Статус замовлення успішно оновлено!");
+                },
+                error -> AlertController.showAlert("Помилка при оновленні статусу замовлення: " + error.getMessage()));
     }
 
     private void populateFields(Order order) {
@@ -131,12 +256,13 @@ public class OrderManagementController {
     }
 
     private void loadUsers() {
-        try {
-            List<User> users = userRepository.findAll();
-            userList.setAll(users);
-        } catch (Exception e) {
-            AlertController.showAlert("Помилка при завантаженні користувачів: " + e.getMessage());
-        }
+        FxFutures.onFx(asyncUserRepository.supply(UserRepositoryImpl::findAll),
+                users -> {
+                    userList.setAll(users);
+                    // Стовпець користувача рахується з userList — перемальовуємо вже показані рядки
+                    orderTable.refresh();
+                },
+                error -> AlertController.showAlert("Помилка при завантаженні користувачів: " + error.getMessage()));
     }
 
     private User findUserById(java.util.UUID id) {
@@ -6,12 +6,11 @@ import com.liamtseva.cafepossystem.persistence.connection.DatabaseConnection;
 import com.liamtseva.cafepossystem.persistence.entity.Order;
 import com.liamtseva.cafepossystem.persistence.entity.User;
 import com.liamtseva.cafepossystem.persistence.entity.enums.OrderStatus;
-import com.liamtseva.cafepossystem.persistence.repository.contract.CartRepository;
-import com.liamtseva.cafepossystem.persistence.repository.contract.MenuItemRepository;
 import com.liamtseva.cafepossystem.persistence.repository.contract.OrderRepository;
-import com.liamtseva.cafepossystem.persistence.repository.impl.CartRepositoryImpl;
-import com.liamtseva.cafepossystem.persistence.repository.impl.MenuItemRepositoryImpl;
 import com.liamtseva.cafepossystem.persistence.repository.impl.OrderRepositoryImpl;
+import com.liamtseva.cafepossystem.persistence.repository.async.AsyncRepository;
+import com.liamtseva.cafepossystem.presentation.async.FxFutures;
+import com.liamtseva.cafepossystem.presentation.search.DebouncedSearch;
 import java.util.Arrays;
 import java.util.stream.Collectors;
 import javafx.beans.property.SimpleStringProperty;
@@ -28,9 +27,10 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import java.io.IOException;
 import java.util.List;
+import java.util.UUID;
 import javafx.stage.StageStyle;
 
-public class OrdersController {
+public class OrdersController implements RefreshablePage {
 
     @FXML
     private TextField searchTextField;
@@ -64,15 +64,23 @@ public class OrdersController {
     private TableColumn<Order, Integer> tableNumberColumn;
 
     private final OrderRepository orderRepository;
-    private final CartRepository cartRepository;
-    private final MenuItemRepository menuItemRepository;
+    private final AsyncRepository<OrderRepository> asyncOrderRepository;
     private final ObservableList<Order> ordersList;
+    private final DebouncedSearch<OrdersQuery, List<Order>> ordersSearch;
+
+    // Стан фільтрів, знятий у потоці JavaFX для фонового пошуку
+    private record OrdersQuery(UUID userId, String status, String text) {
+    }
 
     public OrdersController() {
-        this.orderRepository = new OrderRepositoryImpl(new DatabaseConnection().getDataSource());
-        this.cartRepository = new CartRepositoryImpl(new DatabaseConnection().getDataSource());
-        this.menuItemRepository = new MenuItemRepositoryImpl(new DatabaseConnection().getDataSource());
+        this.orderRepository = new OrderRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.asyncOrderRepository = AsyncRepository.of(orderRepository);
         this.ordersList = FXCollections.observableArrayList();
+        this.ordersSearch = new DebouncedSearch<>(
+            () -> new OrdersQuery(AuthenticatedUser.getInstance().getCurrentUser().id(),
+                statusComboBox.getValue(), searchTextField.getText().trim().toLowerCase()),
+            this::findOrders,
+            this::showOrders);
     }
 
     @FXML
@@ -82,7 +90,7 @@ public class OrdersController {
         loadOrders();
 
         statusComboBox.setOnAction(event -> loadOrders());
-        searchTextField.textProperty().addListener((observable, oldValue, newValue) -> loadOrders());
+        searchTextField.textProperty().addListener((observable, oldValue, newValue) -> scheduleSearch());
     }
 
     private void setupStatusComboBox() {
@@ -154,35 +162,53 @@ public class OrdersController {
         });
     }
 
+    @Override
+    public void onShow() {
+        loadOrders();
+    }
+
     private void loadOrders() {
+        if (currentUserMissing()) {
+            return;
+        }
+        ordersSearch.runNow();
+    }
+
+    private void scheduleSearch() {
+        if (currentUserMissing()) {
+            return;
+        }
+        ordersSearch.schedule();
+    }
+
+    private boolean currentUserMissing() {
         User currentUser = AuthenticatedUser.getInstance().getCurrentUser();
         if (currentUser == null) {
             messageLabel.setText("Будь ласка, увійдіть у систему");
             ordersList.clear();
-            return;
+            return true;
         }
+        return false;
+    }
 
-        List<Order> orders;
-        String selectedStatus = statusComboBox.getValue();
-        if (selectedStatus == null || selectedStatus.equals("Усі статуси")) {
-            orders = orderRepository.findByUserId(currentUser.id());
-        } else {
+    // Виконується у фоновому потоці: лише база і фільтрація, без вузлів сцени
+    private List<Order> findOrders(OrdersQuery query) {
+        List<Order> orders = orderRepository.findByUserId(query.userId());
+        String selectedStatus = query.status();
+        if (selectedStatus != null && !selectedStatus.equals("Усі статуси")) {
             OrderStatus status = Arrays.stream(OrderStatus.values())
                 .filter(s -> s.getUkrainianName().equals(selectedStatus))
                 .findFirst()
                 .orElse(null);
 
             if (status != null) {
-                List<Order> allOrders = orderRepository.findByUserId(currentUser.id());
-                orders = allOrders.stream()
+                orders = orders.stream()
                     .filter(order -> order.status().equals(status))
                     .collect(Collectors.toList());
-            } else {
-                orders = orderRepository.findByUserId(currentUser.id());
             }
         }
 
-        String searchId = searchTextField.getText().trim().toLowerCase();
+        String searchId = query.text();
         if (!searchId.isEmpty()) {
             orders = orders.stream()
                 .filter(order -> {
@@ -200,7 +226,10 @@ public class OrdersController {
                 })
                 .toList();
         }
+        return orders;
+    }
 
+    private void showOrders(List<Order> orders) {
         ordersList.clear();
         if (orders.isEmpty()) {
             messageLabel.setText("У Вас поки немає замовлень");
@@ -226,37 +255,37 @@ public class OrdersController {
             return;
         }
 
-        try {
-            Order updatedOrder = new Order(
-                order.id(),
-                order.userId(),
-                order.orderDate(),
-                order.totalAmount(),
-                order.bonusesEarned(),
-                order.bonusesUsed(),
-                OrderStatus.CANCELLED,
-                order.notes(),
-                order.isSocial(),
-                order.tableNumber()
-            );
-            List<String> cartIds = orderRepository.findCartIdsByOrderId(order.id());
-            Order result = orderRepository.update(updatedOrder, cartIds);
-
-            if (result != null) {
-                AlertController.showAlert("Замовлення успішно скасовано");
-                loadOrders();
-            } else {
-                AlertController.showAlert("Помилка при скасуванні замовлення");
-            }
-        } catch (EntityNotFoundException e) {
-            AlertController.showAlert("Замовлення не знайдено");
-        }
+        Order updatedOrder = new Order(
+            order.id(),
+            order.userId(),
+            order.orderDate(),
+            order.totalAmount(),
+            order.bonusesEarned(),
+            order.bonusesUsed(),
+            OrderStatus.CANCELLED,
+            order.notes(),
+            order.isSocial(),
+            order.tableNumber()
+        );
+        FxFutures.onFx(FxFutures.whileLoading(asyncOrderRepository.supply(repository -> repository.update(updatedOrder)),
+                ordersTableView),
+            result -> {
+                if (result != null) {
+                    AlertController.showAlert("Замовлення успішно скасовано");
+                    loadOrders();
+                } else {
+                    AlertController.showAlert("Помилка при скасуванні замовлення");
+                }
+            },
+            error -> AlertController.showAlert(error instanceof EntityNotFoundException
+                ? "Замовлення не знайдено"
+                : "Помилка при скасуванні замовлення: " + error.getMessage()));
     }
 
     private void viewOrderDetails(Order order) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/orderDetails.fxml"));
-            loader.setControllerFactory(param -> new OrderDetailsController(order, orderRepository, cartRepository, menuItemRepository));
+            loader.setControllerFactory(param -> new OrderDetailsController(order, orderRepository));
             Parent root = loader.load();
 
             Stage stage = new Stage();
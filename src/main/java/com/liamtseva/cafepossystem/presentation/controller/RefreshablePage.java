@@ -0,0 +1,27 @@
+package com.liamtseva.cafepossystem.presentation.controller;
+
+import java.util.function.Consumer;
+import javafx.scene.control.TextInputControl;
+
+/**
+ * Контролер сторінки, яку {@link MainMenuController} тримає в кеші між переходами.
+ *
+ * <p>Вузли й контролер створюються один раз; при кожному наступному показі сторінки
+ * викликається {@link #onShow()}, щоб перечитати дані, які могли змінитися на інших сторінках.
+ */
+public interface RefreshablePage {
+
+    /** Викликається в потоці JavaFX, коли закешовану сторінку знову показують. */
+    void onShow();
+
+    /**
+     * Введений пошук лишається в полі закешованої сторінки — застосовує його до щойно
+     * перечитаних даних. Викликається, коли дані вже в таблиці.
+     */
+    static void reapplySearch(TextInputControl searchField, Consumer<String> search) {
+        String searchText = searchField.getText();
+        if (searchText != null && !searchText.trim().isEmpty()) {
+            search.accept(searchText);
+        }
+    }
+}
@@ -46,7 +46,7 @@ public class RegistrationController {
     private UserRepository userRepository;
 
     public RegistrationController() {
-        this.userRepository = new UserRepositoryImpl(new DatabaseConnection().getDataSource());
+        this.userRepository = new UserRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
     }
 
     @FXML
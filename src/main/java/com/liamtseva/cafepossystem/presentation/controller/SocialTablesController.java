@@ -5,22 +5,24 @@ import com.liamtseva.cafepossystem.persistence.entity.Order;
 import com.liamtseva.cafepossystem.persistence.entity.User;
 import com.liamtseva.cafepossystem.persistence.repository.impl.OrderRepositoryImpl;
 import com.liamtseva.cafepossystem.persistence.repository.impl.UserRepositoryImpl;
+import com.liamtseva.cafepossystem.persistence.repository.async.AsyncRepository;
+import com.liamtseva.cafepossystem.presentation.async.FxFutures;
+import com.liamtseva.cafepossystem.presentation.component.SocialOrderCardView;
 import java.time.LocalDateTime;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.layout.HBox;
 import java.time.format.DateTimeFormatter;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 import javafx.scene.layout.VBox;
 
-public class SocialTablesController {
+public class SocialTablesController implements RefreshablePage {
+
+    private static final DateTimeFormatter ORDER_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
 
     @FXML
     private VBox socialOrdersContainer;
@@ -36,39 +38,52 @@ public class SocialTablesController {
 
     private OrderRepositoryImpl orderRepository;
     private UserRepositoryImpl userRepository;
+    private AsyncRepository<OrderRepositoryImpl> asyncOrderRepository;
     private ObservableList<Order> socialOrdersList;
     private ObservableList<User> userList;
 
     public SocialTablesController() {
-        this.orderRepository = new OrderRepositoryImpl(new DatabaseConnection().getDataSource());
-        this.userRepository = new UserRepositoryImpl(new DatabaseConnection().getDataSource());
+        this.orderRepository = new OrderRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.userRepository = new UserRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.asyncOrderRepository = AsyncRepository.of(orderRepository);
         this.socialOrdersList = FXCollections.observableArrayList();
         this.userList = FXCollections.observableArrayList();
     }
 
+    // Активні замовлення і користувачі, прочитані у фоновому потоці
+    private record SocialTablesView(List<Order> activeOrders, List<User> users) {
+    }
+
     @FXML
     public void initialize() {
-        loadUsers();
         loadSocialOrders();
-        updateInfoPanel();
     }
 
+    @Override
+    public void onShow() {
+        loadSocialOrders();
+    }
+
+    // Один запит за індексом статусу дає і спільні столики, і лічильник активних замовлень
     private void loadSocialOrders() {
-        try {
-            List<Order> allOrders = orderRepository.findAll();
-            List<Order> socialOrders = allOrders.stream()
-                .filter(order -> order.isSocial() &&
-                    (order.status().name().equals("PENDING") || order.status().name().equals("CONFIRMED")))
-                .collect(Collectors.toList());
-            socialOrdersList.setAll(socialOrders);
-            displaySocialOrders(socialOrders);
-            updateInfoPanel();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        FxFutures.onFx(asyncOrderRepository.supply(repository -> new SocialTablesView(repository.findActive(), userRepository.findAll())),
+            view -> {
+                userList.setAll(view.users());
+                List<Order> socialOrders = view.activeOrders().stream()
+                    .filter(Order::isSocial)
+                    .collect(Collectors.toList());
+                socialOrdersList.setAll(socialOrders);
+                displaySocialOrders(socialOrders);
+                updateInfoPanel(view.activeOrders().size());
+            },
+            error -> {
+                error.printStackTrace();
+                updateInfoPanel(-1);
+            });
     }
 
-    private void updateInfoPanel() {
+    // activeOrders < 0 — кількість невідома
+    private void updateInfoPanel(int activeOrders) {
         if (totalSocialOrdersLabel != null) {
             totalSocialOrdersLabel.setText("Спільних столиків: " + socialOrdersList.size());
         }
@@ -78,18 +93,8 @@ public class SocialTablesController {
             currentDateTimeLabel.setText("Поточний час: " + LocalDateTime.now().format(formatter));
         }
 
-        try {
-            List<Order> allOrders = orderRepository.findAll();
-            long activeOrders = allOrders.stream()
-                .filter(order -> order.status().name().equals("PENDING") || order.status().name().equals("CONFIRMED"))
-                .count();
-            if (activeOrdersLabel != null) {
-                activeOrdersLabel.setText("Активних замовлень: " + activeOrders);
-            }
-        } catch (Exception e) {
-            if (activeOrdersLabel != null) {
-                activeOrdersLabel.setText("Активних замовлень: --");
-            }
+        if (activeOrdersLabel != null) {
+            activeOrdersLabel.setText("Активних замовлень: " + (activeOrders >= 0 ? activeOrders : "--"));
         }
     }
 
@@ -110,38 +115,17 @@ public class SocialTablesController {
     }
 
     private HBox createOrderCard(Order order) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/socialOrderCard.fxml"));
-            HBox card = loader.load();
-            card.setPrefHeight(90);
-
-            Label userLabel = (Label) card.lookup("#userLabel");
-            Label tableLabel = (Label) card.lookup("#tableLabel");
-            Label timeLabel = (Label) card.lookup("#timeLabel");
-            Label statusLabel = (Label) card.lookup("#statusLabel");
-            Button joinButton = (Button) card.lookup("#joinButton");
-
-            User user = findUserById(order.userId());
-            userLabel.setText(user != null ? user.username() : "Невідомий");
-            tableLabel.setText("Столик №" + (order.tableNumber() != null ? order.tableNumber() : "Немає"));
-            timeLabel.setText(order.orderDate().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")));
-            statusLabel.setText(order.status().getUkrainianName());
-            joinButton.setOnAction(event -> joinTable(order));
-
-            return card;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return new HBox();
-        }
-    }
+        SocialOrderCardView card = new SocialOrderCardView();
+        card.setPrefHeight(90);
 
-    private void loadUsers() {
-        try {
-            List<User> users = userRepository.findAll();
-            userList.setAll(users);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        User user = findUserById(order.userId());
+        card.getUserLabel().setText(user != null ? user.username() : "Невідомий");
+        card.getTableLabel().setText("Столик №" + (order.tableNumber() != null ? order.tableNumber() : "Немає"));
+        card.getTimeLabel().setText(order.orderDate().format(ORDER_TIME_FORMATTER));
+        card.getStatusLabel().setText(order.status().getUkrainianName());
+        card.getJoinButton().setOnAction(event -> joinTable(order));
+
+        return card;
     }
 
     private void joinTable(Order order) {
@@ -158,7 +142,7 @@ public class SocialTablesController {
                 false,
                 order.tableNumber()
             );
-            orderRepository.update(updatedOrder, orderRepository.findCartIdsByOrderId(order.id()));
+            orderRepository.update(updatedOrder);
             loadSocialOrders();
             AlertController.showAlert("Ви успішно приєдналися до спільного столика!");
         } catch (Exception e) {
@@ -6,6 +6,9 @@ import com.liamtseva.cafepossystem.persistence.entity.enums.Role;
 import com.liamtseva.cafepossystem.persistence.repository.contract.UserRepository;
 import com.liamtseva.cafepossystem.persistence.repository.impl.UserRepositoryImpl;
 import com.liamtseva.cafepossystem.persistence.connection.DatabaseConnection;
+import com.liamtseva.cafepossystem.persistence.repository.async.AsyncRepository;
+import com.liamtseva.cafepossystem.presentation.async.FxFutures;
+import com.liamtseva.cafepossystem.presentation.search.DebouncedSearch;
 import com.liamtseva.cafepossystem.presentation.validation.UserValidator;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -18,7 +21,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
-public class UserManagementController {
+public class UserManagementController implements RefreshablePage {
 
     @FXML
     private TextField nameField;
@@ -48,12 +51,20 @@ public class UserManagementController {
     private Button clearFieldsButton;
 
     private UserRepository userRepository;
+    private AsyncRepository<UserRepository> asyncUserRepository;
     private ObservableList<User> usersList;
     private User selectedUser;
+    private DebouncedSearch<UserSearch, UserSearch> usersSearch;
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    // Текст пошуку зі списком, у якому шукати (запит), або зі знайденими користувачами (результат).
+    // Порожній текст означає перезавантаження списку з бази
+    private record UserSearch(String text, List<User> users) {
+    }
+
     public UserManagementController() {
-        this.userRepository = new UserRepositoryImpl(new DatabaseConnection().getDataSource());
+        this.userRepository = new UserRepositoryImpl(new DatabaseConnection().getReadDataSource(), new DatabaseConnection().getWriteDataSource());
+        this.asyncUserRepository = AsyncRepository.of(userRepository);
         this.usersList = FXCollections.observableArrayList();
     }
 
@@ -77,7 +88,11 @@ public class UserManagementController {
 
         loadUsers();
 
-        searchTextField.textProperty().addListener((observable, oldValue, newValue) -> searchUsers(newValue));
+        usersSearch = new DebouncedSearch<>(
+            () -> new UserSearch(searchTextField.getText() == null ? "" : searchTextField.getText().trim(), List.copyOf(usersList)),
+            this::findUsers,
+            this::showUsers);
+        searchTextField.textProperty().addListener((observable, oldValue, newValue) -> usersSearch.schedule());
 
         addButton.setOnAction(event -> addUser());
         editButton.setOnAction(event -> editUser());
@@ -95,36 +110,48 @@ public class UserManagementController {
             });
     }
 
+    @Override
+    public void onShow() {
+        // Порожній запит перечитує всіх користувачів, непорожній — відфільтровує показаних
+        usersSearch.runNow();
+    }
+
     private void loadUsers() {
-        try {
-            List<User> users = userRepository.findAll();
-            usersList.setAll(users);
-            userTable.setItems(usersList);
-            if (usersList.isEmpty()) {
-                userTable.setPlaceholder(new Label("Немає користувачів"));
-            }
-        } catch (Exception e) {
-            AlertController.showAlert("Помилка при завантаженні користувачів: " + e.getMessage());
+        if (usersList.isEmpty()) {
+            userTable.setPlaceholder(new Label("Завантаження користувачів..."));
         }
+        FxFutures.onFx(asyncUserRepository.supply(UserRepository::findAll),
+            users -> {
+                usersList.setAll(users);
+                userTable.setItems(usersList);
+                if (usersList.isEmpty()) {
+                    userTable.setPlaceholder(new Label("Немає користувачів"));
+                }
+            },
+            error -> AlertController.showAlert("Помилка при завантаженні користувачів: " + error.getMessage()));
     }
 
-    private void searchUsers(String searchText) {
-        if (searchText == null || searchText.trim().isEmpty()) {
-            loadUsers();
-            return;
+    // Виконується у фоновому потоці
+    private UserSearch findUsers(UserSearch query) {
+        String searchText = query.text().toLowerCase();
+        if (searchText.isEmpty()) {
+            return new UserSearch(query.text(), userRepository.findAll());
         }
+        return new UserSearch(query.text(), query.users().stream()
+            .filter(user -> user.username().toLowerCase().contains(searchText) ||
+                user.email().toLowerCase().contains(searchText) ||
+                user.role().name().toLowerCase().contains(searchText))
+            .toList());
+    }
 
-        List<User> filteredUsers = usersList.stream()
-            .filter(user -> user.username().toLowerCase().contains(searchText.toLowerCase()) ||
-                user.email().toLowerCase().contains(searchText.toLowerCase()) ||
-                user.role().name().toLowerCase().contains(searchText.toLowerCase()))
-            .toList();
-        if (filteredUsers.isEmpty()) {
-            userTable.setPlaceholder(new Label("Немає користувачів"));
+    private void showUsers(UserSearch found) {
+        if (found.text().isEmpty()) {
+            usersList.setAll(found.users());
+            userTable.setItems(usersList);
         } else {
-            userTable.setPlaceholder(null);
+            userTable.setItems(FXCollections.observableArrayList(found.users()));
         }
-        userTable.setItems(FXCollections.observableArrayList(filteredUsers));
+        userTable.setPlaceholder(found.users().isEmpty() ? new Label("Немає користувачів") : null);
     }
 
     private void addUser() {
@@ -229,8 +256,8 @@ public class UserManagementController {
 
             User updatedUser = new User(selectedUser.id(), username, selectedUser.password(), role, email, selectedUser.createdAt());
 
-            userRepository.deleteUser(selectedUser.username());
-            userRepository.addUser(updatedUser);
+            // Оновлення на місці: видалення з повторним додаванням давало новий ID і каскадом прибирало карту лояльності
+            userRepository.updateUser(updatedUser);
             loadUsers();
             clearFields();
             AlertController.showAlert("Користувача успішно оновлено!");
@@ -0,0 +1,159 @@
+package com.liamtseva.cafepossystem.presentation.image;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
+
+/**
+ * Спільний кеш декодованих зображень страв для карток меню і кошика.
+ *
+ * <p>Ключ — страва, контрольна сума байтів і розмір, до якого зображення масштабується під час
+ * декодування: змінене в адмінці зображення отримує новий ключ, а старе з часом витісняється.
+ * Обсяг кешу рахується в байтах декодованих пікселів (ширина × висота × 4) і обмежується
+ * витісненням найдавніше використаних. Декодування виконується у фоновому потоці; кілька
+ * карток, що одночасно просять одне зображення, чекають на одне декодування.
+ */
+public final class ImageCache {
+
+    /** Системна властивість для межі кешу в байтах декодованих пікселів. */
+    public static final String MAX_BYTES_PROPERTY = "cafepos.image.cache.bytes";
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    private static final int DECODER_THREADS = 2;
+    // Ключ властивості ImageView з останнім запитом на показ
+    private static final Object PENDING_REQUEST = new Object();
+
+    private static final ImageCache SHARED = new ImageCache(Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES));
+
+    private record Key(UUID itemId, long checksum, int length, int width, int height) {
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<Image> future;
+        // 0, доки декодування не завершилось і не враховане в обсязі кешу
+        private long weight;
+
+        private Entry(CompletableFuture<Image> future) {
+            this.future = future;
+        }
+    }
+
+    private final long maxBytes;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Image> resources = new ConcurrentHashMap<>();
+    private final ExecutorService decoder;
+    private long decodedBytes;
+
+    private ImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.decoder = Executors.newFixedThreadPool(DECODER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "image-decoder-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static ImageCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Зображення страви, зменшене до {@code width} × {@code height} зі збереженням пропорцій.
+     * Майбутнє завершується у фоновому потоці — на ImageView його треба ставити через
+     * {@code Platform.runLater}.
+     */
+    public CompletableFuture<Image> load(UUID itemId, byte[] bytes, double width, double height) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        Key key = new Key(itemId, crc.getValue(), bytes.length, (int) Math.ceil(width), (int) Math.ceil(height));
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null) {
+                return entry.future;
+            }
+            entry = new Entry(CompletableFuture.supplyAsync(() -> decode(bytes, key), decoder));
+            entries.put(key, entry);
+        }
+        Entry pending = entry;
+        entry.future.whenComplete((image, error) -> admit(key, pending, image, error));
+        return entry.future;
+    }
+
+    /**
+     * Показує зображення страви в {@code view} у розмірі його fitWidth × fitHeight; поки
+     * зображення декодується, а також коли байтів немає чи вони пошкоджені, показує заглушку.
+     * Якщо {@code view} тим часом отримав інше зображення (картку перевикористали для іншої
+     * страви), запізніле декодування його не перезаписує. Викликається з потоку JavaFX.
+     */
+    public void display(ImageView view, UUID itemId, byte[] bytes, String placeholder) {
+        Image fallback = resource(placeholder);
+        Object request = new Object();
+        view.getProperties().put(PENDING_REQUEST, request);
+        if (bytes == null || bytes.length == 0) {
+            view.setImage(fallback);
+            return;
+        }
+        CompletableFuture<Image> future = load(itemId, bytes, view.getFitWidth(), view.getFitHeight());
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            Image image = future.join();
+            view.setImage(image.isError() ? fallback : image);
+            return;
+        }
+        view.setImage(fallback);
+        future.thenAcceptAsync(image -> {
+            if (view.getProperties().get(PENDING_REQUEST) == request) {
+                view.setImage(image.isError() ? fallback : image);
+            }
+        }, Platform::runLater);
+    }
+
+    /** Зображення з ресурсів застосунку (заглушки), декодується один раз. */
+    public Image resource(String path) {
+        return resources.computeIfAbsent(path, p -> new Image(ImageCache.class.getResourceAsStream(p)));
+    }
+
+    private static Image decode(byte[] bytes, Key key) {
+        return new Image(new ByteArrayInputStream(bytes), key.width(), key.height(), true, true);
+    }
+
+    private void admit(Key key, Entry entry, Image image, Throwable error) {
+        synchronized (entries) {
+            if (error != null || image.isError()) {
+                // Пошкоджені байти не тримаємо: наступний запит спробує ще раз
+                entries.remove(key, entry);
+                return;
+            }
+            entry.weight = weight(image);
+            decodedBytes += entry.weight;
+            evict();
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (decodedBytes > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.weight > 0) {
+                decodedBytes -= entry.weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    private static long weight(Image image) {
+        return Math.max(1, (long) image.getWidth() * (long) image.getHeight() * 4);
+    }
+}
@@ -0,0 +1,98 @@
+package com.liamtseva.cafepossystem.presentation.search;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Пошук, що не блокує потік JavaFX під час введення.
+ *
+ * <p>Кожне натискання лише перезапускає таймер; коли користувач зупиняється на {@link #DELAY},
+ * стан екрана знімається у потоці JavaFX ({@code input}), запит виконується у фоновому потоці
+ * ({@code search}), а результат показується знову в потоці JavaFX ({@code apply}). Новий запит
+ * скасовує ще не розпочатий попередній, а результат уже запущеного відкидається: на екран
+ * потрапляє лише відповідь на останній запит.
+ *
+ * <p>Усі методи викликаються з потоку JavaFX.
+ *
+ * @param <Q> знімок стану екрана, з яким виконується пошук
+ * @param <R> результат пошуку
+ */
+public final class DebouncedSearch<Q, R> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DebouncedSearch.class);
+
+    /** Пауза у введенні, після якої запускається пошук. */
+    public static final Duration DELAY = Duration.millis(250);
+    private static final int WORKER_THREADS = 2;
+
+    private static final ExecutorService WORKER = newWorker();
+
+    private final Supplier<Q> input;
+    private final Function<Q, R> search;
+    private final Consumer<R> apply;
+    private final PauseTransition pause = new PauseTransition(DELAY);
+    private long generation;
+    private Future<?> pending;
+
+    public DebouncedSearch(Supplier<Q> input, Function<Q, R> search, Consumer<R> apply) {
+        this.input = input;
+        this.search = search;
+        this.apply = apply;
+        pause.setOnFinished(event -> start());
+    }
+
+    /** Запускає пошук після паузи у введенні; кожен наступний виклик відкладає його знову. */
+    public void schedule() {
+        pause.playFromStart();
+    }
+
+    /** Запускає пошук одразу — для змін, що не є набором тексту (фільтр, оновлення даних). */
+    public void runNow() {
+        pause.stop();
+        start();
+    }
+
+    private void start() {
+        long current = ++generation;
+        if (pending != null) {
+            // Запущений запит не перериваємо: переривання потоку посеред роботи з пулом з'єднань
+            // шкодить більше, ніж відкинутий результат
+            pending.cancel(false);
+        }
+        Q query = input.get();
+        pending = WORKER.submit(() -> {
+            R result;
+            try {
+                result = search.apply(query);
+            } catch (RuntimeException e) {
+                logger.error("Пошук не вдався", e);
+                return;
+            }
+            Platform.runLater(() -> {
+                if (current == generation) {
+                    apply.accept(result);
+                }
+            });
+        });
+    }
+
+    private static ExecutorService newWorker() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(WORKER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "search-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -1,7 +1,7 @@
 package com.liamtseva.cafepossystem.presentation.validation;
 
 import com.liamtseva.cafepossystem.persistence.entity.MenuItem;
-import com.liamtseva.cafepossystem.persistence.repository.impl.MenuItemRepositoryImpl;
+import com.liamtseva.cafepossystem.persistence.repository.contract.MenuItemRepository;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -45,7 +45,7 @@ public class MenuItemValidator {
     return new ValidationResult(errors.isEmpty(), errors);
   }
 
-  public static ValidationResult isNameUnique(String name, UUID itemId, MenuItemRepositoryImpl repository) {
+  public static ValidationResult isNameUnique(String name, UUID itemId, MenuItemRepository repository) {
     ValidationResult nameValidation = isNameValid(name);
     if (!nameValidation.isValid()) {
       return nameValidation;
@@ -123,7 +123,7 @@ public class MenuItemValidator {
     return new ValidationResult(errors.isEmpty(), errors);
   }
 
-  public static ValidationResult isMenuItemValid(MenuItem menuItem, boolean isExisting, MenuItemRepositoryImpl repository) {
+  public static ValidationResult isMenuItemValid(MenuItem menuItem, boolean isExisting, MenuItemRepository repository) {
     if (menuItem == null) {
       List<String> errors = new ArrayList<>();
       errors.add("Елемент меню не може бути відсутнім");
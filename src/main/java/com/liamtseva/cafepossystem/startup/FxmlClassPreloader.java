@@ -0,0 +1,71 @@
+package com.liamtseva.cafepossystem.startup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Попередній розбір FXML без побудови вузлів: читає {@code <?import?>} і {@code fx:controller}
+ * та завантажує названі класи.
+ *
+ * <p>Самі сторінки до входу побудувати не можна — їхні контролери читають поточного
+ * користувача. Але перше завантаження сторінки здебільшого витрачається на пошук і визначення
+ * класів, і цю частину можна зробити у фоні, поки відкрите вікно входу. Класи не
+ * ініціалізуються, тож статичні ініціалізатори JavaFX не виконуються поза потоком JavaFX.
+ */
+final class FxmlClassPreloader {
+
+  private static final String FXML_NAMESPACE = "http://javafx.com/fxml";
+
+  private FxmlClassPreloader() {
+  }
+
+  /** @return кількість завантажених класів */
+  static int preload(List<String> views) throws IOException, XMLStreamException {
+    Set<String> classNames = new LinkedHashSet<>();
+    for (String view : views) {
+      collectClassNames(view, classNames);
+    }
+    ClassLoader classLoader = FxmlClassPreloader.class.getClassLoader();
+    int loaded = 0;
+    for (String className : classNames) {
+      try {
+        Class.forName(className, false, classLoader);
+        loaded++;
+      } catch (ClassNotFoundException e) {
+        // Імпорт з '*' або застарілий — FXMLLoader розбереться з ним сам під час завантаження
+      }
+    }
+    return loaded;
+  }
+
+  private static void collectClassNames(String view, Set<String> classNames) throws IOException, XMLStreamException {
+    try (InputStream input = FxmlClassPreloader.class.getResourceAsStream(view)) {
+      if (input == null) {
+        throw new IOException("Не знайдено " + view);
+      }
+      XMLStreamReader reader = XMLInputFactory.newFactory().createXMLStreamReader(input);
+      try {
+        while (reader.hasNext()) {
+          int event = reader.next();
+          if (event == XMLStreamConstants.PROCESSING_INSTRUCTION && "import".equals(reader.getPITarget())) {
+            classNames.add(reader.getPIData().trim());
+          } else if (event == XMLStreamConstants.START_ELEMENT) {
+            String controller = reader.getAttributeValue(FXML_NAMESPACE, "controller");
+            if (controller != null) {
+              classNames.add(controller);
+            }
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.liamtseva.cafepossystem.startup;
+
+/**
+ * Порядок фаз запуску.
+ *
+ * <p>{@code PARALLEL} — вікно входу з'являється одразу, а пул, міграції й прогрів іде у фоні.
+ * {@code SEQUENTIAL} — попередня поведінка: усе до показу вікна, по черзі; лишено для
+ * порівняння часових шкал між режимами.
+ */
+public enum StartupMode {
+  PARALLEL,
+  SEQUENTIAL;
+
+  /** Системна властивість, якою можна повернути послідовний запуск. */
+  public static final String PROPERTY = "cafepos.startup.mode";
+
+  public static StartupMode requested() {
+    String value = System.getProperty(PROPERTY);
+    return value == null || value.isBlank() ? PARALLEL : valueOf(value.trim().toUpperCase());
+  }
+}
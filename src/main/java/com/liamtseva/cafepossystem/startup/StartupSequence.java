@@ -0,0 +1,149 @@
+package com.liamtseva.cafepossystem.startup;
+
+import com.liamtseva.cafepossystem.persistence.cache.CachingMenuItemRepository;
+import com.liamtseva.cafepossystem.persistence.cache.TableOccupancyRegistry;
+import com.liamtseva.cafepossystem.persistence.connection.DatabaseConnection;
+import com.liamtseva.cafepossystem.persistence.image.ThumbnailPipeline;
+import com.liamtseva.cafepossystem.persistence.migration.SchemaMigrator;
+import com.liamtseva.cafepossystem.startup.StartupTimeline.Phase;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Фази запуску застосунку.
+ *
+ * <p>Пул з'єднань і міграції готують базу ({@link #database()}); після них відкриваються всі
+ * з'єднання читачів, далі паралельно завантажуються зайняті столики і знімок каталогу меню,
+ * а у фоні доробляються мініатюри. Незалежно від бази завантажуються класи головних FXML.
+ * У режимі {@link StartupMode#PARALLEL} усе це йде у фонових потоках, поки показане вікно
+ * входу, і вхід чекає лише на базу.
+ *
+ * <p>Кожна фаза потрапляє в {@link StartupTimeline}; коли всі фази завершились і вікно входу
+ * показане, шкала пишеться в журнал одним рядком.
+ */
+public final class StartupSequence {
+
+  private static final Logger logger = LoggerFactory.getLogger(StartupSequence.class);
+
+  private static final StartupSequence INSTANCE = new StartupSequence();
+
+  // Головне вікно і сторінки, які відкривають першими чи догружають після входу
+  private static final List<String> MAIN_VIEWS = List.of(
+      "/view/mainMenu.fxml", "/view/menu.fxml", "/view/cart.fxml", "/view/orders.fxml",
+      "/view/socialTables.fxml", "/view/orderManagement.fxml", "/view/menuItemManagement.fxml",
+      "/view/userManagement.fxml");
+
+  @FunctionalInterface
+  private interface Step {
+    void run() throws Exception;
+  }
+
+  private final StartupTimeline timeline = new StartupTimeline();
+  private final CompletableFuture<Void> loginScreenShown = new CompletableFuture<>();
+  private volatile CompletableFuture<Void> database;
+  private StartupMode mode;
+  private Executor executor;
+
+  private StartupSequence() {
+  }
+
+  public static StartupSequence get() {
+    return INSTANCE;
+  }
+
+  public StartupTimeline timeline() {
+    return timeline;
+  }
+
+  /** Завершується, коли пул відкрито і міграції застосовано. До {@link #start} вважається готовим. */
+  public CompletableFuture<Void> database() {
+    CompletableFuture<Void> current = database;
+    return current != null ? current : CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Запускає фази. У послідовному режимі повертається, коли всі фази пройдено, і кидає
+   * помилку пулу чи міграцій, як і раніше; у паралельному — одразу.
+   */
+  public synchronized void start(StartupMode mode) {
+    if (database != null) {
+      throw new IllegalStateException("Запуск уже виконується");
+    }
+    this.mode = mode;
+    // Платформні, а не віртуальні потоки: фази повертають з'єднання Hikari, тримаючи монітор
+    // (computeIfAbsent, синхронізоване завантаження знімка), і віртуальний потік там закріплюється
+    // на носії, а очікувач з'єднання може так і не отримати носія
+    this.executor = mode == StartupMode.PARALLEL
+        ? Executors.newThreadPerTaskExecutor(Thread.ofPlatform().daemon().name("startup-", 0).factory())
+        : Runnable::run;
+    DatabaseConnection connection = DatabaseConnection.getInstance();
+
+    CompletableFuture<Void> views = phase("fxml-classes",
+        () -> logger.debug("Завантажено класів з FXML: {}", FxmlClassPreloader.preload(MAIN_VIEWS)));
+    database = phase("pool", DatabaseConnection::initializeDataSource)
+        .thenCompose(ignored -> phase("migrations",
+            () -> new SchemaMigrator(connection.getWriteDataSource()).migrate()));
+    // Прогрів тримає всі з'єднання читачів одразу, тож кеші читають уже після нього
+    CompletableFuture<Void> warmUp = database
+        .thenCompose(ignored -> phase("reader-warmup", connection::warmUpReaders))
+        .thenCompose(ignored -> CompletableFuture.allOf(
+            phase("table-occupancy", () -> TableOccupancyRegistry.forDataSource(connection.getReadDataSource())),
+            phase("menu-catalog", () -> CachingMenuItemRepository.forDataSources(connection.getReadDataSource(),
+                connection.getWriteDataSource()).categoryIndex())));
+    CompletableFuture<Void> thumbnails = database.thenCompose(ignored -> thumbnailBackfill(connection));
+
+    CompletableFuture.allOf(views, warmUp, thumbnails, loginScreenShown).whenComplete((ignored, error) -> log());
+    if (mode == StartupMode.SEQUENTIAL) {
+      database.join();
+    }
+  }
+
+  /** Викликається з {@code Application.start}, коли вікно входу показане. */
+  public void loginScreenShown(long startNanos) {
+    timeline.record("login-screen", startNanos, System.nanoTime());
+    loginScreenShown.complete(null);
+  }
+
+  private CompletableFuture<Void> phase(String name, Step step) {
+    return CompletableFuture.runAsync(() -> timeline.time(name, () -> {
+      try {
+        step.run();
+      } catch (RuntimeException e) {
+        logger.error("Фаза запуску {} завершилась помилкою", name, e);
+        throw e;
+      } catch (Exception e) {
+        logger.error("Фаза запуску {} завершилась помилкою", name, e);
+        throw new CompletionException(e);
+      }
+    }), executor);
+  }
+
+  // Мініатюри доробляються у власному фоновому потоці конвеєра; вхід їх не чекає
+  private CompletableFuture<Void> thumbnailBackfill(DatabaseConnection connection) {
+    long start = System.nanoTime();
+    return ThumbnailPipeline.forDataSources(connection.getReadDataSource(), connection.getWriteDataSource())
+        .backfill()
+        .handle((stored, error) -> {
+          timeline.record("thumbnail-backfill", start, System.nanoTime());
+          if (error != null) {
+            logger.warn("Не вдалося доробити мініатюри під час запуску", error);
+          }
+          return null;
+        });
+  }
+
+  private void log() {
+    logger.info("Запуск ({}): {}", mode, timeline.summary());
+    if (logger.isDebugEnabled()) {
+      for (Phase phase : timeline.phases()) {
+        logger.debug("{}: з {} мс, {} мс [{}]", phase.name(), phase.startMillis(), phase.durationMillis(),
+            phase.thread());
+      }
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.liamtseva.cafepossystem.startup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Часова шкала запуску: коли почалась і скільки тривала кожна фаза, у мілісекундах від старту JVM.
+ *
+ * <p>Фази записуються з різних потоків, зокрема паралельно. {@link #summary()} складає їх
+ * в один рядок {@code фаза=мс}, який зручно порівнювати між випусками.
+ */
+public final class StartupTimeline {
+
+  public record Phase(String name, long startMillis, long durationMillis, String thread) {
+  }
+
+  private final long originNanos;
+  private final List<Phase> phases = new ArrayList<>();
+
+  public StartupTimeline() {
+    long now = System.nanoTime();
+    long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    this.originNanos = now - uptimeMillis * 1_000_000;
+    record("jvm", originNanos, now);
+  }
+
+  /** Виконує {@code action} як фазу {@code name}; фаза записується й тоді, коли дія впала. */
+  public void time(String name, Runnable action) {
+    long start = System.nanoTime();
+    try {
+      action.run();
+    } finally {
+      record(name, start, System.nanoTime());
+    }
+  }
+
+  /** Записує фазу, виміряну самостійно значеннями {@link System#nanoTime()}. */
+  public void record(String name, long startNanos, long endNanos) {
+    Phase phase = new Phase(name, toMillis(startNanos - originNanos), toMillis(endNanos - startNanos),
+        Thread.currentThread().getName());
+    synchronized (phases) {
+      phases.add(phase);
+    }
+  }
+
+  /** Фази в порядку початку. */
+  public List<Phase> phases() {
+    synchronized (phases) {
+      return phases.stream().sorted(Comparator.comparingLong(Phase::startMillis)).toList();
+    }
+  }
+
+  /** Мілісекунди від старту JVM до кінця останньої записаної фази. */
+  public long totalMillis() {
+    return phases().stream().mapToLong(phase -> phase.startMillis() + phase.durationMillis()).max().orElse(0);
+  }
+
+  public String summary() {
+    StringJoiner joiner = new StringJoiner(" ");
+    for (Phase phase : phases()) {
+      joiner.add(phase.name() + "=" + phase.durationMillis());
+    }
+    return joiner.add("total=" + totalMillis()).toString();
+  }
+
+  private static long toMillis(long nanos) {
+    return nanos / 1_000_000;
+  }
+}
@@ -0,0 +1,27 @@
+-- Індекси для запитів репозиторіїв, які раніше сканували таблиці повністю.
+
+-- Кошик користувача: усі позиції та лише ще не замовлені
+CREATE INDEX IF NOT EXISTS idx_cart_user ON Cart (user_id, item_id);
+CREATE INDEX IF NOT EXISTS idx_cart_user_open ON Cart (user_id, item_id) WHERE is_ordered = 0;
+-- Дочірній ключ для перевірки зовнішнього ключа під час видалення страви
+CREATE INDEX IF NOT EXISTS idx_cart_item ON Cart (item_id);
+
+-- Історія замовлень користувача
+CREATE INDEX IF NOT EXISTS idx_orders_user_date ON Orders (user_id, order_date);
+-- Зайнятість столиків і фільтр за статусом
+CREATE INDEX IF NOT EXISTS idx_orders_status_table ON Orders (status, table_number);
+CREATE INDEX IF NOT EXISTS idx_orders_active_table ON Orders (table_number)
+    WHERE status IN ('PENDING', 'CONFIRMED');
+
+-- Позиції замовлення за кошиком (каскадне видалення позицій кошика)
+CREATE INDEX IF NOT EXISTS idx_order_cart_items_cart ON OrderCartItems (cart_id);
+
+-- Бонусні операції картки
+CREATE INDEX IF NOT EXISTS idx_bonus_transactions_card_date ON BonusTransactions (card_id, transaction_date);
+CREATE INDEX IF NOT EXISTS idx_bonus_transactions_order ON BonusTransactions (order_id);
+
+-- Страви категорії: покривний індекс, первинний ключ починається з item_id
+CREATE INDEX IF NOT EXISTS idx_item_categories_category ON ItemCategories (category_id, item_id);
+
+-- Пошук страви за назвою
+CREATE INDEX IF NOT EXISTS idx_menu_items_name ON MenuItems (name);
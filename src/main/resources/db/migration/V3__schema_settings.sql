@@ -0,0 +1,7 @@
+-- Налаштування, що описують подання даних у файлі бази
+CREATE TABLE IF NOT EXISTS schema_settings (
+    name VARCHAR(50) NOT NULL PRIMARY KEY,
+    value VARCHAR(255) NOT NULL
+);
+
+INSERT OR IGNORE INTO schema_settings (name, value) VALUES ('storage_format', 'TEXT');
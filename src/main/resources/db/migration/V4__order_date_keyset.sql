@@ -0,0 +1,12 @@
+-- Дата замовлення зберігається текстом одного формату 'YYYY-MM-DD HH:MM:SS.SSS' (місцевий час):
+-- початкові дані були текстом, а setTimestamp писав мілісекунди, і такі значення не сортувалися разом
+UPDATE Orders
+SET order_date = strftime('%Y-%m-%d %H:%M:%f', order_date / 1000.0, 'unixepoch', 'localtime')
+WHERE typeof(order_date) IN ('integer', 'real');
+
+UPDATE Orders
+SET order_date = strftime('%Y-%m-%d %H:%M:%f', order_date)
+WHERE typeof(order_date) = 'text' AND strftime('%Y-%m-%d %H:%M:%f', order_date) IS NOT NULL;
+
+-- Постраничне читання за ключем (order_date, order_id)
+CREATE INDEX IF NOT EXISTS idx_orders_date_id ON Orders (order_date, order_id);
@@ -0,0 +1,9 @@
+-- Зменшені копії зображень страв для карток і списків. Окрема таблиця, а не стовпець MenuItems:
+-- читання мініатюри не проходить сторінки переповнення з байтами оригіналу.
+-- source_checksum — CRC32C оригіналу, з якого зроблено мініатюру
+CREATE TABLE IF NOT EXISTS MenuItemThumbnails (
+    item_id VARCHAR(36) NOT NULL PRIMARY KEY,
+    thumbnail BLOB NOT NULL,
+    source_checksum INTEGER NOT NULL,
+    FOREIGN KEY (item_id) REFERENCES MenuItems(item_id) ON DELETE CASCADE
+);
@@ -0,0 +1,40 @@
+-- Повнотекстовий пошук страв за назвою, описом і складом.
+-- unicode61 зводить регістр і кирилиці, і латиниці; діакритику не прибираємо, щоб «й» і «ї»
+-- не збігалися з «и» та «і». Префіксні індекси пришвидшують пошук за початком слова.
+-- Індекс не тримає власної копії тексту: зовнішній вміст MenuItems за rowid. Тригери передають
+-- FTS5 команду 'delete' зі старими значеннями, тож прибирання з індексу — пошук за ключем.
+-- Неявний rowid MenuItems не стабільний: VACUUM чи перебудова таблиці можуть його змінити.
+-- Після такої перебудови індекс відновлюється командою 'rebuild'; мігратор перевіряє його
+-- відповідність MenuItems під час кожного запуску і перебудовує, якщо вона порушена
+CREATE VIRTUAL TABLE IF NOT EXISTS MenuItemSearch USING fts5(
+    name,
+    description,
+    ingredients,
+    content = 'MenuItems',
+    content_rowid = 'rowid',
+    tokenize = 'unicode61 remove_diacritics 0',
+    prefix = '1 2 3'
+);
+
+INSERT INTO MenuItemSearch (MenuItemSearch) VALUES ('rebuild');
+
+CREATE TRIGGER IF NOT EXISTS menu_items_search_insert AFTER INSERT ON MenuItems
+BEGIN
+    INSERT INTO MenuItemSearch (rowid, name, description, ingredients)
+    VALUES (new.rowid, new.name, new.description, new.ingredients);
+END;
+
+-- Зміна лише зображення чи ціни пошуковий індекс не чіпає
+CREATE TRIGGER IF NOT EXISTS menu_items_search_update AFTER UPDATE OF name, description, ingredients ON MenuItems
+BEGIN
+    INSERT INTO MenuItemSearch (MenuItemSearch, rowid, name, description, ingredients)
+    VALUES ('delete', old.rowid, old.name, old.description, old.ingredients);
+    INSERT INTO MenuItemSearch (rowid, name, description, ingredients)
+    VALUES (new.rowid, new.name, new.description, new.ingredients);
+END;
+
+CREATE TRIGGER IF NOT EXISTS menu_items_search_delete AFTER DELETE ON MenuItems
+BEGIN
+    INSERT INTO MenuItemSearch (MenuItemSearch, rowid, name, description, ingredients)
+    VALUES ('delete', old.rowid, old.name, old.description, old.ingredients);
+END;
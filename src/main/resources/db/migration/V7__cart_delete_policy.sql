@@ -0,0 +1,36 @@
+-- Явна політика видалення для ключів кошика. Без неї видалення страви чи користувача,
+-- на яких посилається кошик, падає з SQLITE_CONSTRAINT_FOREIGNKEY.
+-- Замовлені позиції лишаються в історії замовлень без посилання (як Orders.user_id),
+-- а ще не замовлені видаляються разом зі стравою чи користувачем.
+-- SQLite не змінює зовнішні ключі наявної таблиці, тож Cart перебудовується;
+-- мігратор виконує скрипт з вимкненими зовнішніми ключами, щоб DROP TABLE не зачепив OrderCartItems
+CREATE TABLE Cart__delete_policy (
+    cart_id VARCHAR(36) NOT NULL PRIMARY KEY,
+    user_id VARCHAR(36),
+    item_id VARCHAR(36),
+    quantity INTEGER NOT NULL,
+    subtotal REAL NOT NULL,
+    is_ordered BOOLEAN DEFAULT 0 NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES Users(user_id) ON DELETE SET NULL,
+    FOREIGN KEY (item_id) REFERENCES MenuItems(item_id) ON DELETE SET NULL
+);
+
+INSERT INTO Cart__delete_policy (cart_id, user_id, item_id, quantity, subtotal, is_ordered)
+SELECT cart_id, user_id, item_id, quantity, subtotal, is_ordered FROM Cart;
+
+DROP TABLE Cart;
+ALTER TABLE Cart__delete_policy RENAME TO Cart;
+
+CREATE INDEX IF NOT EXISTS idx_cart_user ON Cart (user_id, item_id);
+CREATE INDEX IF NOT EXISTS idx_cart_user_open ON Cart (user_id, item_id) WHERE is_ordered = 0;
+CREATE INDEX IF NOT EXISTS idx_cart_item ON Cart (item_id);
+
+CREATE TRIGGER IF NOT EXISTS menu_items_open_cart_delete BEFORE DELETE ON MenuItems
+BEGIN
+    DELETE FROM Cart WHERE item_id = old.item_id AND is_ordered = 0;
+END;
+
+CREATE TRIGGER IF NOT EXISTS users_open_cart_delete BEFORE DELETE ON Users
+BEGIN
+    DELETE FROM Cart WHERE user_id = old.user_id AND is_ordered = 0;
+END;
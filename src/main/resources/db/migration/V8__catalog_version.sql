@@ -0,0 +1,49 @@
+-- Лічильник змін каталогу. Тригери збільшують його з кожною зміною страв, їхніх категорій
+-- і назв категорій, тож термінал одним читанням за ключем дізнається, чи застарів його знімок меню.
+-- Ціна й калорійність входять у знімок, а зображення — ні
+CREATE TABLE IF NOT EXISTS CatalogVersion (
+    id INTEGER NOT NULL PRIMARY KEY CHECK (id = 1),
+    version INTEGER NOT NULL
+);
+
+INSERT OR IGNORE INTO CatalogVersion (id, version) VALUES (1, 0);
+
+CREATE TRIGGER IF NOT EXISTS menu_items_catalog_insert AFTER INSERT ON MenuItems
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+
+CREATE TRIGGER IF NOT EXISTS menu_items_catalog_update AFTER UPDATE OF name, description, price, calories ON MenuItems
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+
+CREATE TRIGGER IF NOT EXISTS menu_items_catalog_delete AFTER DELETE ON MenuItems
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+
+CREATE TRIGGER IF NOT EXISTS item_categories_catalog_insert AFTER INSERT ON ItemCategories
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+
+CREATE TRIGGER IF NOT EXISTS item_categories_catalog_update AFTER UPDATE ON ItemCategories
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+
+CREATE TRIGGER IF NOT EXISTS item_categories_catalog_delete AFTER DELETE ON ItemCategories
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+
+CREATE TRIGGER IF NOT EXISTS categories_catalog_update AFTER UPDATE OF category_name ON Categories
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+
+CREATE TRIGGER IF NOT EXISTS categories_catalog_delete AFTER DELETE ON Categories
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
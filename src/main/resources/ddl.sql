@@ -43,13 +43,13 @@ CREATE TABLE Orders (
 DROP TABLE IF EXISTS Cart;
 CREATE TABLE Cart (
     cart_id VARCHAR(36) NOT NULL PRIMARY KEY,
-    user_id VARCHAR(36) NOT NULL,
-    item_id VARCHAR(36) NOT NULL,
+    user_id VARCHAR(36),
+    item_id VARCHAR(36),
     quantity INTEGER NOT NULL,
     subtotal REAL NOT NULL,
     is_ordered BOOLEAN DEFAULT 0 NOT NULL,
-    FOREIGN KEY (user_id) REFERENCES Users(user_id),
-    FOREIGN KEY (item_id) REFERENCES MenuItems(item_id)
+    FOREIGN KEY (user_id) REFERENCES Users(user_id) ON DELETE SET NULL,
+    FOREIGN KEY (item_id) REFERENCES MenuItems(item_id) ON DELETE SET NULL
 );
 
 DROP TABLE IF EXISTS ItemCategories;
@@ -92,4 +92,121 @@ CREATE TABLE BonusTransactions (
     notes VARCHAR(255),
     FOREIGN KEY (card_id) REFERENCES LoyaltyCards(card_id) ON DELETE CASCADE,
     FOREIGN KEY (order_id) REFERENCES Orders(order_id) ON DELETE SET NULL
-);
\ No newline at end of file
+);
+
+DROP TABLE IF EXISTS MenuItemThumbnails;
+CREATE TABLE MenuItemThumbnails (
+    item_id VARCHAR(36) NOT NULL PRIMARY KEY,
+    thumbnail BLOB NOT NULL,
+    source_checksum INTEGER NOT NULL,
+    FOREIGN KEY (item_id) REFERENCES MenuItems(item_id) ON DELETE CASCADE
+);
+
+DROP TABLE IF EXISTS CatalogVersion;
+CREATE TABLE CatalogVersion (
+    id INTEGER NOT NULL PRIMARY KEY CHECK (id = 1),
+    version INTEGER NOT NULL
+);
+INSERT INTO CatalogVersion (id, version) VALUES (1, 0);
+
+DROP TABLE IF EXISTS MenuItemSearch;
+CREATE VIRTUAL TABLE MenuItemSearch USING fts5(
+    name,
+    description,
+    ingredients,
+    content = 'MenuItems',
+    content_rowid = 'rowid',
+    tokenize = 'unicode61 remove_diacritics 0',
+    prefix = '1 2 3'
+);
+
+-- Кошик користувача: усі позиції та лише ще не замовлені
+CREATE INDEX idx_cart_user ON Cart (user_id, item_id);
+CREATE INDEX idx_cart_user_open ON Cart (user_id, item_id) WHERE is_ordered = 0;
+-- Дочірній ключ для перевірки зовнішнього ключа під час видалення страви
+CREATE INDEX idx_cart_item ON Cart (item_id);
+
+-- Історія замовлень користувача
+CREATE INDEX idx_orders_user_date ON Orders (user_id, order_date);
+-- Зайнятість столиків і фільтр за статусом
+CREATE INDEX idx_orders_status_table ON Orders (status, table_number);
+CREATE INDEX idx_orders_active_table ON Orders (table_number)
+    WHERE status IN ('PENDING', 'CONFIRMED');
+-- Постраничний перегляд замовлень за датою
+CREATE INDEX idx_orders_date_id ON Orders (order_date, order_id);
+
+-- Позиції замовлення за кошиком (каскадне видалення позицій кошика)
+CREATE INDEX idx_order_cart_items_cart ON OrderCartItems (cart_id);
+
+-- Бонусні операції картки
+CREATE INDEX idx_bonus_transactions_card_date ON BonusTransactions (card_id, transaction_date);
+CREATE INDEX idx_bonus_transactions_order ON BonusTransactions (order_id);
+
+-- Страви категорії: покривний індекс, первинний ключ починається з item_id
+CREATE INDEX idx_item_categories_category ON ItemCategories (category_id, item_id);
+
+-- Пошук страви за назвою
+CREATE INDEX idx_menu_items_name ON MenuItems (name);
+
+-- Пошуковий індекс страв стежить за MenuItems
+CREATE TRIGGER menu_items_search_insert AFTER INSERT ON MenuItems
+BEGIN
+    INSERT INTO MenuItemSearch (rowid, name, description, ingredients)
+    VALUES (new.rowid, new.name, new.description, new.ingredients);
+END;
+CREATE TRIGGER menu_items_search_update AFTER UPDATE OF name, description, ingredients ON MenuItems
+BEGIN
+    INSERT INTO MenuItemSearch (MenuItemSearch, rowid, name, description, ingredients)
+    VALUES ('delete', old.rowid, old.name, old.description, old.ingredients);
+    INSERT INTO MenuItemSearch (rowid, name, description, ingredients)
+    VALUES (new.rowid, new.name, new.description, new.ingredients);
+END;
+CREATE TRIGGER menu_items_search_delete AFTER DELETE ON MenuItems
+BEGIN
+    INSERT INTO MenuItemSearch (MenuItemSearch, rowid, name, description, ingredients)
+    VALUES ('delete', old.rowid, old.name, old.description, old.ingredients);
+END;
+
+-- Незамовлені позиції кошика видаляються разом зі стравою чи користувачем, замовлені лишаються в історії
+CREATE TRIGGER menu_items_open_cart_delete BEFORE DELETE ON MenuItems
+BEGIN
+    DELETE FROM Cart WHERE item_id = old.item_id AND is_ordered = 0;
+END;
+CREATE TRIGGER users_open_cart_delete BEFORE DELETE ON Users
+BEGIN
+    DELETE FROM Cart WHERE user_id = old.user_id AND is_ordered = 0;
+END;
+
+-- Лічильник змін каталогу: за ним термінали помічають застарілий знімок меню
+CREATE TRIGGER menu_items_catalog_insert AFTER INSERT ON MenuItems
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+CREATE TRIGGER menu_items_catalog_update AFTER UPDATE OF name, description, price, calories ON MenuItems
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+CREATE TRIGGER menu_items_catalog_delete AFTER DELETE ON MenuItems
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+CREATE TRIGGER item_categories_catalog_insert AFTER INSERT ON ItemCategories
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+CREATE TRIGGER item_categories_catalog_update AFTER UPDATE ON ItemCategories
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+CREATE TRIGGER item_categories_catalog_delete AFTER DELETE ON ItemCategories
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+CREATE TRIGGER categories_catalog_update AFTER UPDATE OF category_name ON Categories
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;
+CREATE TRIGGER categories_catalog_delete AFTER DELETE ON Categories
+BEGIN
+    UPDATE CatalogVersion SET version = version + 1 WHERE id = 1;
+END;